@@ -0,0 +1,43 @@
+package com.phonecompany.billing.benchmarks;
+
+import com.phonecompany.billing.services.TelephoneBillCalculatorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmarks of {@link TelephoneBillCalculatorImpl} for every kind of input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CalculateBenchmark {
+    private final TelephoneBillCalculatorImpl calculator = new TelephoneBillCalculatorImpl();
+
+    @Benchmark
+    public BigDecimal calculateString(CallLogState callLog) {
+        return calculator.calculate(callLog.phoneLog);
+    }
+
+    @Benchmark
+    public BigDecimal calculatePath(CallLogState callLog) {
+        return calculator.calculate(callLog.phoneLogFile);
+    }
+
+    @Benchmark
+    public BigDecimal calculateMapped(CallLogState callLog) {
+        return calculator.calculateMapped(callLog.phoneLogFile);
+    }
+}
@@ -0,0 +1,36 @@
+package com.phonecompany.billing.benchmarks;
+
+import com.phonecompany.billing.generator.CallLogGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Synthetic phone log of a given number of lines, both as a string and as a file.
+ * The log is produced by the {@link CallLogGenerator} with its default distributions and no malformed lines.
+ */
+@State(Scope.Benchmark)
+public class CallLogState {
+    private static final long SEED = 20230901L;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int lines;
+
+    public String phoneLog;
+    public Path phoneLogFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CallLogGenerator generator = CallLogGenerator.builder().seed(SEED).build();
+        phoneLog = generator.generate(lines);
+        phoneLogFile = Files.createTempFile("phone-log-" + lines + "-", ".csv");
+        phoneLogFile.toFile().deleteOnExit();
+        generator.write(phoneLogFile, lines);
+    }
+}
@@ -0,0 +1,28 @@
+package com.phonecompany.billing.benchmarks;
+
+import com.phonecompany.billing.domain.entities.CallRecordBatch;
+import com.phonecompany.billing.parsers.MappedCallLogReader;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Synthetic phone log already parsed into a columnar batch, for benchmarking the stages after parsing.
+ */
+@State(Scope.Benchmark)
+public class CallRecordBatchState {
+    public PhoneNumberCodec phoneNumberCodec;
+    public CallRecordBatch batch;
+
+    @Setup(Level.Trial)
+    public void setUp(CallLogState callLog) throws IOException, ParseException {
+        phoneNumberCodec = new PhoneNumberCodec();
+        batch = new CallRecordBatch(callLog.lines);
+        new MappedCallLogReader(phoneNumberCodec).read(callLog.phoneLogFile, batch::add);
+    }
+}
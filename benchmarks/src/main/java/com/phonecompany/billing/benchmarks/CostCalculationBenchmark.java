@@ -0,0 +1,38 @@
+package com.phonecompany.billing.benchmarks;
+
+import com.phonecompany.billing.domain.entities.CallRecordBatch;
+import com.phonecompany.billing.services.FixedPointCostEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of rating already parsed calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CostCalculationBenchmark {
+    private final FixedPointCostEngine costEngine = new FixedPointCostEngine();
+
+    @Benchmark
+    public long calculateCallCosts(CallRecordBatchState calls) {
+        CallRecordBatch batch = calls.batch;
+        long totalCost = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            totalCost += costEngine.calculateCallCost(batch.getStartTime(i), batch.getEndTime(i));
+        }
+        return totalCost;
+    }
+}
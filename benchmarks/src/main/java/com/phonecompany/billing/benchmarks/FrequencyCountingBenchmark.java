@@ -0,0 +1,37 @@
+package com.phonecompany.billing.benchmarks;
+
+import com.phonecompany.billing.domain.entities.CallRecordBatch;
+import com.phonecompany.billing.services.BillAccumulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of counting calls per phone number and finding the most frequent phone number.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FrequencyCountingBenchmark {
+
+    @Benchmark
+    public long findMostFrequentPhoneNumber(CallRecordBatchState calls) {
+        CallRecordBatch batch = calls.batch;
+        BillAccumulator bill = new BillAccumulator(calls.phoneNumberCodec);
+        for (int i = 0; i < batch.size(); i++) {
+            bill.addCall(batch.getPhoneNumber(i), 0);
+        }
+        return bill.getMostFrequentPhoneNumber();
+    }
+}
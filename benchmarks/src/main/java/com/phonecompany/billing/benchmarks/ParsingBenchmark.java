@@ -0,0 +1,45 @@
+package com.phonecompany.billing.benchmarks;
+
+import com.phonecompany.billing.domain.entities.CallRecordBatch;
+import com.phonecompany.billing.parsers.MappedCallLogReader;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of parsing a phone log file into columnar batches, without rating the calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ParsingBenchmark {
+    private static final int BATCH_SIZE = 4096;
+
+    @Benchmark
+    public long parseMapped(CallLogState callLog) throws IOException, ParseException {
+        CallRecordBatch batch = new CallRecordBatch(BATCH_SIZE);
+        long[] parsedCalls = new long[1];
+        new MappedCallLogReader(new PhoneNumberCodec()).read(callLog.phoneLogFile, (phoneNumber, startTime, endTime) -> {
+            batch.add(phoneNumber, startTime, endTime);
+            if (batch.isFull()) {
+                parsedCalls[0] += batch.size();
+                batch.clear();
+            }
+        });
+        return parsedCalls[0] + batch.size();
+    }
+}
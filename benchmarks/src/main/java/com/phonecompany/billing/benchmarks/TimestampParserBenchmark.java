@@ -0,0 +1,78 @@
+package com.phonecompany.billing.benchmarks;
+
+import com.phonecompany.billing.generator.CallLogGenerator;
+import com.phonecompany.billing.parsers.TimestampParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of decoding single timestamps, compared to parsing them with a new {@link SimpleDateFormat}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimestampParserBenchmark {
+    private static final int TIMESTAMPS = 1024;
+
+    private String[] timestamps;
+    private byte[] timestampBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String phoneLog = CallLogGenerator.builder().build().generate(TIMESTAMPS);
+        timestamps = new String[TIMESTAMPS];
+        String[] lines = phoneLog.split("\n");
+        for (int i = 0; i < TIMESTAMPS; i++) {
+            timestamps[i] = lines[i].split(",")[1];
+        }
+        timestampBytes = String.join("", timestamps).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TIMESTAMPS)
+    public long parseString() throws ParseException {
+        long sum = 0;
+        for (String timestamp : timestamps) {
+            sum += TimestampParser.parseEpochSecond(timestamp);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TIMESTAMPS)
+    public long parseBytes() throws ParseException {
+        long sum = 0;
+        for (int from = 0; from < timestampBytes.length; from += TimestampParser.TIMESTAMP_LENGTH) {
+            sum += TimestampParser.parseEpochSecond(timestampBytes, from, from + TimestampParser.TIMESTAMP_LENGTH);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TIMESTAMPS)
+    public long parseSimpleDateFormat() throws ParseException {
+        long sum = 0;
+        for (String timestamp : timestamps) {
+            sum += new SimpleDateFormat("dd-MM-yyyy HH:mm:ss").parse(timestamp).getTime();
+        }
+        return sum;
+    }
+}
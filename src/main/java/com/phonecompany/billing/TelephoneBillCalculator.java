@@ -1,6 +1,62 @@
 package com.phonecompany.billing;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public interface TelephoneBillCalculator {
     BigDecimal calculate (String phoneLog);
-}
\ No newline at end of file
+
+    /**
+     * Calculates the total cost of phone calls read from the given reader. By default the whole phone log
+     * is read into a string and billed by {@link #calculate(String)}. The reader is not closed by this method.
+     *
+     * @param phoneLog a reader providing the phone log
+     * @return the total cost of phone calls
+     * @throws UncheckedIOException if the phone log cannot be read
+     */
+    default BigDecimal calculate (Reader phoneLog) {
+        StringWriter text = new StringWriter();
+        try {
+            phoneLog.transferTo(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return calculate(text.toString());
+    }
+
+    /**
+     * Calculates the total cost of phone calls read from the given UTF-8 encoded stream, see
+     * {@link #calculate(Reader)}. The stream is not closed by this method.
+     *
+     * @param phoneLog a stream containing the phone log
+     * @return the total cost of phone calls
+     * @throws UncheckedIOException if the phone log cannot be read
+     */
+    default BigDecimal calculate (InputStream phoneLog) {
+        return calculate(new InputStreamReader(phoneLog, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Calculates the total cost of phone calls stored in the given UTF-8 encoded file. By default the whole file
+     * is read into a string and billed by {@link #calculate(String)}.
+     *
+     * @param phoneLog the path of a file containing the phone log
+     * @return the total cost of phone calls
+     * @throws UncheckedIOException if the phone log cannot be read
+     */
+    default BigDecimal calculate (Path phoneLog) {
+        try {
+            return calculate(Files.readString(phoneLog, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
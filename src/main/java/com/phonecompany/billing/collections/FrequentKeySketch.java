@@ -0,0 +1,80 @@
+package com.phonecompany.billing.collections;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Misra-Gries summary finding the frequent keys of a stream with a bounded number of counters.
+ * While there is a free counter, every new key gets one. When all counters are taken and a key without a counter
+ * arrives, all counters are decremented instead and the ones reaching zero are freed; such a decrement round
+ * happens at most once per capacity + 1 added keys, so adding is amortized constant time.
+ * Any key without a counter occurred at most {@link #getDecrementCount()} times, so the candidates
+ * contain every key occurring more often than that, in particular every key occurring more often than
+ * {@code n / (capacity + 1)} times in a stream of n keys.
+ * The summary is not thread-safe.
+ */
+public class FrequentKeySketch {
+    private final int capacity;
+    private LongTallyMap counters;
+    private LongTallyMap decrementedCounters;
+    private long decrementCount;
+
+    /**
+     * Creates an empty summary.
+     *
+     * @param capacity the maximum number of counted keys
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public FrequentKeySketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new LongTallyMap(capacity);
+        this.decrementedCounters = new LongTallyMap(capacity);
+    }
+
+    /**
+     * Counts an occurrence of the given key.
+     *
+     * @param key the key
+     */
+    public void add(long key) {
+        if (counters.size() < capacity || counters.containsKey(key)) {
+            counters.add(key, 1, 0);
+            return;
+        }
+        LongTallyMap remainingCounters = decrementedCounters;
+        remainingCounters.clear();
+        counters.forEach((counterKey, count, sum) -> {
+            if (count > 1) {
+                remainingCounters.add(counterKey, count - 1, 0);
+            }
+        });
+        decrementedCounters = counters;
+        counters = remainingCounters;
+        decrementCount++;
+    }
+
+    /**
+     * Passes the keys which currently have a counter to the given consumer, in no particular order.
+     *
+     * @param consumer the consumer of the candidate keys
+     */
+    public void forEachCandidate(LongConsumer consumer) {
+        counters.forEach((key, count, sum) -> consumer.accept(key));
+    }
+
+    /**
+     * Returns the number of decrement rounds so far, which bounds how often any key without a counter occurred
+     * and by how much the counter of any key falls short of its occurrences.
+     *
+     * @return the number of decrement rounds
+     */
+    public long getDecrementCount() {
+        return decrementCount;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
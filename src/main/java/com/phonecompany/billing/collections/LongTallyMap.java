@@ -0,0 +1,223 @@
+package com.phonecompany.billing.collections;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} keys to a count and a sum, both kept in primitive arrays.
+ * Adding to an existing key does not allocate anything; the arrays grow once the map is half full.
+ * The map is not thread-safe.
+ */
+public class LongTallyMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final long FREE_KEY = 0;
+
+    /**
+     * Receives the entries of the map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int count, long sum);
+    }
+
+    private long[] keys;
+    private int[] counts;
+    private long[] sums;
+    private int size;
+    private int mask;
+    private boolean hasFreeKey;
+    private int freeKeyCount;
+    private long freeKeySum;
+
+    public LongTallyMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a map able to hold the given number of keys without growing.
+     *
+     * @param expectedSize the expected number of keys
+     */
+    public LongTallyMap(int expectedSize) {
+        allocate(Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 2 - 1) << 1));
+    }
+
+    /**
+     * Adds the given count and sum to the entry of the key, creating the entry if there is none.
+     *
+     * @param key the key
+     * @param count the count to be added
+     * @param sum the sum to be added
+     * @throws ArithmeticException if the count or the sum of the entry overflows
+     */
+    public void add(long key, int count, long sum) {
+        if (key == FREE_KEY) {
+            freeKeyCount = Math.addExact(freeKeyCount, count);
+            freeKeySum = Math.addExact(freeKeySum, sum);
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            return;
+        }
+        int slot = findSlot(key);
+        if (keys[slot] == FREE_KEY) {
+            keys[slot] = key;
+            counts[slot] = count;
+            sums[slot] = sum;
+            if (++size * 2 > keys.length) {
+                allocate(keys.length * 2);
+            }
+            return;
+        }
+        counts[slot] = Math.addExact(counts[slot], count);
+        sums[slot] = Math.addExact(sums[slot], sum);
+    }
+
+    /**
+     * Returns the count of the given key.
+     *
+     * @param key the key
+     * @return the count of the key, or 0 if the map does not contain the key
+     */
+    public int getCount(long key) {
+        if (key == FREE_KEY) {
+            return freeKeyCount;
+        }
+        int slot = findSlot(key);
+        return keys[slot] == FREE_KEY ? 0 : counts[slot];
+    }
+
+    /**
+     * Returns the sum of the given key.
+     *
+     * @param key the key
+     * @return the sum of the key, or 0 if the map does not contain the key
+     */
+    public long getSum(long key) {
+        if (key == FREE_KEY) {
+            return freeKeySum;
+        }
+        int slot = findSlot(key);
+        return keys[slot] == FREE_KEY ? 0 : sums[slot];
+    }
+
+    /**
+     * Determines if the map contains the given key.
+     *
+     * @param key the key
+     * @return {@code true} if the map contains the key, {@code false} otherwise
+     */
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return keys[findSlot(key)] != FREE_KEY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes all entries of the map to the given consumer, in no particular order.
+     *
+     * @param consumer the consumer of the entries
+     */
+    public void forEach(EntryConsumer consumer) {
+        if (hasFreeKey) {
+            consumer.accept(FREE_KEY, freeKeyCount, freeKeySum);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != FREE_KEY) {
+                consumer.accept(keys[slot], counts[slot], sums[slot]);
+            }
+        }
+    }
+
+    /**
+     * Adds all entries of another map to this map.
+     *
+     * @param other the map to be merged into this one
+     * @throws ArithmeticException if a count or a sum overflows
+     */
+    public void addAll(LongTallyMap other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * Returns the number of slots of the map, which grows once more than half of them are used.
+     *
+     * @return the capacity of the map
+     */
+    int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Removes all entries, keeping the allocated capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        size = 0;
+        hasFreeKey = false;
+        freeKeyCount = 0;
+        freeKeySum = 0;
+    }
+
+    /**
+     * Finds the slot holding the given key, or the free slot where it would be inserted.
+     *
+     * @param key the key, other than the free key
+     * @return the index of the slot
+     */
+    private int findSlot(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Spreads the bits of the key over the whole hash, as the low bits of packed phone numbers are mostly zero.
+     *
+     * @param key the key
+     * @return the hash of the key
+     */
+    static int hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Allocates arrays of the given capacity and moves all entries into them.
+     *
+     * @param capacity the new capacity, a power of two
+     */
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        long[] oldSums = sums;
+
+        keys = new long[capacity];
+        counts = new int[capacity];
+        sums = new long[capacity];
+        mask = capacity - 1;
+
+        if (oldKeys != null) {
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != FREE_KEY) {
+                    int newSlot = findSlot(oldKeys[slot]);
+                    keys[newSlot] = oldKeys[slot];
+                    counts[newSlot] = oldCounts[slot];
+                    sums[newSlot] = oldSums[slot];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.phonecompany.billing.collections;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Map from {@code long} keys to a count and a sum, like {@link LongTallyMap}, which holds at most a given number
+ * of keys in memory. When there are more, the entries are spilled to temporary files, partitioned by a hash of the
+ * key, and the map starts over empty; the same key may thus be spilled many times with partial tallies.
+ * {@link #forEach(LongTallyMap.EntryConsumer)} then merges the partitions one by one, so every key is passed
+ * exactly once with its complete tally while only one partition is held in memory. A partition which still has
+ * too many keys is split again by further bits of the hash.
+ * The map is not thread-safe and has to be closed to delete its temporary files.
+ */
+public class SpillingTallyMap implements Closeable {
+    private static final int PARTITION_BITS = 4;
+    private static final int PARTITION_COUNT = 1 << PARTITION_BITS;
+    private static final int MAX_LEVEL = Long.SIZE / PARTITION_BITS;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int maxKeysInMemory;
+    private final Path directory;
+    private final LongTallyMap tallies;
+    private final List<Path> files = new ArrayList<>();
+    private Partitions partitions;
+    private boolean spilled;
+
+    /**
+     * Creates an empty map.
+     *
+     * @param maxKeysInMemory the maximum number of keys held in memory
+     * @param directory the directory for the temporary files
+     * @throws IllegalArgumentException if the maximum number of keys is not positive
+     */
+    public SpillingTallyMap(int maxKeysInMemory, Path directory) {
+        if (maxKeysInMemory < 1) {
+            throw new IllegalArgumentException("Maximum number of keys in memory must be positive: " + maxKeysInMemory);
+        }
+        this.maxKeysInMemory = maxKeysInMemory;
+        this.directory = directory;
+        this.tallies = new LongTallyMap(maxKeysInMemory);
+    }
+
+    /**
+     * Adds the given count and sum to the entry of the key. If the key is new and the map already holds the maximum
+     * number of keys, all entries are spilled first, so the map in memory never grows beyond its initial capacity.
+     *
+     * @param key the key
+     * @param count the count to be added
+     * @param sum the sum to be added
+     * @throws IOException if the entries cannot be spilled
+     * @throws ArithmeticException if the count or the sum of the entry overflows
+     */
+    public void add(long key, int count, long sum) throws IOException {
+        if (isFull(key)) {
+            if (partitions == null) {
+                partitions = new Partitions(0);
+                spilled = true;
+            }
+            partitions.write(tallies);
+            tallies.clear();
+        }
+        tallies.add(key, count, sum);
+    }
+
+    /**
+     * Determines if any entries were spilled to temporary files.
+     *
+     * @return {@code true} if entries were spilled, {@code false} if all entries are in memory
+     */
+    public boolean isSpilled() {
+        return spilled;
+    }
+
+    /**
+     * Passes every key with its complete count and sum to the given consumer, in no particular order.
+     * Once the entries are spilled, this consumes the map, so it must be called at most once.
+     *
+     * @param consumer the consumer of the entries
+     * @throws IOException if the temporary files cannot be read or written
+     * @throws ArithmeticException if a count or a sum overflows
+     */
+    public void forEach(LongTallyMap.EntryConsumer consumer) throws IOException {
+        if (partitions == null) {
+            tallies.forEach(consumer);
+            return;
+        }
+        partitions.write(tallies);
+        tallies.clear();
+        Partitions spilledPartitions = partitions;
+        partitions = null;
+        merge(spilledPartitions, consumer);
+    }
+
+    /**
+     * Deletes all temporary files.
+     *
+     * @throws IOException if a temporary file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        if (partitions != null) {
+            try {
+                partitions.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        files.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Merges the partial tallies of every partition and passes the merged entries to the consumer.
+     *
+     * @param spilledPartitions the partitions
+     * @param consumer the consumer of the entries
+     * @throws IOException if the temporary files cannot be read or written
+     */
+    private void merge(Partitions spilledPartitions, LongTallyMap.EntryConsumer consumer) throws IOException {
+        spilledPartitions.close();
+        int level = spilledPartitions.level;
+        for (Path file : spilledPartitions.partitionFiles) {
+            if (file == null) {
+                continue;
+            }
+            Partitions subpartitions = null;
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+                while (true) {
+                    long key;
+                    try {
+                        key = input.readLong();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (level + 1 < MAX_LEVEL && isFull(key)) {
+                        if (subpartitions == null) {
+                            subpartitions = new Partitions(level + 1);
+                        }
+                        subpartitions.write(tallies);
+                        tallies.clear();
+                    }
+                    tallies.add(key, input.readInt(), input.readLong());
+                }
+            } catch (IOException | RuntimeException e) {
+                if (subpartitions != null) {
+                    subpartitions.close();
+                }
+                throw e;
+            }
+            Files.delete(file);
+            files.remove(file);
+            if (subpartitions == null) {
+                tallies.forEach(consumer);
+            } else {
+                subpartitions.write(tallies);
+                tallies.clear();
+                merge(subpartitions, consumer);
+            }
+            tallies.clear();
+        }
+    }
+
+    /**
+     * Returns the capacity of the map in memory.
+     *
+     * @return the number of slots of the map in memory
+     */
+    int getCapacity() {
+        return tallies.getCapacity();
+    }
+
+    /**
+     * Determines if adding the key would exceed the maximum number of keys in memory.
+     *
+     * @param key the key to be added
+     * @return {@code true} if the map in memory is full and does not contain the key
+     */
+    private boolean isFull(long key) {
+        return tallies.size() == maxKeysInMemory && !tallies.containsKey(key);
+    }
+
+    /**
+     * Mixes the bits of the key, so that every group of {@value #PARTITION_BITS} bits selects an independent partition.
+     *
+     * @param key the key
+     * @return the hash of the key
+     */
+    private static long hash(long key) {
+        long h = key;
+        h ^= h >>> 31;
+        h *= 0x7FB5D329728EA185L;
+        h ^= h >>> 27;
+        h *= 0x81DADEF4BC2DD44DL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * The temporary files of one level of partitioning, created on first use.
+     */
+    private final class Partitions implements Closeable {
+        private final int level;
+        private final Path[] partitionFiles = new Path[PARTITION_COUNT];
+        private final DataOutputStream[] outputs = new DataOutputStream[PARTITION_COUNT];
+
+        Partitions(int level) {
+            this.level = level;
+        }
+
+        /**
+         * Appends all entries of the map to the files of their partitions.
+         *
+         * @param entries the entries
+         * @throws IOException if the entries cannot be written
+         */
+        void write(LongTallyMap entries) throws IOException {
+            IOException[] failure = new IOException[1];
+            entries.forEach((key, count, sum) -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    DataOutputStream output = getOutput((int) (hash(key) >>> (level * PARTITION_BITS)) & (PARTITION_COUNT - 1));
+                    output.writeLong(key);
+                    output.writeInt(count);
+                    output.writeLong(sum);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+
+        private DataOutputStream getOutput(int partition) throws IOException {
+            if (outputs[partition] == null) {
+                Path file = Files.createTempFile(directory, "phone-numbers-", ".tally");
+                files.add(file);
+                partitionFiles[partition] = file;
+                outputs[partition] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+            }
+            return outputs[partition];
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+                if (outputs[partition] != null) {
+                    outputs[partition].close();
+                    outputs[partition] = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.phonecompany.billing.domain.entities;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Bills of many subscribers, stored as parallel arrays of subscriber ids and total costs in minor units
+ * instead of one object per bill. Bills are kept in the order they were added.
+ */
+public class BillTable {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int scale;
+    private String[] subscriberIds = new String[DEFAULT_CAPACITY];
+    private long[] totalCosts = new long[DEFAULT_CAPACITY];
+    private int size;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param scale the number of decimal places of the minor units of the total costs
+     */
+    public BillTable(int scale) {
+        this.scale = scale;
+    }
+
+    /**
+     * Adds the bill of a subscriber to the table.
+     *
+     * @param subscriberId the id of the subscriber
+     * @param totalCost the total cost of the bill in minor units
+     */
+    public void add(String subscriberId, long totalCost) {
+        if (size == subscriberIds.length) {
+            subscriberIds = Arrays.copyOf(subscriberIds, size * 2);
+            totalCosts = Arrays.copyOf(totalCosts, size * 2);
+        }
+        subscriberIds[size] = subscriberId;
+        totalCosts[size] = totalCost;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public String getSubscriberId(int index) {
+        return subscriberIds[index];
+    }
+
+    /**
+     * Returns the total cost of a bill in minor units.
+     *
+     * @param index the index of the bill
+     * @return the total cost in minor units
+     */
+    public long getTotalCost(int index) {
+        return totalCosts[index];
+    }
+
+    /**
+     * Returns the total cost of a bill as a BigDecimal with the scale of the table, as
+     * {@link com.phonecompany.billing.TelephoneBillCalculator} returns it for a log with calls, e.g. {@code 0.00}
+     * if all calls are free. Unlike the calculator, which returns {@link BigDecimal#ZERO} for an empty or failed log,
+     * such bills are also returned with the scale of the table.
+     *
+     * @param index the index of the bill
+     * @return the total cost
+     */
+    public BigDecimal getAmount(int index) {
+        return BigDecimal.valueOf(totalCosts[index], scale);
+    }
+}
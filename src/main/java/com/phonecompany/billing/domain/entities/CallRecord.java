@@ -1,13 +1,16 @@
 package com.phonecompany.billing.domain.entities;
 
-import java.util.Date;
-
+/**
+ * A single call of a phone log.
+ * The start and end times are wall clock epoch seconds, as decoded by the
+ * {@link com.phonecompany.billing.parsers.TimestampParser}.
+ */
 public class CallRecord {
     private final String phoneNumber;
-    private final Date startTime;
-    private final Date endTime;
+    private final long startTime;
+    private final long endTime;
 
-    public CallRecord(String phoneNumber, Date startTime, Date endTime) {
+    public CallRecord(String phoneNumber, long startTime, long endTime) {
         this.phoneNumber = phoneNumber;
         this.startTime = startTime;
         this.endTime = endTime;
@@ -17,11 +20,11 @@ public class CallRecord {
         return phoneNumber;
     }
 
-    public Date getStartTime() {
+    public long getStartTime() {
         return startTime;
     }
 
-    public Date getEndTime() {
+    public long getEndTime() {
         return endTime;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.phonecompany.billing.domain.entities;
+
+import java.util.Arrays;
+
+/**
+ * Columnar batch of call records, stored as parallel primitive arrays instead of one object per call.
+ * A call takes 24 bytes: the phone number code, see {@link com.phonecompany.billing.parsers.PhoneNumberCodec},
+ * and the start and end as wall clock epoch seconds, so any call a parser accepts can be stored.
+ * The batch grows when a call is added to a full batch, so it can be used both as a bounded buffer
+ * which is flushed whenever it {@link #isFull() is full} and as an in-memory store of a whole phone log.
+ */
+public class CallRecordBatch {
+    private long[] phoneNumbers;
+    private long[] startTimes;
+    private long[] endTimes;
+    private int size;
+
+    /**
+     * Creates an empty batch with the given capacity.
+     *
+     * @param capacity the number of calls the batch holds before it is full
+     */
+    public CallRecordBatch(int capacity) {
+        phoneNumbers = new long[capacity];
+        startTimes = new long[capacity];
+        endTimes = new long[capacity];
+    }
+
+    /**
+     * Adds a call to the batch, growing the batch if it is full.
+     *
+     * @param phoneNumber the code of the called phone number
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param endTime the end of the call in wall clock epoch seconds
+     */
+    public void add(long phoneNumber, long startTime, long endTime) {
+        if (size == phoneNumbers.length) {
+            grow();
+        }
+        phoneNumbers[size] = phoneNumber;
+        startTimes[size] = startTime;
+        endTimes[size] = endTime;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == phoneNumbers.length;
+    }
+
+    /**
+     * Removes all calls, keeping the allocated capacity.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public long getPhoneNumber(int index) {
+        return phoneNumbers[index];
+    }
+
+    public long getStartTime(int index) {
+        return startTimes[index];
+    }
+
+    public long getEndTime(int index) {
+        return endTimes[index];
+    }
+
+    /**
+     * Doubles the capacity of the batch.
+     */
+    private void grow() {
+        int capacity = Math.max(16, phoneNumbers.length * 2);
+        phoneNumbers = Arrays.copyOf(phoneNumbers, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        endTimes = Arrays.copyOf(endTimes, capacity);
+    }
+}
@@ -0,0 +1,22 @@
+package com.phonecompany.billing.domain.entities;
+
+/**
+ * The phone log of a single subscriber, to be billed together with the logs of other subscribers.
+ */
+public class SubscriberLog {
+    private final String subscriberId;
+    private final String phoneLog;
+
+    public SubscriberLog(String subscriberId, String phoneLog) {
+        this.subscriberId = subscriberId;
+        this.phoneLog = phoneLog;
+    }
+
+    public String getSubscriberId() {
+        return subscriberId;
+    }
+
+    public String getPhoneLog() {
+        return phoneLog;
+    }
+}
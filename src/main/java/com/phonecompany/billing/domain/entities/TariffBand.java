@@ -0,0 +1,62 @@
+package com.phonecompany.billing.domain.entities;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A time band of a tariff plan: the rate per minute on the given days of week between two times of day.
+ */
+public class TariffBand {
+    public static final int MINUTES_PER_DAY = 1440;
+
+    private final String name;
+    private final Set<DayOfWeek> daysOfWeek;
+    private final int fromMinuteOfDay;
+    private final int toMinuteOfDay;
+    private final BigDecimal rate;
+
+    /**
+     * Creates a band.
+     *
+     * @param name the name of the band, shown on itemized bills
+     * @param daysOfWeek the days of week the band applies to
+     * @param fromMinuteOfDay the first minute of day the band applies to
+     * @param toMinuteOfDay the minute of day after the last one the band applies to, up to 1440
+     * @param rate the rate per minute
+     * @throws IllegalArgumentException if the times of day do not form a non-empty range within a day
+     */
+    public TariffBand(String name, Set<DayOfWeek> daysOfWeek, int fromMinuteOfDay, int toMinuteOfDay, BigDecimal rate) {
+        if (fromMinuteOfDay < 0 || fromMinuteOfDay >= toMinuteOfDay || toMinuteOfDay > MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Invalid time range of band " + name + ": minutes "
+                    + fromMinuteOfDay + " to " + toMinuteOfDay + ".");
+        }
+        this.name = name;
+        this.daysOfWeek = Collections.unmodifiableSet(EnumSet.copyOf(daysOfWeek));
+        this.fromMinuteOfDay = fromMinuteOfDay;
+        this.toMinuteOfDay = toMinuteOfDay;
+        this.rate = rate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public int getFromMinuteOfDay() {
+        return fromMinuteOfDay;
+    }
+
+    public int getToMinuteOfDay() {
+        return toMinuteOfDay;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+}
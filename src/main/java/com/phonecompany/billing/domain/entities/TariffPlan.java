@@ -0,0 +1,88 @@
+package com.phonecompany.billing.domain.entities;
+
+import com.phonecompany.billing.domain.enums.BillingRate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Definition of a tariff: the rate of every minute of the week, the surcharge of long calls and the promotions.
+ * A minute is rated by the last band covering it, or by the default rate if no band does.
+ * Calls longer than the long call limit pay the surcharge for every further minute on top of the band rate.
+ * The plan is compiled into a lookup table by {@link com.phonecompany.billing.services.CompiledTariff}.
+ */
+public class TariffPlan {
+    private static final int LOW_BOUNCE = 8;
+    private static final int UP_BOUNCE = 16;
+    private static final int LONG_CALL = 5;
+    private static final int MINUTES_PER_HOUR = 60;
+
+    private final String defaultBandName;
+    private final BigDecimal defaultRate;
+    private final List<TariffBand> bands;
+    private final int longCallMinutes;
+    private final BigDecimal longCallSurcharge;
+    private final boolean mostFrequentNumberFree;
+
+    /**
+     * Creates a tariff plan.
+     *
+     * @param defaultBandName the name of the minutes not covered by any band
+     * @param defaultRate the rate per minute of the minutes not covered by any band
+     * @param bands the bands, later ones taking precedence over earlier ones
+     * @param longCallMinutes the number of minutes of a call without the long call surcharge
+     * @param longCallSurcharge the surcharge for every minute beyond the long call limit
+     * @param mostFrequentNumberFree whether the calls to the most frequently called number are free
+     */
+    public TariffPlan(String defaultBandName, BigDecimal defaultRate, List<TariffBand> bands, int longCallMinutes,
+                      BigDecimal longCallSurcharge, boolean mostFrequentNumberFree) {
+        if (longCallMinutes < 0) {
+            throw new IllegalArgumentException("Long call limit must not be negative: " + longCallMinutes);
+        }
+        this.defaultBandName = defaultBandName;
+        this.defaultRate = defaultRate;
+        this.bands = List.copyOf(bands);
+        this.longCallMinutes = longCallMinutes;
+        this.longCallSurcharge = longCallSurcharge;
+        this.mostFrequentNumberFree = mostFrequentNumberFree;
+    }
+
+    /**
+     * Returns the standard tariff: the normal rate from 8:00 to 16:00 and the reduced rate otherwise, every day,
+     * the additional rate for every minute beyond the fifth, and free calls to the most frequent number.
+     *
+     * @return the standard tariff plan
+     */
+    public static TariffPlan defaultPlan() {
+        TariffBand normalRateBand = new TariffBand(BillingRate.NORMAL_RATE.name(), EnumSet.allOf(DayOfWeek.class),
+                LOW_BOUNCE * MINUTES_PER_HOUR, UP_BOUNCE * MINUTES_PER_HOUR, BillingRate.NORMAL_RATE.getRate());
+        return new TariffPlan(BillingRate.REDUCED_RATE.name(), BillingRate.REDUCED_RATE.getRate(), List.of(normalRateBand),
+                LONG_CALL, BillingRate.ADDITIONAL_RATE.getRate(), true);
+    }
+
+    public String getDefaultBandName() {
+        return defaultBandName;
+    }
+
+    public BigDecimal getDefaultRate() {
+        return defaultRate;
+    }
+
+    public List<TariffBand> getBands() {
+        return bands;
+    }
+
+    public int getLongCallMinutes() {
+        return longCallMinutes;
+    }
+
+    public BigDecimal getLongCallSurcharge() {
+        return longCallSurcharge;
+    }
+
+    public boolean isMostFrequentNumberFree() {
+        return mostFrequentNumberFree;
+    }
+}
@@ -0,0 +1,15 @@
+package com.phonecompany.billing.domain.enums;
+
+/**
+ * How the duration of a call is turned into rated minutes.
+ */
+public enum RatingMode {
+    /**
+     * Whole minutes of the call, truncated, all rated by the band of the hour the call starts in.
+     */
+    START_HOUR,
+    /**
+     * Every started minute of the call, each rated by the band of the hour the minute starts in.
+     */
+    PER_STARTED_MINUTE
+}
@@ -0,0 +1,376 @@
+package com.phonecompany.billing.generator;
+
+import com.phonecompany.billing.parsers.TimestampParser;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Generator of synthetic phone logs for benchmarks and load tests.
+ * Called phone numbers follow a Zipf distribution, so a few numbers get most of the calls, call starts follow
+ * a daily profile of weights per hour which rises around the normal rate hours, and call durations follow
+ * a log-normal distribution. A given fraction of the lines is deliberately malformed, by default only in ways which
+ * parsers skip (empty lines, missing or extra fields), so the log can still be billed. Unparsable timestamps, which
+ * make the calculation of the whole bill fail, are added to the mix only on request.
+ * Lines are formatted straight into a byte buffer, so the generator writes at the speed of the disk.
+ * Generators are configured by a {@link Builder} and produce the same log for the same seed.
+ */
+public class CallLogGenerator {
+    private static final int SECONDS_PER_HOUR = 3600;
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final int HOURS_PER_DAY = 24;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_LINE_LENGTH = 128;
+    private static final double[] DIURNAL_PROFILE = {
+            0.3, 0.2, 0.15, 0.1, 0.1, 0.2, 0.6, 1.5,
+            3.0, 3.5, 3.6, 3.4, 3.0, 3.2, 3.4, 3.2,
+            2.8, 2.4, 2.0, 1.6, 1.2, 0.9, 0.6, 0.4
+    };
+
+    private final long firstPhoneNumber;
+    private final ZipfDistribution phoneNumberDistribution;
+    private final long firstEpochDay;
+    private final int days;
+    private final double[] cumulativeHourWeights;
+    private final double logMedianDuration;
+    private final double durationSigma;
+    private final int maxDurationSeconds;
+    private final double malformedFraction;
+    private final Malformation[] malformations;
+    private final long seed;
+
+    private CallLogGenerator(Builder builder) {
+        this.firstPhoneNumber = builder.firstPhoneNumber;
+        this.phoneNumberDistribution = new ZipfDistribution(builder.phoneNumberCount, builder.zipfExponent);
+        this.firstEpochDay = builder.firstDay.toEpochDay();
+        this.days = builder.days;
+        this.cumulativeHourWeights = cumulate(builder.hourlyWeights);
+        this.logMedianDuration = Math.log(builder.medianDurationSeconds);
+        this.durationSigma = builder.durationSigma;
+        this.maxDurationSeconds = builder.maxDurationSeconds;
+        this.malformedFraction = builder.malformedFraction;
+        this.malformations = builder.badTimestamps ? Malformation.values() : Malformation.SKIPPABLE;
+        this.seed = builder.seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Generates a phone log with the given number of lines as a string.
+     *
+     * @param lines the number of lines
+     * @return the phone log
+     */
+    public String generate(int lines) {
+        ByteArrayOutputStream phoneLog = new ByteArrayOutputStream(lines * 54);
+        try {
+            write(phoneLog, lines);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return phoneLog.toString(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes a phone log with the given number of lines to a file.
+     *
+     * @param phoneLog the path of the file, which is replaced if it exists
+     * @param lines the number of lines
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path phoneLog, long lines) throws IOException {
+        try (OutputStream output = Files.newOutputStream(phoneLog)) {
+            write(output, lines);
+        }
+    }
+
+    /**
+     * Writes a phone log with the given number of lines to a stream, which is not closed.
+     *
+     * @param output the stream to write the phone log to
+     * @param lines the number of lines
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(OutputStream output, long lines) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int position = 0;
+
+        for (long line = 0; line < lines; line++) {
+            if (position > BUFFER_SIZE - MAX_LINE_LENGTH) {
+                output.write(buffer, 0, position);
+                position = 0;
+            }
+            position = writeLine(random, buffer, position);
+        }
+        output.write(buffer, 0, position);
+        output.flush();
+    }
+
+    /**
+     * Writes a single random line, which is malformed with the configured probability.
+     *
+     * @param random the source of randomness
+     * @param buffer the buffer to write to
+     * @param position the position to write at
+     * @return the position after the written line
+     */
+    private int writeLine(SplittableRandom random, byte[] buffer, int position) {
+        long phoneNumber = firstPhoneNumber + phoneNumberDistribution.sample(random) - 1;
+        long startTime = sampleStartTime(random);
+        long endTime = startTime + sampleDuration(random);
+        Malformation malformation = malformedFraction > 0 && random.nextDouble() < malformedFraction
+                ? malformations[random.nextInt(malformations.length)]
+                : null;
+
+        if (malformation == Malformation.EMPTY_LINE) {
+            buffer[position++] = '\n';
+            return position;
+        }
+        position = writeNumber(phoneNumber, buffer, position);
+        buffer[position++] = ',';
+        position = TimestampParser.format(startTime, buffer, position);
+        if (malformation == Malformation.BAD_TIMESTAMP) {
+            buffer[position - 8] = 'x';
+        }
+        if (malformation != Malformation.MISSING_FIELD) {
+            buffer[position++] = ',';
+            position = TimestampParser.format(endTime, buffer, position);
+        }
+        if (malformation == Malformation.EXTRA_FIELD) {
+            buffer[position++] = ',';
+            position = writeNumber(phoneNumber, buffer, position);
+        }
+        buffer[position++] = '\n';
+        return position;
+    }
+
+    /**
+     * Draws the start of a call: a uniformly chosen day, an hour weighted by the daily profile
+     * and a uniformly chosen second within that hour.
+     *
+     * @param random the source of randomness
+     * @return the start of the call in wall clock epoch seconds
+     */
+    private long sampleStartTime(SplittableRandom random) {
+        long epochDay = firstEpochDay + random.nextInt(days);
+        double hourWeight = random.nextDouble() * cumulativeHourWeights[HOURS_PER_DAY - 1];
+        int hour = 0;
+        while (hour < HOURS_PER_DAY - 1 && cumulativeHourWeights[hour] <= hourWeight) {
+            hour++;
+        }
+        return epochDay * SECONDS_PER_DAY + (long) hour * SECONDS_PER_HOUR + random.nextInt(SECONDS_PER_HOUR);
+    }
+
+    /**
+     * Draws the duration of a call from a log-normal distribution.
+     *
+     * @param random the source of randomness
+     * @return the duration of the call in seconds
+     */
+    private int sampleDuration(SplittableRandom random) {
+        double duration = Math.exp(logMedianDuration + durationSigma * random.nextGaussian());
+        return (int) Math.min(duration, maxDurationSeconds);
+    }
+
+    /**
+     * Writes a non-negative number in decimal digits.
+     *
+     * @param number the number
+     * @param buffer the buffer to write to
+     * @param position the position to write at
+     * @return the position after the written number
+     */
+    private static int writeNumber(long number, byte[] buffer, int position) {
+        int digits = 1;
+        for (long rest = number / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        long rest = number;
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+        return position + digits;
+    }
+
+    private static double[] cumulate(double[] weights) {
+        if (weights.length != HOURS_PER_DAY) {
+            throw new IllegalArgumentException("Exactly " + HOURS_PER_DAY + " hourly weights are required.");
+        }
+        double[] cumulativeWeights = new double[HOURS_PER_DAY];
+        double sum = 0;
+        for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+            if (weights[hour] < 0) {
+                throw new IllegalArgumentException("Hourly weights must not be negative.");
+            }
+            sum += weights[hour];
+            cumulativeWeights[hour] = sum;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("At least one hourly weight must be positive.");
+        }
+        return cumulativeWeights;
+    }
+
+    /**
+     * Ways in which a generated line is malformed.
+     */
+    private enum Malformation {
+        EMPTY_LINE,
+        MISSING_FIELD,
+        EXTRA_FIELD,
+        BAD_TIMESTAMP;
+
+        /**
+         * The malformations which parsers skip instead of failing the whole calculation.
+         */
+        private static final Malformation[] SKIPPABLE = {EMPTY_LINE, MISSING_FIELD, EXTRA_FIELD};
+    }
+
+    /**
+     * Writes a synthetic phone log to a file.
+     * Arguments: output file, number of lines, and optionally number of phone numbers, malformed fraction and seed.
+     *
+     * @param args the command line arguments
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CallLogGenerator <output file> <lines> [phone numbers] [malformed fraction] [seed]");
+            System.exit(1);
+        }
+        Builder builder = builder();
+        if (args.length > 2) {
+            builder.phoneNumberCount(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            builder.malformedFraction(Double.parseDouble(args[3]));
+        }
+        if (args.length > 4) {
+            builder.seed(Long.parseLong(args[4]));
+        }
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(Path.of(args[0])), BUFFER_SIZE)) {
+            builder.build().write(output, Long.parseLong(args[1]));
+        }
+    }
+
+    /**
+     * Configuration of a {@link CallLogGenerator}.
+     */
+    public static class Builder {
+        private int phoneNumberCount = 10_000;
+        private long firstPhoneNumber = 420_600_000_000L;
+        private double zipfExponent = 1.0;
+        private LocalDate firstDay = LocalDate.of(2023, 9, 1);
+        private int days = 30;
+        private double[] hourlyWeights = DIURNAL_PROFILE;
+        private int medianDurationSeconds = 120;
+        private double durationSigma = 1.0;
+        private int maxDurationSeconds = 4 * SECONDS_PER_HOUR;
+        private double malformedFraction;
+        private boolean badTimestamps;
+        private long seed;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of distinct phone numbers called.
+         */
+        public Builder phoneNumberCount(int phoneNumberCount) {
+            this.phoneNumberCount = phoneNumberCount;
+            return this;
+        }
+
+        /**
+         * Sets the phone number with the most calls; the others follow it consecutively by popularity.
+         */
+        public Builder firstPhoneNumber(long firstPhoneNumber) {
+            this.firstPhoneNumber = firstPhoneNumber;
+            return this;
+        }
+
+        /**
+         * Sets the exponent of the Zipf distribution of calls over phone numbers, 0 for a uniform distribution.
+         */
+        public Builder zipfExponent(double zipfExponent) {
+            this.zipfExponent = zipfExponent;
+            return this;
+        }
+
+        /**
+         * Sets the first day and the number of days the calls start in.
+         */
+        public Builder period(LocalDate firstDay, int days) {
+            if (days < 1) {
+                throw new IllegalArgumentException("At least one day is required.");
+            }
+            this.firstDay = firstDay;
+            this.days = days;
+            return this;
+        }
+
+        /**
+         * Sets the relative weights of the 24 hours of the day in which the calls start.
+         */
+        public Builder hourlyWeights(double[] hourlyWeights) {
+            this.hourlyWeights = hourlyWeights.clone();
+            return this;
+        }
+
+        /**
+         * Sets the log-normal distribution of call durations by its median, its sigma and an upper cap.
+         */
+        public Builder duration(int medianDurationSeconds, double durationSigma, int maxDurationSeconds) {
+            if (medianDurationSeconds < 1 || durationSigma < 0 || maxDurationSeconds < 0) {
+                throw new IllegalArgumentException("Invalid call duration distribution.");
+            }
+            this.medianDurationSeconds = medianDurationSeconds;
+            this.durationSigma = durationSigma;
+            this.maxDurationSeconds = maxDurationSeconds;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of lines which are deliberately malformed, see {@link #badTimestamps(boolean)}.
+         */
+        public Builder malformedFraction(double malformedFraction) {
+            if (malformedFraction < 0 || malformedFraction > 1) {
+                throw new IllegalArgumentException("Malformed fraction must be between 0 and 1: " + malformedFraction);
+            }
+            this.malformedFraction = malformedFraction;
+            return this;
+        }
+
+        /**
+         * Sets if malformed lines may also have an unparsable start timestamp, which fails the calculation
+         * of the whole bill. By default malformed lines only have an invalid number of fields.
+         */
+        public Builder badTimestamps(boolean badTimestamps) {
+            this.badTimestamps = badTimestamps;
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random generator.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public CallLogGenerator build() {
+            return new CallLogGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.phonecompany.billing.parsers;
+
+/**
+ * Layout of binary call logs, all numbers in little endian byte order.
+ * The file starts with a header of {@value #HEADER_SIZE} bytes: the magic number, the format version,
+ * the number of records, the base epoch second, the number of dictionary entries and the record size.
+ * The fixed width records follow, each holding the 8 byte code of the phone number, see {@link PhoneNumberCodec},
+ * the 4 byte start of the call in wall clock seconds relative to the base epoch second and the 4 byte signed duration
+ * in seconds. The file ends with the dictionary of phone numbers which cannot be packed into their codes, each entry
+ * stored as its 4 byte length followed by its UTF-8 bytes; the code of such a phone number holds its dictionary index.
+ */
+final class BinaryCallLogFormat {
+    static final int MAGIC = 0x424C4354;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 16;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_COUNT_OFFSET = 8;
+    static final int BASE_EPOCH_SECOND_OFFSET = 16;
+    static final int DICTIONARY_SIZE_OFFSET = 24;
+    static final int RECORD_SIZE_OFFSET = 28;
+    static final int PHONE_NUMBER_OFFSET = 0;
+    static final int START_OFFSET = 8;
+    static final int DURATION_OFFSET = 12;
+
+    private BinaryCallLogFormat() {
+    }
+}
@@ -0,0 +1,207 @@
+package com.phonecompany.billing.parsers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader of binary call logs written by {@link BinaryCallLogWriter}, which passes the fixed width records
+ * of a memory mapped file straight to the handler, so reading is bound by memory bandwidth rather than by parsing.
+ * The dictionary of the file is encoded by the codec of the reader first, and the dictionary codes of the records
+ * are translated to the codes of the reader's codec, so the codec may be shared with parallel readers.
+ * A segment is at most 2 GB long and always ends at a record boundary, so larger files are mapped piece by piece.
+ */
+public class BinaryCallLogReader {
+    private static final long MAX_SEGMENT_RECORDS = Integer.MAX_VALUE / BinaryCallLogFormat.RECORD_SIZE;
+
+    private final PhoneNumberCodec phoneNumberCodec;
+    private final long maxSegmentRecords;
+
+    /**
+     * Creates a reader.
+     *
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     */
+    public BinaryCallLogReader(PhoneNumberCodec phoneNumberCodec) {
+        this(phoneNumberCodec, MAX_SEGMENT_RECORDS);
+    }
+
+    /**
+     * Creates a reader mapping at most the given number of records at a time.
+     *
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     * @param maxSegmentRecords the maximum number of records of a mapped segment
+     */
+    BinaryCallLogReader(PhoneNumberCodec phoneNumberCodec, long maxSegmentRecords) {
+        this.phoneNumberCodec = phoneNumberCodec;
+        this.maxSegmentRecords = maxSegmentRecords;
+    }
+
+    /**
+     * Reads the number of call records stored in the given binary call log.
+     *
+     * @param binaryLog the path of the binary call log
+     * @return the number of call records
+     * @throws IOException if the file cannot be read or is not a valid binary call log
+     */
+    public static long getRecordCount(Path binaryLog) throws IOException {
+        try (FileChannel channel = FileChannel.open(binaryLog, StandardOpenOption.READ)) {
+            return Header.read(channel).recordCount;
+        }
+    }
+
+    /**
+     * Reads all call records of the given binary call log and passes them to the handler.
+     *
+     * @param binaryLog the path of the binary call log
+     * @param handler the handler of the call records
+     * @throws IOException if the file cannot be mapped or is not a valid binary call log
+     */
+    public void read(Path binaryLog, CallRecordHandler handler) throws IOException {
+        read(binaryLog, 0, Long.MAX_VALUE, handler);
+    }
+
+    /**
+     * Reads the call records within the given range of record indices and passes them to the handler.
+     *
+     * @param binaryLog the path of the binary call log
+     * @param from the index of the first record to be read
+     * @param to the index after the last record to be read, capped at the number of records
+     * @param handler the handler of the call records
+     * @throws IOException if the file cannot be mapped or is not a valid binary call log
+     */
+    public void read(Path binaryLog, long from, long to, CallRecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(binaryLog, StandardOpenOption.READ)) {
+            Header header = Header.read(channel);
+            long[] dictionaryCodes = readDictionary(channel, header);
+            long end = Math.min(to, header.recordCount);
+            long record = from;
+
+            while (record < end) {
+                int count = (int) Math.min(maxSegmentRecords, end - record);
+                ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY,
+                        BinaryCallLogFormat.HEADER_SIZE + record * BinaryCallLogFormat.RECORD_SIZE,
+                        (long) count * BinaryCallLogFormat.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                readRecords(segment, count, header.baseEpochSecond, dictionaryCodes, handler);
+                record += count;
+            }
+        }
+    }
+
+    /**
+     * Passes the records of a mapped segment to the handler.
+     *
+     * @param segment the mapped segment
+     * @param count the number of records in the segment
+     * @param baseEpochSecond the epoch second the starts of the calls are relative to
+     * @param dictionaryCodes the codes of the dictionary entries of the file
+     * @param handler the handler of the call records
+     * @throws IOException if a record refers to a missing dictionary entry
+     */
+    private static void readRecords(ByteBuffer segment, int count, long baseEpochSecond, long[] dictionaryCodes,
+                                    CallRecordHandler handler) throws IOException {
+        for (int offset = 0, end = count * BinaryCallLogFormat.RECORD_SIZE; offset < end;
+             offset += BinaryCallLogFormat.RECORD_SIZE) {
+            long phoneNumber = segment.getLong(offset + BinaryCallLogFormat.PHONE_NUMBER_OFFSET);
+            if (!PhoneNumberCodec.isPacked(phoneNumber)) {
+                long index = phoneNumber & ~PhoneNumberCodec.DICTIONARY_TAG;
+                if (index >= dictionaryCodes.length) {
+                    throw new IOException("Record refers to missing dictionary entry " + index + ".");
+                }
+                phoneNumber = dictionaryCodes[(int) index];
+            }
+            long startTime = baseEpochSecond + segment.getInt(offset + BinaryCallLogFormat.START_OFFSET);
+            handler.onCall(phoneNumber, startTime, startTime + segment.getInt(offset + BinaryCallLogFormat.DURATION_OFFSET));
+        }
+    }
+
+    /**
+     * Encodes the dictionary entries stored after the records with the codec of this reader.
+     *
+     * @param channel the channel of the binary call log
+     * @param header the header of the binary call log
+     * @return the codes of the dictionary entries, indexed by their position in the file
+     * @throws IOException if the dictionary cannot be read
+     */
+    private long[] readDictionary(FileChannel channel, Header header) throws IOException {
+        long[] codes = new long[header.dictionarySize];
+        if (codes.length == 0) {
+            return codes;
+        }
+        long position = header.getDictionaryOffset();
+        long length = channel.size() - position;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Dictionary is longer than " + Integer.MAX_VALUE + " bytes.");
+        }
+        ByteBuffer dictionary = channel.map(FileChannel.MapMode.READ_ONLY, position, length)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int index = 0; index < codes.length; index++) {
+            if (dictionary.remaining() < Integer.BYTES) {
+                throw new IOException("Dictionary ends before entry " + index + ".");
+            }
+            int numberLength = dictionary.getInt();
+            if (numberLength < 0 || numberLength > dictionary.remaining()) {
+                throw new IOException("Dictionary entry " + index + " has an invalid length " + numberLength + ".");
+            }
+            byte[] number = new byte[numberLength];
+            dictionary.get(number);
+            codes[index] = phoneNumberCodec.encode(new String(number, StandardCharsets.UTF_8));
+        }
+        return codes;
+    }
+
+    /**
+     * The validated header of a binary call log.
+     */
+    private static final class Header {
+        private final long recordCount;
+        private final long baseEpochSecond;
+        private final int dictionarySize;
+
+        private Header(long recordCount, long baseEpochSecond, int dictionarySize) {
+            this.recordCount = recordCount;
+            this.baseEpochSecond = baseEpochSecond;
+            this.dictionarySize = dictionarySize;
+        }
+
+        /**
+         * Reads and validates the header at the start of the file.
+         *
+         * @param channel the channel of the binary call log
+         * @return the header
+         * @throws IOException if the header cannot be read or does not describe a valid binary call log
+         */
+        static Header read(FileChannel channel) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(BinaryCallLogFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, bytes.position()) < 0) {
+                    throw new IOException("File is too short for a binary call log header.");
+                }
+            }
+            if (bytes.getInt(BinaryCallLogFormat.MAGIC_OFFSET) != BinaryCallLogFormat.MAGIC) {
+                throw new IOException("File is not a binary call log.");
+            }
+            int version = bytes.getInt(BinaryCallLogFormat.VERSION_OFFSET);
+            if (version != BinaryCallLogFormat.VERSION
+                    || bytes.getInt(BinaryCallLogFormat.RECORD_SIZE_OFFSET) != BinaryCallLogFormat.RECORD_SIZE) {
+                throw new IOException("Unsupported binary call log version " + version + ".");
+            }
+            Header header = new Header(bytes.getLong(BinaryCallLogFormat.RECORD_COUNT_OFFSET),
+                    bytes.getLong(BinaryCallLogFormat.BASE_EPOCH_SECOND_OFFSET),
+                    bytes.getInt(BinaryCallLogFormat.DICTIONARY_SIZE_OFFSET));
+            long maxRecords = (channel.size() - BinaryCallLogFormat.HEADER_SIZE) / BinaryCallLogFormat.RECORD_SIZE;
+            if (header.recordCount < 0 || header.recordCount > maxRecords || header.dictionarySize < 0) {
+                throw new IOException("Binary call log header does not match the size of the file.");
+            }
+            return header;
+        }
+
+        long getDictionaryOffset() {
+            return BinaryCallLogFormat.HEADER_SIZE + recordCount * BinaryCallLogFormat.RECORD_SIZE;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.phonecompany.billing.parsers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+
+/**
+ * Writer of binary call logs, see {@link BinaryCallLogFormat}, which receives the parsed call records as a
+ * {@link CallRecordHandler}, so a text phone log is converted by passing it through any of the parsers.
+ * The phone numbers have to be encoded by the codec of the writer, which must not be used for anything else,
+ * since the indices of its dictionary are stored in the records. The start of every call has to be within about
+ * 68 years of the start of the first call and every call has to be shorter than that.
+ * The header and the dictionary are written when the writer is closed. The writer is not thread-safe.
+ */
+public class BinaryCallLogWriter implements CallRecordHandler, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private long recordCount;
+    private long baseEpochSecond;
+    private int dictionarySize;
+
+    /**
+     * Creates a writer of a new binary call log, replacing the file if it exists.
+     *
+     * @param binaryLog the path of the binary call log
+     * @throws IOException if the file cannot be created
+     */
+    public BinaryCallLogWriter(Path binaryLog) throws IOException {
+        this.channel = FileChannel.open(binaryLog, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(BinaryCallLogFormat.HEADER_SIZE);
+    }
+
+    /**
+     * Converts the given text phone log file to a binary call log, handling rejected lines by the default policy.
+     *
+     * @param textLog the path of the text phone log
+     * @param binaryLog the path of the binary call log, which is replaced if it exists
+     * @return the number of converted call records
+     * @throws IOException if a file cannot be read or written
+     * @throws ParseException if a date of a call record cannot be parsed
+     */
+    public static long convert(Path textLog, Path binaryLog) throws IOException, ParseException {
+        RejectionCounter rejections = RejectionPolicy.defaultPolicy().open();
+        try {
+            return convert(textLog, binaryLog, rejections);
+        } finally {
+            rejections.complete();
+        }
+    }
+
+    /**
+     * Converts the given text phone log file to a binary call log. Lines with an invalid format are skipped
+     * and passed to the rejection counter. If the conversion fails, the binary call log is deleted.
+     *
+     * @param textLog the path of the text phone log
+     * @param binaryLog the path of the binary call log, which is replaced if it exists
+     * @param rejections the counter of rejected lines
+     * @return the number of converted call records
+     * @throws IOException if a file cannot be read or written
+     * @throws ParseException if a date of a call record cannot be parsed
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     * @throws IllegalArgumentException if a call cannot be stored in the binary format
+     */
+    public static long convert(Path textLog, Path binaryLog, RejectionCounter rejections)
+            throws IOException, ParseException {
+        BinaryCallLogWriter writer = new BinaryCallLogWriter(binaryLog);
+        try {
+            new MappedCallLogReader(writer.getPhoneNumberCodec()).read(textLog, writer, rejections);
+            writer.close();
+            return writer.getRecordCount();
+        } catch (IOException | ParseException | RuntimeException e) {
+            try {
+                writer.channel.close();
+                Files.deleteIfExists(binaryLog);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the codec which has to encode the phone numbers passed to this writer.
+     *
+     * @return the codec of the writer
+     */
+    public PhoneNumberCodec getPhoneNumberCodec() {
+        return phoneNumberCodec;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Appends a call record to the binary call log.
+     *
+     * @param phoneNumber the code of the called phone number, created by the codec of this writer
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param endTime the end of the call in wall clock epoch seconds
+     * @throws IllegalArgumentException if the start or the duration of the call does not fit into 4 bytes
+     * @throws UncheckedIOException if the records cannot be written
+     */
+    @Override
+    public void onCall(long phoneNumber, long startTime, long endTime) {
+        if (recordCount == 0) {
+            baseEpochSecond = startTime;
+        }
+        long start = startTime - baseEpochSecond;
+        long duration = endTime - startTime;
+        if (start != (int) start || duration != (int) duration) {
+            throw new IllegalArgumentException("Call from " + startTime + " to " + endTime
+                    + " cannot be stored relative to " + baseEpochSecond + ".");
+        }
+        if (!PhoneNumberCodec.isPacked(phoneNumber)) {
+            dictionarySize = Math.max(dictionarySize, (int) (phoneNumber & ~PhoneNumberCodec.DICTIONARY_TAG) + 1);
+        }
+        if (buffer.remaining() < BinaryCallLogFormat.RECORD_SIZE) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        buffer.putLong(phoneNumber).putInt((int) start).putInt((int) duration);
+        recordCount++;
+    }
+
+    /**
+     * Writes the remaining records, the dictionary and the header, and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            for (int index = 0; index < dictionarySize; index++) {
+                String phoneNumber = phoneNumberCodec.decode(PhoneNumberCodec.DICTIONARY_TAG | index);
+                byte[] number = phoneNumber.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < Integer.BYTES) {
+                    flush();
+                }
+                buffer.putInt(number.length);
+                for (int written = 0; written < number.length; ) {
+                    if (!buffer.hasRemaining()) {
+                        flush();
+                    }
+                    int length = Math.min(buffer.remaining(), number.length - written);
+                    buffer.put(number, written, length);
+                    written += length;
+                }
+            }
+            flush();
+
+            buffer.putInt(BinaryCallLogFormat.MAGIC)
+                    .putInt(BinaryCallLogFormat.VERSION)
+                    .putLong(recordCount)
+                    .putLong(baseEpochSecond)
+                    .putInt(dictionarySize)
+                    .putInt(BinaryCallLogFormat.RECORD_SIZE);
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+            buffer.clear();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the buffered bytes at the current position of the file.
+     *
+     * @throws IOException if the bytes cannot be written
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Converts a text phone log file to a binary call log.
+     * Arguments: text phone log file, binary call log file.
+     *
+     * @param args the command line arguments
+     * @throws IOException if a file cannot be read or written
+     * @throws ParseException if a date of a call record cannot be parsed
+     */
+    public static void main(String[] args) throws IOException, ParseException {
+        if (args.length < 2) {
+            System.err.println("Usage: BinaryCallLogWriter <text log> <binary log>");
+            System.exit(1);
+        }
+        System.out.println(convert(Path.of(args[0]), Path.of(args[1])) + " call records converted.");
+    }
+}
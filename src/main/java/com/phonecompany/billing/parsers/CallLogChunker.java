@@ -0,0 +1,160 @@
+package com.phonecompany.billing.parsers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Splits phone logs into chunks of roughly equal size which can be parsed independently.
+ * Every chunk boundary lies right after a line separator, so no line is ever split between two chunks.
+ */
+public final class CallLogChunker {
+    private static final char LINE_SEPARATOR = '\n';
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private CallLogChunker() {
+    }
+
+    /**
+     * Splits the given phone log into at most the given number of chunks.
+     *
+     * @param phoneLog the phone log to be split
+     * @param chunkCount the requested number of chunks
+     * @return the chunk boundaries, starting with 0 and ending with the length of the phone log
+     */
+    public static long[] split(CharSequence phoneLog, int chunkCount) {
+        int length = phoneLog.length();
+        long[] boundaries = new long[chunkCount + 1];
+        int boundaryCount = 1;
+
+        for (int chunk = 1; chunk < chunkCount; chunk++) {
+            int position = (int) Math.max((long) length * chunk / chunkCount, boundaries[boundaryCount - 1]);
+            while (position < length && (position == 0 || phoneLog.charAt(position - 1) != LINE_SEPARATOR)) {
+                position++;
+            }
+            if (position > boundaries[boundaryCount - 1] && position < length) {
+                boundaries[boundaryCount++] = position;
+            }
+        }
+        boundaries[boundaryCount++] = length;
+        return Arrays.copyOf(boundaries, boundaryCount);
+    }
+
+    /**
+     * Splits the given phone log file into at most the given number of chunks.
+     *
+     * @param phoneLog the path of the phone log file to be split
+     * @param chunkCount the requested number of chunks
+     * @return the chunk boundaries as file offsets, starting with 0 and ending with the size of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static long[] split(Path phoneLog, int chunkCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(phoneLog, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] boundaries = new long[chunkCount + 1];
+            int boundaryCount = 1;
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+            for (int chunk = 1; chunk < chunkCount; chunk++) {
+                long position = Math.max(size / chunkCount * chunk, boundaries[boundaryCount - 1]);
+                position = nextLineStart(channel, buffer, position, size);
+                if (position > boundaries[boundaryCount - 1] && position < size) {
+                    boundaries[boundaryCount++] = position;
+                }
+            }
+            boundaries[boundaryCount++] = size;
+            return Arrays.copyOf(boundaries, boundaryCount);
+        }
+    }
+
+    /**
+     * Counts the lines preceding every chunk boundary of the given phone log.
+     *
+     * @param phoneLog the phone log
+     * @param boundaries the chunk boundaries, see {@link #split(CharSequence, int)}
+     * @return the number of lines before every boundary
+     */
+    public static long[] countLines(CharSequence phoneLog, long[] boundaries) {
+        long[] lines = new long[boundaries.length];
+        long count = 0;
+        int position = 0;
+        for (int boundary = 0; boundary < boundaries.length; boundary++) {
+            for (; position < boundaries[boundary]; position++) {
+                if (phoneLog.charAt(position) == LINE_SEPARATOR) {
+                    count++;
+                }
+            }
+            lines[boundary] = count;
+        }
+        return lines;
+    }
+
+    /**
+     * Counts the lines preceding every chunk boundary of the given phone log file.
+     *
+     * @param phoneLog the path of the phone log file
+     * @param boundaries the chunk boundaries, see {@link #split(Path, int)}
+     * @return the number of lines before every boundary
+     * @throws IOException if the file cannot be read
+     */
+    public static long[] countLines(Path phoneLog, long[] boundaries) throws IOException {
+        try (FileChannel channel = FileChannel.open(phoneLog, StandardOpenOption.READ)) {
+            long[] lines = new long[boundaries.length];
+            long count = 0;
+            long position = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            for (int boundary = 0; boundary < boundaries.length; boundary++) {
+                while (position < boundaries[boundary]) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(SCAN_BUFFER_SIZE, boundaries[boundary] - position));
+                    int read = channel.read(buffer, position);
+                    if (read <= 0) {
+                        break;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        if (buffer.get(i) == LINE_SEPARATOR) {
+                            count++;
+                        }
+                    }
+                    position += read;
+                }
+                lines[boundary] = count;
+            }
+            return lines;
+        }
+    }
+
+    /**
+     * Finds the start of the first line beginning at or after the given position.
+     *
+     * @param channel the channel of the phone log file
+     * @param buffer the buffer used to read the file
+     * @param position the position to start searching from
+     * @param size the size of the file
+     * @return the offset of the line start, or the size of the file if there is none
+     * @throws IOException if the file cannot be read
+     */
+    private static long nextLineStart(FileChannel channel, ByteBuffer buffer, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == LINE_SEPARATOR) {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+}
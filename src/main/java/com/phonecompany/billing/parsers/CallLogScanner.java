@@ -0,0 +1,184 @@
+package com.phonecompany.billing.parsers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.Arrays;
+
+/**
+ * Scanner of ASCII phone logs stored in bytes, which walks the bytes once, finds the separators by position and passes
+ * the offsets of the fields directly to the {@link PhoneNumberCodec} and the {@link TimestampParser}.
+ * Separators are searched several bytes at a time by a {@link DelimiterSearch}.
+ * No objects are created for valid lines. Lines end with {@code \n}, optionally preceded by {@code \r}.
+ * The scanner keeps a read buffer for streams, so it must not be used by more than one thread at a time.
+ */
+public class CallLogScanner {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final byte LINE_SEPARATOR = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte FIELD_SEPARATOR = ',';
+
+    private final PhoneNumberCodec phoneNumberCodec;
+    private byte[] streamBuffer;
+
+    /**
+     * Creates a scanner.
+     *
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     */
+    public CallLogScanner(PhoneNumberCodec phoneNumberCodec) {
+        this.phoneNumberCodec = phoneNumberCodec;
+    }
+
+    /**
+     * Reads all call records from the given stream and passes them to the handler.
+     * The stream is read in blocks into a reused buffer, which grows only for lines longer than the buffer.
+     * The stream is not closed by this method.
+     *
+     * @param phoneLog the stream containing the phone log
+     * @param handler the handler of the parsed call records
+     * @param rejections the counter of rejected lines
+     * @throws IOException if the stream cannot be read
+     * @throws ParseException if a date of a call record cannot be parsed
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    public void scan(InputStream phoneLog, CallRecordHandler handler, RejectionCounter rejections)
+            throws IOException, ParseException {
+        if (streamBuffer == null) {
+            streamBuffer = new byte[DEFAULT_BUFFER_SIZE];
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(streamBuffer);
+        long lineNumber = 1;
+        int length = 0;
+        int read;
+        while ((read = phoneLog.read(streamBuffer, length, streamBuffer.length - length)) >= 0) {
+            int end = lastLineEnd(streamBuffer, length, length + read);
+            length += read;
+            if (end < 0) {
+                if (length == streamBuffer.length) {
+                    streamBuffer = Arrays.copyOf(streamBuffer, streamBuffer.length * 2);
+                    buffer = ByteBuffer.wrap(streamBuffer);
+                }
+                continue;
+            }
+            lineNumber = scan(buffer, 0, end, lineNumber, handler, rejections);
+            System.arraycopy(streamBuffer, end, streamBuffer, 0, length - end);
+            length -= end;
+        }
+        scan(buffer, 0, length, lineNumber, handler, rejections);
+    }
+
+    /**
+     * Parses all lines stored in the given range of bytes and passes their call records to the handler.
+     * The range has to start at the beginning of a line; it may end within a line, which is then parsed as the last one.
+     *
+     * @param bytes the bytes containing the phone log
+     * @param from the index of the first byte of the range
+     * @param to the index after the last byte of the range
+     * @param lineNumber the number of the first line of the range
+     * @param handler the handler of the parsed call records
+     * @param rejections the counter of rejected lines
+     * @return the number of the line following the range
+     * @throws ParseException if a date of a call record cannot be parsed
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    public long scan(byte[] bytes, int from, int to, long lineNumber, CallRecordHandler handler,
+                     RejectionCounter rejections) throws ParseException {
+        return scan(ByteBuffer.wrap(bytes), from, to, lineNumber, handler, rejections);
+    }
+
+    /**
+     * Parses all lines stored in the given range of the buffer and passes their call records to the handler.
+     * The range has to start at the beginning of a line; it may end within a line, which is then parsed as the last one.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer the buffer containing the phone log
+     * @param from the index of the first byte of the range
+     * @param to the index after the last byte of the range
+     * @param lineNumber the number of the first line of the range
+     * @param handler the handler of the parsed call records
+     * @param rejections the counter of rejected lines
+     * @return the number of the line following the range
+     * @throws ParseException if a date of a call record cannot be parsed
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    public long scan(ByteBuffer buffer, int from, int to, long lineNumber, CallRecordHandler handler,
+                     RejectionCounter rejections) throws ParseException {
+        long nextLineNumber = lineNumber;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = DelimiterSearch.INSTANCE.indexOf(buffer, lineStart, to, LINE_SEPARATOR);
+            if (lineEnd < 0) {
+                lineEnd = to;
+            }
+            parseLine(buffer, lineStart, lineEnd, nextLineNumber++, handler, rejections);
+            lineStart = lineEnd + 1;
+        }
+        return nextLineNumber;
+    }
+
+    /**
+     * Finds the end of the last complete line among the newly read bytes.
+     *
+     * @param bytes the buffered bytes
+     * @param from the index of the first newly read byte
+     * @param to the index after the last newly read byte
+     * @return the index after the last line separator, or -1 if the newly read bytes contain none
+     */
+    private static int lastLineEnd(byte[] bytes, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            if (bytes[i] == LINE_SEPARATOR) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a single line of the phone log.
+     * Trailing empty fields are ignored, in the same way as {@link String#split(String)} does.
+     *
+     * @param buffer the buffer containing the phone log
+     * @param lineStart the index of the first byte of the line
+     * @param lineEnd the index after the last byte of the line
+     * @param lineNumber the number of the line
+     * @param handler the handler of the parsed call record
+     * @param rejections the counter of rejected lines
+     * @throws ParseException if a date of the call record cannot be parsed
+     */
+    private void parseLine(ByteBuffer buffer, int lineStart, int lineEnd, long lineNumber, CallRecordHandler handler,
+                           RejectionCounter rejections) throws ParseException {
+        int end = lineEnd;
+        if (end > lineStart && buffer.get(end - 1) == CARRIAGE_RETURN) {
+            end--;
+        }
+        int fieldsEnd = end;
+        while (fieldsEnd > lineStart && buffer.get(fieldsEnd - 1) == FIELD_SEPARATOR) {
+            fieldsEnd--;
+        }
+
+        int firstSeparator = indexOfSeparator(buffer, lineStart, fieldsEnd);
+        int secondSeparator = firstSeparator < 0 ? -1 : indexOfSeparator(buffer, firstSeparator + 1, fieldsEnd);
+        if (secondSeparator < 0 || indexOfSeparator(buffer, secondSeparator + 1, fieldsEnd) >= 0) {
+            rejections.reject(lineNumber, RejectionReason.INVALID_FIELD_COUNT);
+            return;
+        }
+
+        long phoneNumber = phoneNumberCodec.encode(buffer, lineStart, firstSeparator);
+        long startTime;
+        long endTime;
+        try {
+            startTime = TimestampParser.parseEpochSecond(buffer, firstSeparator + 1, secondSeparator);
+            endTime = TimestampParser.parseEpochSecond(buffer, secondSeparator + 1, fieldsEnd);
+        } catch (ParseException e) {
+            rejections.reject(lineNumber, RejectionReason.UNPARSABLE_TIMESTAMP);
+            throw e;
+        }
+        handler.onCall(phoneNumber, startTime, endTime);
+    }
+
+    private static int indexOfSeparator(ByteBuffer buffer, int from, int to) {
+        return DelimiterSearch.INSTANCE.indexOf(buffer, from, to, FIELD_SEPARATOR);
+    }
+}
@@ -0,0 +1,17 @@
+package com.phonecompany.billing.parsers;
+
+/**
+ * Receives the fields of parsed call records, without the need to create a call record object for each of them.
+ */
+@FunctionalInterface
+public interface CallRecordHandler {
+
+    /**
+     * Handles a single parsed call record.
+     *
+     * @param phoneNumber the code of the called phone number, see {@link PhoneNumberCodec}
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param endTime the end of the call in wall clock epoch seconds
+     */
+    void onCall(long phoneNumber, long startTime, long endTime);
+}
@@ -0,0 +1,122 @@
+package com.phonecompany.billing.parsers;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Selection of the calls read from a columnar call store, see {@link ColumnarCallStoreReader}:
+ * calls starting within a range of wall clock time and, optionally, only calls to the given phone numbers.
+ * Blocks whose statistics show that none of their calls can match are skipped without being read.
+ * A query is immutable.
+ */
+public class CallStoreQuery {
+    private static final CallStoreQuery ALL = builder().build();
+
+    private final long fromEpochSecond;
+    private final long toEpochSecond;
+    private final Set<String> phoneNumbers;
+
+    private CallStoreQuery(Builder builder) {
+        this.fromEpochSecond = builder.fromEpochSecond;
+        this.toEpochSecond = builder.toEpochSecond;
+        this.phoneNumbers = builder.phoneNumbers;
+    }
+
+    /**
+     * Returns the query selecting all calls.
+     *
+     * @return the query selecting all calls
+     */
+    public static CallStoreQuery all() {
+        return ALL;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the first wall clock epoch second a selected call may start at.
+     *
+     * @return the inclusive lower bound of the start of the selected calls
+     */
+    public long getFromEpochSecond() {
+        return fromEpochSecond;
+    }
+
+    /**
+     * Returns the wall clock epoch second all selected calls start before.
+     *
+     * @return the exclusive upper bound of the start of the selected calls
+     */
+    public long getToEpochSecond() {
+        return toEpochSecond;
+    }
+
+    /**
+     * Returns the phone numbers of the selected calls.
+     *
+     * @return the phone numbers, or {@code null} if calls to all phone numbers are selected
+     */
+    public Set<String> getPhoneNumbers() {
+        return phoneNumbers;
+    }
+
+    /**
+     * Determines if a call starting at the given time may be selected.
+     *
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @return {@code true} if the call starts within the range of the query
+     */
+    boolean containsStartTime(long startTime) {
+        return startTime >= fromEpochSecond && startTime < toEpochSecond;
+    }
+
+    public static class Builder {
+        private long fromEpochSecond = Long.MIN_VALUE;
+        private long toEpochSecond = Long.MAX_VALUE;
+        private Set<String> phoneNumbers;
+
+        private Builder() {
+        }
+
+        /**
+         * Selects only calls starting at the given time or later.
+         *
+         * @param from the first wall clock time a selected call may start at
+         * @return this builder
+         */
+        public Builder startingFrom(LocalDateTime from) {
+            this.fromEpochSecond = from.toEpochSecond(ZoneOffset.UTC);
+            return this;
+        }
+
+        /**
+         * Selects only calls starting before the given time.
+         *
+         * @param to the wall clock time all selected calls start before
+         * @return this builder
+         */
+        public Builder startingBefore(LocalDateTime to) {
+            this.toEpochSecond = to.toEpochSecond(ZoneOffset.UTC);
+            return this;
+        }
+
+        /**
+         * Selects only calls to the given phone numbers.
+         *
+         * @param phoneNumbers the phone numbers
+         * @return this builder
+         */
+        public Builder phoneNumbers(Collection<String> phoneNumbers) {
+            this.phoneNumbers = Set.copyOf(phoneNumbers);
+            return this;
+        }
+
+        public CallStoreQuery build() {
+            return new CallStoreQuery(this);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.phonecompany.billing.parsers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of columnar call stores, all fixed width numbers in little endian byte order.
+ * The file starts with a header of {@value #HEADER_SIZE} bytes: the magic number, the format version, the number
+ * of records, the number of blocks, the number of dictionary entries, the offsets of the block index and of the
+ * dictionary, and the maximum number of records per block.
+ * The blocks follow, each holding its phone number, start and duration columns one after another. Every column
+ * is compressed into variable length integers of 7 bits per byte: phone number codes as zigzag encoded differences
+ * to the previous code, starts as the difference to the earliest start of the block, durations zigzag encoded.
+ * The block index holds an entry of {@value #INDEX_ENTRY_SIZE} bytes per block: its offset, number of records,
+ * the lengths of its columns, and the minimum and maximum start and phone number code, the latter compared unsigned.
+ * The file ends with the dictionary of phone numbers which cannot be packed into their codes, each entry stored
+ * as its 4 byte length followed by its UTF-8 bytes; the code of such a phone number holds its dictionary index.
+ */
+final class ColumnarCallStoreFormat {
+    static final int MAGIC = 0x53434354;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_COUNT_OFFSET = 8;
+    static final int BLOCK_COUNT_OFFSET = 16;
+    static final int DICTIONARY_SIZE_OFFSET = 20;
+    static final int INDEX_OFFSET_OFFSET = 24;
+    static final int DICTIONARY_OFFSET_OFFSET = 32;
+    static final int BLOCK_SIZE_OFFSET = 40;
+    static final int INDEX_ENTRY_SIZE = 56;
+    static final int BLOCK_OFFSET = 0;
+    static final int BLOCK_RECORD_COUNT_OFFSET = 8;
+    static final int NUMBERS_LENGTH_OFFSET = 12;
+    static final int STARTS_LENGTH_OFFSET = 16;
+    static final int DURATIONS_LENGTH_OFFSET = 20;
+    static final int MIN_START_OFFSET = 24;
+    static final int MAX_START_OFFSET = 32;
+    static final int MIN_PHONE_NUMBER_OFFSET = 40;
+    static final int MAX_PHONE_NUMBER_OFFSET = 48;
+    static final int MAX_VARIABLE_LENGTH = 10;
+
+    private ColumnarCallStoreFormat() {
+    }
+
+    /**
+     * Writes an unsigned variable length integer, 7 bits per byte starting with the least significant ones,
+     * with the high bit of every byte but the last one set.
+     *
+     * @param buffer the buffer to write to
+     * @param value the value, treated as unsigned
+     */
+    static void putVariableLength(ByteBuffer buffer, long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) (remaining | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Reads an unsigned variable length integer written by {@link #putVariableLength(ByteBuffer, long)}.
+     *
+     * @param buffer the buffer to read from
+     * @return the value
+     * @throws IOException if the integer is longer than {@value #MAX_VARIABLE_LENGTH} bytes or the buffer ends within it
+     */
+    static long getVariableLength(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IOException("Column ends within a value.");
+            }
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Column value is longer than " + MAX_VARIABLE_LENGTH + " bytes.");
+    }
+
+    /**
+     * Maps signed values to unsigned ones, so values close to zero get short variable length integers.
+     *
+     * @param value the signed value
+     * @return the zigzag encoded value
+     */
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses {@link #zigzag(long)}.
+     *
+     * @param value the zigzag encoded value
+     * @return the signed value
+     */
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
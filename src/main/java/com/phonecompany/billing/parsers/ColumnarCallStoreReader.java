@@ -0,0 +1,283 @@
+package com.phonecompany.billing.parsers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reader of columnar call stores written by {@link ColumnarCallStoreWriter}, which passes the calls selected by a
+ * {@link CallStoreQuery} to the handler. The block index is read first, and blocks whose time range or phone number
+ * range cannot contain a selected call are skipped without reading their columns; the calls of the remaining blocks
+ * are decompressed column by column and filtered individually.
+ * The dictionary of the store is encoded by the codec of the reader, and the dictionary codes of the records
+ * are translated to the codes of the reader's codec. The reader is not thread-safe.
+ */
+public class ColumnarCallStoreReader {
+    private static final Logger logger = Logger.getLogger(ColumnarCallStoreReader.class.getName());
+    private static final long NOT_STORED = -1;
+
+    private final PhoneNumberCodec phoneNumberCodec;
+    private ByteBuffer blockBuffer = ByteBuffer.allocate(0);
+
+    /**
+     * Creates a reader.
+     *
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     */
+    public ColumnarCallStoreReader(PhoneNumberCodec phoneNumberCodec) {
+        this.phoneNumberCodec = phoneNumberCodec;
+    }
+
+    /**
+     * Reads all call records of the given call store and passes them to the handler.
+     *
+     * @param store the path of the call store
+     * @param handler the handler of the call records
+     * @throws IOException if the file cannot be read or is not a valid call store
+     */
+    public void read(Path store, CallRecordHandler handler) throws IOException {
+        read(store, CallStoreQuery.all(), handler);
+    }
+
+    /**
+     * Reads the call records of the given call store selected by the query and passes them to the handler.
+     *
+     * @param store the path of the call store
+     * @param query the query selecting the calls
+     * @param handler the handler of the selected call records
+     * @throws IOException if the file cannot be read or is not a valid call store
+     */
+    public void read(Path store, CallStoreQuery query, CallRecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(store, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, ColumnarCallStoreFormat.HEADER_SIZE);
+            if (header.getInt(ColumnarCallStoreFormat.MAGIC_OFFSET) != ColumnarCallStoreFormat.MAGIC) {
+                throw new IOException("File is not a columnar call store.");
+            }
+            int version = header.getInt(ColumnarCallStoreFormat.VERSION_OFFSET);
+            if (version != ColumnarCallStoreFormat.VERSION) {
+                throw new IOException("Unsupported columnar call store version " + version + ".");
+            }
+            int blockCount = header.getInt(ColumnarCallStoreFormat.BLOCK_COUNT_OFFSET);
+            int dictionarySize = header.getInt(ColumnarCallStoreFormat.DICTIONARY_SIZE_OFFSET);
+            long indexOffset = header.getLong(ColumnarCallStoreFormat.INDEX_OFFSET_OFFSET);
+            long dictionaryOffset = header.getLong(ColumnarCallStoreFormat.DICTIONARY_OFFSET_OFFSET);
+            int blockSize = header.getInt(ColumnarCallStoreFormat.BLOCK_SIZE_OFFSET);
+            if (blockCount < 0 || dictionarySize < 0 || blockSize < 1
+                    || (long) blockCount * ColumnarCallStoreFormat.INDEX_ENTRY_SIZE > Integer.MAX_VALUE
+                    || dictionaryOffset != indexOffset + (long) blockCount * ColumnarCallStoreFormat.INDEX_ENTRY_SIZE) {
+                throw new IOException("Columnar call store header is inconsistent.");
+            }
+
+            ByteBuffer index = readFully(channel, indexOffset, blockCount * ColumnarCallStoreFormat.INDEX_ENTRY_SIZE);
+            String[] dictionary = readDictionary(channel, dictionaryOffset, dictionarySize);
+            long[] dictionaryCodes = new long[dictionarySize];
+            for (int entry = 0; entry < dictionarySize; entry++) {
+                dictionaryCodes[entry] = phoneNumberCodec.encode(dictionary[entry]);
+            }
+            long[] selectedPhoneNumbers = query.getPhoneNumbers() == null ? null : getStoredCodes(query, dictionary);
+
+            long[] phoneNumbers = new long[blockSize];
+            long[] startTimes = new long[blockSize];
+            long[] durations = new long[blockSize];
+            int readBlocks = 0;
+            for (int block = 0; block < blockCount; block++) {
+                int entry = block * ColumnarCallStoreFormat.INDEX_ENTRY_SIZE;
+                if (!mayContainSelectedCalls(index, entry, query, selectedPhoneNumbers)) {
+                    continue;
+                }
+                int count = index.getInt(entry + ColumnarCallStoreFormat.BLOCK_RECORD_COUNT_OFFSET);
+                if (count < 0 || count > blockSize) {
+                    throw new IOException("Block " + block + " has an invalid number of records " + count + ".");
+                }
+                decodeBlock(channel, index, entry, count, phoneNumbers, startTimes, durations);
+                readBlocks++;
+
+                for (int i = 0; i < count; i++) {
+                    long phoneNumber = phoneNumbers[i];
+                    if (!query.containsStartTime(startTimes[i])
+                            || (selectedPhoneNumbers != null && Arrays.binarySearch(selectedPhoneNumbers, phoneNumber) < 0)) {
+                        continue;
+                    }
+                    if (!PhoneNumberCodec.isPacked(phoneNumber)) {
+                        long dictionaryIndex = phoneNumber & ~PhoneNumberCodec.DICTIONARY_TAG;
+                        if (dictionaryIndex >= dictionaryCodes.length) {
+                            throw new IOException("Record refers to missing dictionary entry " + dictionaryIndex + ".");
+                        }
+                        phoneNumber = dictionaryCodes[(int) dictionaryIndex];
+                    }
+                    handler.onCall(phoneNumber, startTimes[i], startTimes[i] + durations[i]);
+                }
+            }
+            int selectedBlocks = readBlocks;
+            logger.log(Level.FINE, () -> "Read " + selectedBlocks + " of " + blockCount + " blocks of " + store + ".");
+        }
+    }
+
+    /**
+     * Determines from the statistics of a block if it may contain any call selected by the query.
+     *
+     * @param index the block index
+     * @param entry the offset of the index entry of the block
+     * @param query the query
+     * @param selectedPhoneNumbers the sorted codes of the selected phone numbers in the store, or {@code null} for all
+     * @return {@code false} if the block certainly contains no selected call
+     */
+    private static boolean mayContainSelectedCalls(ByteBuffer index, int entry, CallStoreQuery query,
+                                                   long[] selectedPhoneNumbers) {
+        if (index.getLong(entry + ColumnarCallStoreFormat.MAX_START_OFFSET) < query.getFromEpochSecond()
+                || index.getLong(entry + ColumnarCallStoreFormat.MIN_START_OFFSET) >= query.getToEpochSecond()) {
+            return false;
+        }
+        if (selectedPhoneNumbers == null) {
+            return true;
+        }
+        long minPhoneNumber = index.getLong(entry + ColumnarCallStoreFormat.MIN_PHONE_NUMBER_OFFSET);
+        long maxPhoneNumber = index.getLong(entry + ColumnarCallStoreFormat.MAX_PHONE_NUMBER_OFFSET);
+        for (long phoneNumber : selectedPhoneNumbers) {
+            if (Long.compareUnsigned(phoneNumber, minPhoneNumber) >= 0
+                    && Long.compareUnsigned(phoneNumber, maxPhoneNumber) <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the columns of a block into the reused block buffer and decompresses them into the given arrays.
+     *
+     * @param channel the channel of the call store
+     * @param index the block index
+     * @param entry the offset of the index entry of the block
+     * @param count the number of records of the block
+     * @param phoneNumbers the array receiving the codes of the phone numbers as stored
+     * @param startTimes the array receiving the starts of the calls
+     * @param durations the array receiving the durations of the calls
+     * @throws IOException if the block cannot be read or is corrupted
+     */
+    private void decodeBlock(FileChannel channel, ByteBuffer index, int entry, int count, long[] phoneNumbers,
+                             long[] startTimes, long[] durations) throws IOException {
+        int numbersLength = index.getInt(entry + ColumnarCallStoreFormat.NUMBERS_LENGTH_OFFSET);
+        int startsLength = index.getInt(entry + ColumnarCallStoreFormat.STARTS_LENGTH_OFFSET);
+        int durationsLength = index.getInt(entry + ColumnarCallStoreFormat.DURATIONS_LENGTH_OFFSET);
+        long length = (long) numbersLength + startsLength + durationsLength;
+        if (numbersLength < 0 || startsLength < 0 || durationsLength < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Block has invalid column lengths.");
+        }
+        if (blockBuffer.capacity() < length) {
+            blockBuffer = ByteBuffer.allocate((int) length);
+        }
+        ByteBuffer block = blockBuffer.clear().limit((int) length);
+        long position = index.getLong(entry + ColumnarCallStoreFormat.BLOCK_OFFSET);
+        while (block.hasRemaining()) {
+            if (channel.read(block, position + block.position()) < 0) {
+                throw new IOException("Columnar call store ends within a block at " + position + ".");
+            }
+        }
+
+        block.flip().limit(numbersLength);
+        long phoneNumber = 0;
+        for (int i = 0; i < count; i++) {
+            phoneNumber += ColumnarCallStoreFormat.unzigzag(ColumnarCallStoreFormat.getVariableLength(block));
+            phoneNumbers[i] = phoneNumber;
+        }
+        block.limit(numbersLength + startsLength).position(numbersLength);
+        long minStart = index.getLong(entry + ColumnarCallStoreFormat.MIN_START_OFFSET);
+        for (int i = 0; i < count; i++) {
+            startTimes[i] = minStart + ColumnarCallStoreFormat.getVariableLength(block);
+        }
+        block.limit((int) length).position(numbersLength + startsLength);
+        for (int i = 0; i < count; i++) {
+            durations[i] = ColumnarCallStoreFormat.unzigzag(ColumnarCallStoreFormat.getVariableLength(block));
+        }
+    }
+
+    /**
+     * Finds the codes under which the phone numbers selected by the query are stored.
+     *
+     * @param query the query
+     * @param dictionary the dictionary of the call store
+     * @return the sorted codes of the selected phone numbers occurring in the store
+     */
+    private static long[] getStoredCodes(CallStoreQuery query, String[] dictionary) {
+        Map<String, Integer> dictionaryIndices = new HashMap<>();
+        for (int entry = 0; entry < dictionary.length; entry++) {
+            dictionaryIndices.put(dictionary[entry], entry);
+        }
+        PhoneNumberCodec packingCodec = new PhoneNumberCodec();
+        return query.getPhoneNumbers().stream()
+                .mapToLong(number -> {
+                    long code = packingCodec.encode(number);
+                    if (PhoneNumberCodec.isPacked(code)) {
+                        return code;
+                    }
+                    Integer entry = dictionaryIndices.get(number);
+                    return entry == null ? NOT_STORED : PhoneNumberCodec.DICTIONARY_TAG | entry;
+                })
+                .filter(code -> code != NOT_STORED)
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Reads the dictionary entries stored at the end of the call store.
+     *
+     * @param channel the channel of the call store
+     * @param dictionaryOffset the offset of the dictionary
+     * @param dictionarySize the number of dictionary entries
+     * @return the phone numbers of the dictionary, indexed by their position in the file
+     * @throws IOException if the dictionary cannot be read
+     */
+    private static String[] readDictionary(FileChannel channel, long dictionaryOffset, int dictionarySize)
+            throws IOException {
+        String[] dictionary = new String[dictionarySize];
+        if (dictionarySize == 0) {
+            return dictionary;
+        }
+        long length = channel.size() - dictionaryOffset;
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Dictionary has an invalid length " + length + ".");
+        }
+        ByteBuffer entries = readFully(channel, dictionaryOffset, (int) length);
+        for (int entry = 0; entry < dictionarySize; entry++) {
+            if (entries.remaining() < Integer.BYTES) {
+                throw new IOException("Dictionary ends before entry " + entry + ".");
+            }
+            int numberLength = entries.getInt();
+            if (numberLength < 0 || numberLength > entries.remaining()) {
+                throw new IOException("Dictionary entry " + entry + " has an invalid length " + numberLength + ".");
+            }
+            byte[] number = new byte[numberLength];
+            entries.get(number);
+            dictionary[entry] = new String(number, StandardCharsets.UTF_8);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Reads the given range of the file into a new little endian buffer.
+     *
+     * @param channel the channel of the call store
+     * @param position the offset of the first byte
+     * @param length the number of bytes
+     * @return the buffer holding the bytes
+     * @throws IOException if the bytes cannot be read or the file ends before them
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, position + bytes.position()) < 0) {
+                throw new IOException("Columnar call store ends at " + (position + bytes.position()) + ".");
+            }
+        }
+        return bytes.flip();
+    }
+}
@@ -0,0 +1,294 @@
+package com.phonecompany.billing.parsers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+
+/**
+ * Writer of columnar call stores, see {@link ColumnarCallStoreFormat}, which receives the parsed call records as a
+ * {@link CallRecordHandler} and collects them into blocks of a fixed number of records. Every full block is split
+ * into compressed columns and written together with the minimum and maximum start and phone number of its calls,
+ * which let {@link ColumnarCallStoreReader} skip whole blocks. Records keep the order of the log, so the time range
+ * of a block is narrow when the log is ordered by time.
+ * The phone numbers have to be encoded by the codec of the writer, which must not be used for anything else,
+ * since the indices of its dictionary are stored in the records.
+ * The block index, the dictionary and the header are written when the writer is closed. The writer is not thread-safe.
+ */
+public class ColumnarCallStoreWriter implements CallRecordHandler, Closeable {
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 12;
+
+    private final PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+    private final FileChannel channel;
+    private final int blockSize;
+    private final long[] phoneNumbers;
+    private final long[] startTimes;
+    private final long[] durations;
+    private final ByteBuffer blockBuffer;
+    private ByteBuffer index;
+    private int blockRecordCount;
+    private int blockCount;
+    private long recordCount;
+    private int dictionarySize;
+
+    /**
+     * Creates a writer of a new call store with blocks of {@value #DEFAULT_BLOCK_SIZE} records,
+     * replacing the file if it exists.
+     *
+     * @param store the path of the call store
+     * @throws IOException if the file cannot be created
+     */
+    public ColumnarCallStoreWriter(Path store) throws IOException {
+        this(store, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a writer of a new call store, replacing the file if it exists.
+     *
+     * @param store the path of the call store
+     * @param blockSize the maximum number of records per block
+     * @throws IOException if the file cannot be created
+     * @throws IllegalArgumentException if the block size is not positive or too large
+     */
+    public ColumnarCallStoreWriter(Path store, int blockSize) throws IOException {
+        if (blockSize < 1 || blockSize > Integer.MAX_VALUE / (3 * ColumnarCallStoreFormat.MAX_VARIABLE_LENGTH)) {
+            throw new IllegalArgumentException("Block size out of range: " + blockSize);
+        }
+        this.blockSize = blockSize;
+        this.phoneNumbers = new long[blockSize];
+        this.startTimes = new long[blockSize];
+        this.durations = new long[blockSize];
+        this.blockBuffer = ByteBuffer.allocate(3 * ColumnarCallStoreFormat.MAX_VARIABLE_LENGTH * blockSize);
+        this.index = ByteBuffer.allocate(16 * ColumnarCallStoreFormat.INDEX_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = FileChannel.open(store, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(ColumnarCallStoreFormat.HEADER_SIZE);
+    }
+
+    /**
+     * Converts the given text phone log file to a columnar call store, handling rejected lines by the default policy.
+     *
+     * @param textLog the path of the text phone log
+     * @param store the path of the call store, which is replaced if it exists
+     * @return the number of stored call records
+     * @throws IOException if a file cannot be read or written
+     * @throws ParseException if a date of a call record cannot be parsed
+     */
+    public static long convert(Path textLog, Path store) throws IOException, ParseException {
+        RejectionCounter rejections = RejectionPolicy.defaultPolicy().open();
+        try {
+            return convert(textLog, store, DEFAULT_BLOCK_SIZE, rejections);
+        } finally {
+            rejections.complete();
+        }
+    }
+
+    /**
+     * Converts the given text phone log file to a columnar call store. Lines with an invalid format are skipped
+     * and passed to the rejection counter. If the conversion fails, the call store is deleted.
+     *
+     * @param textLog the path of the text phone log
+     * @param store the path of the call store, which is replaced if it exists
+     * @param blockSize the maximum number of records per block
+     * @param rejections the counter of rejected lines
+     * @return the number of stored call records
+     * @throws IOException if a file cannot be read or written
+     * @throws ParseException if a date of a call record cannot be parsed
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    public static long convert(Path textLog, Path store, int blockSize, RejectionCounter rejections)
+            throws IOException, ParseException {
+        ColumnarCallStoreWriter writer = new ColumnarCallStoreWriter(store, blockSize);
+        try {
+            new MappedCallLogReader(writer.getPhoneNumberCodec()).read(textLog, writer, rejections);
+            writer.close();
+            return writer.getRecordCount();
+        } catch (IOException | ParseException | RuntimeException e) {
+            try {
+                writer.channel.close();
+                Files.deleteIfExists(store);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the codec which has to encode the phone numbers passed to this writer.
+     *
+     * @return the codec of the writer
+     */
+    public PhoneNumberCodec getPhoneNumberCodec() {
+        return phoneNumberCodec;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Adds a call record to the current block, writing the block once it is full.
+     *
+     * @param phoneNumber the code of the called phone number, created by the codec of this writer
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param endTime the end of the call in wall clock epoch seconds
+     * @throws UncheckedIOException if the block cannot be written
+     */
+    @Override
+    public void onCall(long phoneNumber, long startTime, long endTime) {
+        if (!PhoneNumberCodec.isPacked(phoneNumber)) {
+            dictionarySize = Math.max(dictionarySize, (int) (phoneNumber & ~PhoneNumberCodec.DICTIONARY_TAG) + 1);
+        }
+        phoneNumbers[blockRecordCount] = phoneNumber;
+        startTimes[blockRecordCount] = startTime;
+        durations[blockRecordCount] = endTime - startTime;
+        recordCount++;
+        if (++blockRecordCount == blockSize) {
+            try {
+                writeBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the last block, the block index, the dictionary and the header, and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            if (blockRecordCount > 0) {
+                writeBlock();
+            }
+            long indexOffset = channel.position();
+            index.flip();
+            write(index);
+
+            long dictionaryOffset = channel.position();
+            for (int entry = 0; entry < dictionarySize; entry++) {
+                String phoneNumber = phoneNumberCodec.decode(PhoneNumberCodec.DICTIONARY_TAG | entry);
+                byte[] number = phoneNumber.getBytes(StandardCharsets.UTF_8);
+                write(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(0, number.length));
+                write(ByteBuffer.wrap(number));
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(ColumnarCallStoreFormat.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(ColumnarCallStoreFormat.MAGIC_OFFSET, ColumnarCallStoreFormat.MAGIC)
+                    .putInt(ColumnarCallStoreFormat.VERSION_OFFSET, ColumnarCallStoreFormat.VERSION)
+                    .putLong(ColumnarCallStoreFormat.RECORD_COUNT_OFFSET, recordCount)
+                    .putInt(ColumnarCallStoreFormat.BLOCK_COUNT_OFFSET, blockCount)
+                    .putInt(ColumnarCallStoreFormat.DICTIONARY_SIZE_OFFSET, dictionarySize)
+                    .putLong(ColumnarCallStoreFormat.INDEX_OFFSET_OFFSET, indexOffset)
+                    .putLong(ColumnarCallStoreFormat.DICTIONARY_OFFSET_OFFSET, dictionaryOffset)
+                    .putInt(ColumnarCallStoreFormat.BLOCK_SIZE_OFFSET, blockSize);
+            channel.position(0);
+            write(header);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Compresses the columns of the current block, writes them and adds the entry of the block to the index.
+     *
+     * @throws IOException if the block cannot be written
+     */
+    private void writeBlock() throws IOException {
+        int count = blockRecordCount;
+        long minStart = Long.MAX_VALUE;
+        long maxStart = Long.MIN_VALUE;
+        long minPhoneNumber = -1;
+        long maxPhoneNumber = 0;
+        for (int i = 0; i < count; i++) {
+            minStart = Math.min(minStart, startTimes[i]);
+            maxStart = Math.max(maxStart, startTimes[i]);
+            if (Long.compareUnsigned(phoneNumbers[i], minPhoneNumber) < 0) {
+                minPhoneNumber = phoneNumbers[i];
+            }
+            if (Long.compareUnsigned(phoneNumbers[i], maxPhoneNumber) > 0) {
+                maxPhoneNumber = phoneNumbers[i];
+            }
+        }
+
+        blockBuffer.clear();
+        long previousPhoneNumber = 0;
+        for (int i = 0; i < count; i++) {
+            ColumnarCallStoreFormat.putVariableLength(blockBuffer,
+                    ColumnarCallStoreFormat.zigzag(phoneNumbers[i] - previousPhoneNumber));
+            previousPhoneNumber = phoneNumbers[i];
+        }
+        int numbersLength = blockBuffer.position();
+        for (int i = 0; i < count; i++) {
+            ColumnarCallStoreFormat.putVariableLength(blockBuffer, startTimes[i] - minStart);
+        }
+        int startsLength = blockBuffer.position() - numbersLength;
+        for (int i = 0; i < count; i++) {
+            ColumnarCallStoreFormat.putVariableLength(blockBuffer, ColumnarCallStoreFormat.zigzag(durations[i]));
+        }
+        int durationsLength = blockBuffer.position() - numbersLength - startsLength;
+
+        long offset = channel.position();
+        blockBuffer.flip();
+        write(blockBuffer);
+
+        if (index.remaining() < ColumnarCallStoreFormat.INDEX_ENTRY_SIZE) {
+            ByteBuffer largerIndex = ByteBuffer.allocate(Math.multiplyExact(index.capacity(), 2))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            index.flip();
+            index = largerIndex.put(index);
+        }
+        index.putLong(offset)
+                .putInt(count)
+                .putInt(numbersLength)
+                .putInt(startsLength)
+                .putInt(durationsLength)
+                .putLong(minStart)
+                .putLong(maxStart)
+                .putLong(minPhoneNumber)
+                .putLong(maxPhoneNumber);
+        blockCount++;
+        blockRecordCount = 0;
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer at the current position of the file.
+     *
+     * @param bytes the bytes to be written
+     * @throws IOException if the bytes cannot be written
+     */
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Converts a text phone log file to a columnar call store.
+     * Arguments: text phone log file, call store file.
+     *
+     * @param args the command line arguments
+     * @throws IOException if a file cannot be read or written
+     * @throws ParseException if a date of a call record cannot be parsed
+     */
+    public static void main(String[] args) throws IOException, ParseException {
+        if (args.length < 2) {
+            System.err.println("Usage: ColumnarCallStoreWriter <text log> <call store>");
+            System.exit(1);
+        }
+        System.out.println(convert(Path.of(args[0]), Path.of(args[1])) + " call records stored.");
+    }
+}
@@ -0,0 +1,49 @@
+package com.phonecompany.billing.parsers;
+
+import java.nio.ByteBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Search for a delimiter byte in a range of a buffer, used by the {@link CallLogScanner} to find line and field
+ * separators. The default implementation is the {@link SwarDelimiterSearch}.
+ * When the code is built with the {@code vector} profile and run with {@code --add-modules jdk.incubator.vector},
+ * heap buffers are searched with the Vector API instead, see {@code VectorDelimiterSearch}.
+ */
+interface DelimiterSearch {
+
+    /**
+     * The implementation used by the scanner, the Vector API one if it is available.
+     */
+    DelimiterSearch INSTANCE = select();
+
+    /**
+     * Finds the first occurrence of the delimiter in the given range of the buffer.
+     * The position and the byte order of the buffer are not changed.
+     *
+     * @param buffer the buffer to be searched
+     * @param from the index of the first byte to be searched
+     * @param to the index after the last byte to be searched
+     * @param delimiter the delimiter
+     * @return the index of the first occurrence of the delimiter, or -1 if the range does not contain it
+     */
+    int indexOf(ByteBuffer buffer, int from, int to, byte delimiter);
+
+    /**
+     * Chooses the implementation once, when the scanner is first used.
+     *
+     * @return the Vector API search if it is compiled and its module is present, the SWAR search otherwise
+     */
+    private static DelimiterSearch select() {
+        DelimiterSearch swar = new SwarDelimiterSearch();
+        try {
+            return (DelimiterSearch) Class.forName("com.phonecompany.billing.parsers.VectorDelimiterSearch")
+                    .getDeclaredConstructor(DelimiterSearch.class)
+                    .newInstance(swar);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            Logger.getLogger(DelimiterSearch.class.getName())
+                    .log(Level.FINE, "Vector API not available, delimiters are searched within long words.", e);
+            return swar;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.phonecompany.billing.parsers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+
+/**
+ * Reader of phone log files which scans the call records directly from memory mapped segments of the file
+ * with a {@link CallLogScanner}.
+ * A segment is at most 2 GB long and always ends at a line boundary, so larger files are mapped piece by piece.
+ */
+public class MappedCallLogReader {
+    private static final long MAX_SEGMENT_SIZE = Integer.MAX_VALUE;
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private final CallLogScanner scanner;
+    private final long segmentSize;
+
+    /**
+     * Creates a reader mapping the file in segments of at most 2 GB.
+     *
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     */
+    public MappedCallLogReader(PhoneNumberCodec phoneNumberCodec) {
+        this(phoneNumberCodec, MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a reader mapping the file in segments of the given size.
+     *
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     * @param segmentSize the maximum number of bytes mapped at once
+     */
+    public MappedCallLogReader(PhoneNumberCodec phoneNumberCodec, long segmentSize) {
+        if (segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Segment size must be between 1 and " + MAX_SEGMENT_SIZE + ": " + segmentSize);
+        }
+        this.scanner = new CallLogScanner(phoneNumberCodec);
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Reads all call records of the given phone log file and passes them to the handler.
+     * Lines with an invalid format are skipped and handled by the default {@link RejectionPolicy}.
+     *
+     * @param phoneLog the path of the phone log file
+     * @param handler the handler of the parsed call records
+     * @throws IOException if the file cannot be mapped or contains a line longer than a segment
+     * @throws ParseException if a date of a call record cannot be parsed
+     */
+    public void read(Path phoneLog, CallRecordHandler handler) throws IOException, ParseException {
+        RejectionCounter rejections = RejectionPolicy.defaultPolicy().open();
+        try {
+            read(phoneLog, handler, rejections);
+        } finally {
+            rejections.complete();
+        }
+    }
+
+    /**
+     * Reads all call records of the given phone log file and passes them to the handler.
+     * Lines with an invalid format are skipped and passed to the rejection counter.
+     *
+     * @param phoneLog the path of the phone log file
+     * @param handler the handler of the parsed call records
+     * @param rejections the counter of rejected lines
+     * @throws IOException if the file cannot be mapped or contains a line longer than a segment
+     * @throws ParseException if a date of a call record cannot be parsed
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    public void read(Path phoneLog, CallRecordHandler handler, RejectionCounter rejections)
+            throws IOException, ParseException {
+        read(phoneLog, 0, Long.MAX_VALUE, handler, rejections);
+    }
+
+    /**
+     * Reads the call records stored in the given range of the phone log file and passes them to the handler.
+     * The range has to start at the beginning of a line, see {@link CallLogChunker}.
+     * Lines with an invalid format are skipped and passed to the rejection counter, numbered from the start
+     * of the range.
+     *
+     * @param phoneLog the path of the phone log file
+     * @param from the offset of the first byte to be read
+     * @param to the offset after the last byte to be read, capped at the size of the file
+     * @param handler the handler of the parsed call records
+     * @param rejections the counter of rejected lines
+     * @throws IOException if the file cannot be mapped or contains a line longer than a segment
+     * @throws ParseException if a date of a call record cannot be parsed
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    public void read(Path phoneLog, long from, long to, CallRecordHandler handler, RejectionCounter rejections)
+            throws IOException, ParseException {
+        try (FileChannel channel = FileChannel.open(phoneLog, StandardOpenOption.READ)) {
+            long size = Math.min(channel.size(), to);
+            long position = from;
+            long lineNumber = 1;
+
+            while (position < size) {
+                long length = Math.min(segmentSize, size - position);
+                ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int limit = (int) length;
+                if (position + length < size) {
+                    limit = lastLineEnd(segment, limit);
+                    if (limit == 0) {
+                        throw new IOException("Line at offset " + position + " is longer than " + segmentSize + " bytes.");
+                    }
+                }
+                lineNumber = scanner.scan(segment, 0, limit, lineNumber, handler, rejections);
+                position += limit;
+            }
+        }
+    }
+
+    /**
+     * Finds the end of the last complete line within the segment.
+     *
+     * @param segment the mapped segment
+     * @param limit the number of mapped bytes
+     * @return the index after the last line separator, or 0 if there is none
+     */
+    private int lastLineEnd(ByteBuffer segment, int limit) {
+        for (int i = limit - 1; i >= 0; i--) {
+            if (segment.get(i) == LINE_SEPARATOR) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,239 @@
+package com.phonecompany.billing.parsers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes phone numbers into {@code long} codes, so they can be counted and compared without any objects.
+ * A phone number of up to 16 decimal digits is packed into the code directly, one digit per 4 bits starting
+ * with the most significant ones, storing every digit incremented by one. Such codes compare as unsigned numbers
+ * in the same order as the phone numbers compare as strings, and never have the top 4 bits all set.
+ * Any other phone number gets a code with the top 4 bits set from a dictionary kept by the codec instance,
+ * so codes of such numbers are only meaningful for the codec which created them.
+ * Packing is lock free, the dictionary is synchronized, so a codec can be shared by parallel parsers.
+ */
+public class PhoneNumberCodec {
+    public static final int MAX_PACKED_DIGITS = 16;
+    private static final int BITS_PER_DIGIT = 4;
+    static final long DICTIONARY_TAG = 0xFL << 60;
+    /**
+     * Returned by {@link #find(CharSequence)} for a phone number which has no code yet. It is never the code
+     * of a phone number, since the dictionary cannot grow that large.
+     */
+    public static final long NOT_FOUND = -1;
+    private static final long NOT_PACKED = 0;
+
+    private final Map<String, Long> dictionaryCodes = new HashMap<>();
+    private final List<String> dictionaryNumbers = new ArrayList<>();
+
+    /**
+     * Encodes the given phone number.
+     *
+     * @param phoneNumber the phone number to be encoded
+     * @return the code of the phone number
+     */
+    public long encode(CharSequence phoneNumber) {
+        return encode(phoneNumber, 0, phoneNumber.length());
+    }
+
+    /**
+     * Encodes the phone number stored in the given range of characters.
+     *
+     * @param text the characters containing the phone number
+     * @param from the index of the first character of the phone number
+     * @param to the index after the last character of the phone number
+     * @return the code of the phone number
+     */
+    public long encode(CharSequence text, int from, int to) {
+        long code = pack(text, from, to);
+        return code != NOT_PACKED ? code : encodeWithDictionary(text.subSequence(from, to).toString());
+    }
+
+    /**
+     * Looks up the code of the given phone number without adding it to the dictionary, e.g. to query tallies
+     * by a phone number which may never have been encoded.
+     *
+     * @param phoneNumber the phone number to be looked up
+     * @return the code of the phone number, or {@link #NOT_FOUND} if it cannot be packed and is not in the dictionary
+     */
+    public long find(CharSequence phoneNumber) {
+        long code = pack(phoneNumber, 0, phoneNumber.length());
+        if (code != NOT_PACKED) {
+            return code;
+        }
+        synchronized (this) {
+            return dictionaryCodes.getOrDefault(phoneNumber.toString(), NOT_FOUND);
+        }
+    }
+
+    /**
+     * Encodes the UTF-8 phone number stored in the given range of bytes.
+     *
+     * @param bytes the bytes containing the phone number
+     * @param from the index of the first byte of the phone number
+     * @param to the index after the last byte of the phone number
+     * @return the code of the phone number
+     */
+    public long encode(byte[] bytes, int from, int to) {
+        long code = NOT_PACKED;
+        if (isPackable(from, to)) {
+            for (int i = from; i < to; i++) {
+                code = packDigit(code, i - from, bytes[i]);
+                if (code == NOT_PACKED) {
+                    break;
+                }
+            }
+        }
+        return code != NOT_PACKED ? code : encodeWithDictionary(new String(bytes, from, to - from, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encodes the UTF-8 phone number stored in the given range of a byte buffer.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer the buffer containing the phone number
+     * @param from the index of the first byte of the phone number
+     * @param to the index after the last byte of the phone number
+     * @return the code of the phone number
+     */
+    public long encode(ByteBuffer buffer, int from, int to) {
+        long code = NOT_PACKED;
+        if (isPackable(from, to)) {
+            for (int i = from; i < to; i++) {
+                code = packDigit(code, i - from, buffer.get(i));
+                if (code == NOT_PACKED) {
+                    break;
+                }
+            }
+        }
+        if (code != NOT_PACKED) {
+            return code;
+        }
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return encodeWithDictionary(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the given code back into the phone number.
+     *
+     * @param code the code of a phone number created by this codec
+     * @return the phone number
+     */
+    public String decode(long code) {
+        if (isPacked(code)) {
+            char[] digits = new char[MAX_PACKED_DIGITS];
+            int length = 0;
+            for (int shift = Long.SIZE - BITS_PER_DIGIT; shift >= 0; shift -= BITS_PER_DIGIT) {
+                int digit = (int) (code >>> shift) & 0xF;
+                if (digit == 0) {
+                    break;
+                }
+                digits[length++] = (char) ('0' + digit - 1);
+            }
+            return new String(digits, 0, length);
+        }
+        synchronized (this) {
+            return dictionaryNumbers.get((int) (code & ~DICTIONARY_TAG));
+        }
+    }
+
+    /**
+     * Compares the phone numbers of two codes in the same way as {@link String#compareTo(String)} would.
+     *
+     * @param first the code of the first phone number
+     * @param second the code of the second phone number
+     * @return a negative number, zero or a positive number if the first phone number is less than,
+     * equal to or greater than the second one
+     */
+    public int compare(long first, long second) {
+        if (first == second) {
+            return 0;
+        }
+        if (isPacked(first) && isPacked(second)) {
+            return Long.compareUnsigned(first, second);
+        }
+        return decode(first).compareTo(decode(second));
+    }
+
+    /**
+     * Forgets all phone numbers kept in the dictionary, so the codec can be reused for another phone log.
+     * Codes of such phone numbers created before must not be used afterwards.
+     */
+    public synchronized void clear() {
+        dictionaryCodes.clear();
+        dictionaryNumbers.clear();
+    }
+
+    /**
+     * Determines if the given code holds the digits of the phone number itself.
+     *
+     * @param code the code of a phone number
+     * @return {@code true} if the phone number is packed in the code, {@code false} if it is kept in a dictionary
+     */
+    public static boolean isPacked(long code) {
+        return (code & DICTIONARY_TAG) != DICTIONARY_TAG;
+    }
+
+    /**
+     * Packs the digits of the phone number stored in the given range of characters into a code.
+     *
+     * @return the code of the phone number, or zero if it is empty, too long or not all digits
+     */
+    private static long pack(CharSequence text, int from, int to) {
+        long code = NOT_PACKED;
+        if (isPackable(from, to)) {
+            for (int i = from; i < to; i++) {
+                code = packDigit(code, i - from, text.charAt(i));
+                if (code == NOT_PACKED) {
+                    break;
+                }
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Determines if a phone number stored in the given range is short enough to be packed into a code.
+     *
+     * @param from the index of the first character of the phone number
+     * @param to the index after the last character of the phone number
+     * @return {@code true} if the phone number is not empty and has at most {@link #MAX_PACKED_DIGITS} characters
+     */
+    private static boolean isPackable(int from, int to) {
+        return to > from && to - from <= MAX_PACKED_DIGITS;
+    }
+
+    /**
+     * Packs one character of a phone number into the code of the characters before it. This is the only place
+     * defining the order-preserving layout of packed codes.
+     *
+     * @param code the code of the characters before the given one
+     * @param index the index of the character within the phone number, less than {@link #MAX_PACKED_DIGITS}
+     * @param character the character, a byte of UTF-8 or a UTF-16 char
+     * @return the code including the character, or {@link #NOT_PACKED} if the character is not a decimal digit
+     */
+    private static long packDigit(long code, int index, int character) {
+        if (character < '0' || character > '9') {
+            return NOT_PACKED;
+        }
+        return code | (long) (character - '0' + 1) << (Long.SIZE - BITS_PER_DIGIT * (index + 1));
+    }
+
+    /**
+     * Encodes a phone number which cannot be packed, using the dictionary of this codec.
+     *
+     * @param phoneNumber the phone number to be encoded
+     * @return the code of the phone number
+     */
+    private synchronized long encodeWithDictionary(String phoneNumber) {
+        return dictionaryCodes.computeIfAbsent(phoneNumber, number -> {
+            dictionaryNumbers.add(number);
+            return DICTIONARY_TAG | (dictionaryNumbers.size() - 1);
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package com.phonecompany.billing.parsers;
+
+/**
+ * Thrown by a strict {@link RejectionPolicy} at the first rejected line of a phone log.
+ */
+public class RejectedLineException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long lineNumber;
+    private final RejectionReason reason;
+
+    public RejectedLineException(long lineNumber, RejectionReason reason) {
+        super("Line " + lineNumber + " of the phone log was rejected: " + reason + ".");
+        this.lineNumber = lineNumber;
+        this.reason = reason;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public RejectionReason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,114 @@
+package com.phonecompany.billing.parsers;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts the rejected lines of a single phone log and passes them on as decided by its {@link RejectionPolicy}.
+ * Rejecting a line costs a few atomic increments unless the line is reported, so the counter can be shared
+ * by parallel parsers. A parser of a chunk of the phone log uses a {@link #startingAfter view} of the counter,
+ * which turns the line numbers within the chunk into line numbers within the whole log.
+ */
+public class RejectionCounter {
+    private static final RejectionReason[] REASONS = RejectionReason.values();
+
+    private final RejectionPolicy policy;
+    private final AtomicLongArray counts;
+    private final AtomicLong reportedCount;
+    private final LongSupplier precedingLines;
+    private long precedingLineCount = -1;
+
+    RejectionCounter(RejectionPolicy policy) {
+        this.policy = policy;
+        this.counts = new AtomicLongArray(REASONS.length + 1);
+        this.reportedCount = new AtomicLong();
+        this.precedingLines = null;
+    }
+
+    private RejectionCounter(RejectionCounter counter, LongSupplier precedingLines) {
+        this.policy = counter.policy;
+        this.counts = counter.counts;
+        this.reportedCount = counter.reportedCount;
+        this.precedingLines = precedingLines;
+    }
+
+    /**
+     * Creates a view of this counter for a part of the phone log which starts after the given number of lines.
+     * The number of lines is only determined once the first line of the part is rejected.
+     * A view is meant to be used by a single parser thread.
+     *
+     * @param precedingLines supplies the number of lines before the part
+     * @return the view sharing the counts of this counter
+     */
+    public RejectionCounter startingAfter(LongSupplier precedingLines) {
+        return new RejectionCounter(this, precedingLines);
+    }
+
+    /**
+     * Counts a rejected line and reports it if it is selected by the policy.
+     *
+     * @param lineNumber the number of the line, starting with 1
+     * @param reason the reason of the rejection
+     * @throws RejectedLineException if the policy is strict
+     */
+    public void reject(long lineNumber, RejectionReason reason) {
+        counts.incrementAndGet(reason.ordinal());
+        long count = counts.incrementAndGet(REASONS.length);
+        if (policy.isStrict()) {
+            long absoluteLineNumber = lineNumber + getPrecedingLineCount();
+            reportedCount.incrementAndGet();
+            policy.getSink().reject(absoluteLineNumber, reason);
+            throw new RejectedLineException(absoluteLineNumber, reason);
+        }
+        if ((count - 1) % policy.getSampleInterval() == 0 && reportedCount.get() < policy.getMaxReported()
+                && reportedCount.incrementAndGet() <= policy.getMaxReported()) {
+            policy.getSink().reject(lineNumber + getPrecedingLineCount(), reason);
+        }
+    }
+
+    /**
+     * Passes the final counts to the sink of the policy.
+     */
+    public void complete() {
+        policy.getSink().complete(this);
+    }
+
+    /**
+     * Returns the number of lines rejected for the given reason.
+     *
+     * @param reason the reason of the rejection
+     * @return the number of rejected lines
+     */
+    public long getCount(RejectionReason reason) {
+        return counts.get(reason.ordinal());
+    }
+
+    /**
+     * Returns the number of rejected lines.
+     *
+     * @return the number of rejected lines
+     */
+    public long getCount() {
+        return counts.get(REASONS.length);
+    }
+
+    /**
+     * Returns the number of rejected lines passed to the sink.
+     *
+     * @return the number of reported lines
+     */
+    public long getReportedCount() {
+        return policy.isStrict() ? reportedCount.get() : Math.min(reportedCount.get(), policy.getMaxReported());
+    }
+
+    private long getPrecedingLineCount() {
+        if (precedingLines == null) {
+            return 0;
+        }
+        if (precedingLineCount < 0) {
+            precedingLineCount = precedingLines.getAsLong();
+        }
+        return precedingLineCount;
+    }
+}
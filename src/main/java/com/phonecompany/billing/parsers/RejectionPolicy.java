@@ -0,0 +1,147 @@
+package com.phonecompany.billing.parsers;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decides what happens with the lines of a phone log the parser rejects.
+ * Every rejection is counted. Only every n-th rejection is passed to the sink, and at most a given number
+ * of them per phone log, so dirty phone logs do not spend their time reporting. A strict policy instead fails
+ * the phone log at its first rejected line with a {@link RejectedLineException}; when the log is parsed in parallel,
+ * that is the first rejected line any of the parsers finds.
+ * The default policy logs at most {@value #DEFAULT_MAX_REPORTED} rejected lines per phone log and a summary.
+ * A policy is immutable, the counting is done by the {@link RejectionCounter} it {@link #open() opens} for each log.
+ */
+public class RejectionPolicy {
+    public static final int DEFAULT_MAX_REPORTED = 100;
+    private static final Logger logger = Logger.getLogger(RejectionPolicy.class.getName());
+    private static final RejectionPolicy DEFAULT = builder().build();
+
+    private final RejectionSink sink;
+    private final long sampleInterval;
+    private final long maxReported;
+    private final boolean strict;
+
+    private RejectionPolicy(Builder builder) {
+        this.sink = builder.sink;
+        this.sampleInterval = builder.sampleInterval;
+        this.maxReported = builder.maxReported;
+        this.strict = builder.strict;
+    }
+
+    public static RejectionPolicy defaultPolicy() {
+        return DEFAULT;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts counting the rejections of a new phone log.
+     *
+     * @return an empty counter applying this policy
+     */
+    public RejectionCounter open() {
+        return new RejectionCounter(this);
+    }
+
+    RejectionSink getSink() {
+        return sink;
+    }
+
+    long getSampleInterval() {
+        return sampleInterval;
+    }
+
+    long getMaxReported() {
+        return maxReported;
+    }
+
+    boolean isStrict() {
+        return strict;
+    }
+
+    /**
+     * Sink logging every received rejection as a warning and the total counts once the phone log is parsed.
+     */
+    private static class LoggingRejectionSink implements RejectionSink {
+        @Override
+        public void reject(long lineNumber, RejectionReason reason) {
+            logger.log(Level.WARNING, () -> "Invalid line " + lineNumber + ": " + reason);
+        }
+
+        @Override
+        public void complete(RejectionCounter rejections) {
+            if (rejections.getReportedCount() < rejections.getCount()) {
+                logger.log(Level.WARNING, () -> rejections.getCount() + " lines rejected, "
+                        + rejections.getReportedCount() + " of them reported.");
+            }
+        }
+    }
+
+    public static class Builder {
+        private RejectionSink sink = new LoggingRejectionSink();
+        private long sampleInterval = 1;
+        private long maxReported = DEFAULT_MAX_REPORTED;
+        private boolean strict;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the sink receiving the reported rejections, by default they are logged.
+         *
+         * @param sink the sink
+         * @return this builder
+         */
+        public Builder sink(RejectionSink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * Reports only every n-th rejection of a phone log, starting with the first one.
+         *
+         * @param sampleInterval the distance between reported rejections, 1 to report all of them
+         * @return this builder
+         */
+        public Builder sampleInterval(long sampleInterval) {
+            if (sampleInterval < 1) {
+                throw new IllegalArgumentException("Sample interval must be positive: " + sampleInterval);
+            }
+            this.sampleInterval = sampleInterval;
+            return this;
+        }
+
+        /**
+         * Caps the number of rejections reported per phone log.
+         *
+         * @param maxReported the maximum number of reported rejections, 0 to only count them
+         * @return this builder
+         */
+        public Builder maxReported(long maxReported) {
+            if (maxReported < 0) {
+                throw new IllegalArgumentException("Maximum number of reported rejections must not be negative: " + maxReported);
+            }
+            this.maxReported = maxReported;
+            return this;
+        }
+
+        /**
+         * Makes the first rejected line fail the phone log with a {@link RejectedLineException}
+         * after it is passed to the sink.
+         *
+         * @param strict {@code true} to fail fast
+         * @return this builder
+         */
+        public Builder strict(boolean strict) {
+            this.strict = strict;
+            return this;
+        }
+
+        public RejectionPolicy build() {
+            return new RejectionPolicy(this);
+        }
+    }
+}
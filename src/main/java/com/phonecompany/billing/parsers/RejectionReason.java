@@ -0,0 +1,15 @@
+package com.phonecompany.billing.parsers;
+
+/**
+ * The reason why a line of a phone log was rejected.
+ */
+public enum RejectionReason {
+    /**
+     * The line does not consist of a phone number, a start and an end. The line is skipped.
+     */
+    INVALID_FIELD_COUNT,
+    /**
+     * The start or the end of the call cannot be parsed. The whole bill fails.
+     */
+    UNPARSABLE_TIMESTAMP
+}
@@ -0,0 +1,26 @@
+package com.phonecompany.billing.parsers;
+
+/**
+ * Receives the lines of a phone log rejected by the parser, as selected by a {@link RejectionPolicy}.
+ * A sink used by a calculator parsing in parallel is called from several threads at once.
+ */
+@FunctionalInterface
+public interface RejectionSink {
+
+    /**
+     * Receives a rejected line.
+     *
+     * @param lineNumber the number of the line within the phone log, starting with 1
+     * @param reason the reason of the rejection
+     */
+    void reject(long lineNumber, RejectionReason reason);
+
+    /**
+     * Receives the counts of all rejected lines, including those not passed to {@link #reject}, once
+     * the phone log has been parsed or has failed.
+     *
+     * @param rejections the rejection counts of the phone log
+     */
+    default void complete(RejectionCounter rejections) {
+    }
+}
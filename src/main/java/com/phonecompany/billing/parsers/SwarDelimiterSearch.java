@@ -0,0 +1,34 @@
+package com.phonecompany.billing.parsers;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Delimiter search comparing 8 bytes at a time within a {@code long} word (SWAR): the word is XORed with
+ * the delimiter repeated in every byte, and the bytes which become zero are flagged without any carry between bytes,
+ * so the first flagged byte in the byte order of the buffer is the first occurrence.
+ */
+final class SwarDelimiterSearch implements DelimiterSearch {
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long LOW_BYTES = 0x0101010101010101L;
+
+    @Override
+    public int indexOf(ByteBuffer buffer, int from, int to, byte delimiter) {
+        long pattern = (delimiter & 0xFFL) * LOW_BYTES;
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        int i = from;
+        for (; i <= to - Long.BYTES; i += Long.BYTES) {
+            long word = buffer.getLong(i) ^ pattern;
+            long zeroBytes = ~(((word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | word | LOW_SEVEN_BITS);
+            if (zeroBytes != 0) {
+                return i + ((bigEndian ? Long.numberOfLeadingZeros(zeroBytes) : Long.numberOfTrailingZeros(zeroBytes)) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == delimiter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,181 @@
+package com.phonecompany.billing.parsers;
+
+import com.phonecompany.billing.domain.entities.TariffBand;
+import com.phonecompany.billing.domain.entities.TariffPlan;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Loads tariff plans from properties files:
+ * <pre>
+ * default.name=REDUCED_RATE
+ * default.rate=0.50
+ * band.1.name=NORMAL_RATE
+ * band.1.days=MON-FRI
+ * band.1.hours=08:00-16:00
+ * band.1.rate=1.00
+ * longCall.minutes=5
+ * longCall.surcharge=0.20
+ * promotion.mostFrequentNumberFree=true
+ * </pre>
+ * Bands are applied in the order of their numbers, so a later band overrides an earlier one where they overlap.
+ * The days of a band are a comma separated list of days or day ranges, all days if omitted. The end of the hours
+ * may be {@code 24:00}. Everything but the default rate is optional; without bands every minute has the default rate.
+ */
+public final class TariffPlanParser {
+    private static final String BAND_PREFIX = "band.";
+    private static final int MINUTES_PER_HOUR = 60;
+
+    private TariffPlanParser() {
+    }
+
+    /**
+     * Loads a tariff plan from the given file.
+     *
+     * @param tariffPlan the path of the properties file
+     * @return the tariff plan
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file does not define a valid tariff plan
+     */
+    public static TariffPlan parse(Path tariffPlan) throws IOException {
+        try (Reader reader = Files.newBufferedReader(tariffPlan, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Loads a tariff plan from the given reader, which is not closed by this method.
+     *
+     * @param tariffPlan a reader providing the properties
+     * @return the tariff plan
+     * @throws IOException if the properties cannot be read
+     * @throws IllegalArgumentException if the properties do not define a valid tariff plan
+     */
+    public static TariffPlan parse(Reader tariffPlan) throws IOException {
+        Properties properties = new Properties();
+        properties.load(tariffPlan);
+
+        Set<Integer> bandNumbers = new TreeSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(BAND_PREFIX)) {
+                int numberEnd = key.indexOf('.', BAND_PREFIX.length());
+                bandNumbers.add(parseInteger(key, numberEnd < 0 ? key.substring(BAND_PREFIX.length())
+                        : key.substring(BAND_PREFIX.length(), numberEnd)));
+            }
+        }
+        List<TariffBand> bands = new ArrayList<>();
+        for (int bandNumber : bandNumbers) {
+            String prefix = BAND_PREFIX + bandNumber + ".";
+            String hours = required(properties, prefix + "hours");
+            int separator = hours.indexOf('-');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid hours of " + prefix + "hours: " + hours);
+            }
+            bands.add(new TariffBand(
+                    properties.getProperty(prefix + "name", "BAND_" + bandNumber),
+                    parseDays(prefix + "days", properties.getProperty(prefix + "days")),
+                    parseMinuteOfDay(prefix + "hours", hours.substring(0, separator).trim()),
+                    parseMinuteOfDay(prefix + "hours", hours.substring(separator + 1).trim()),
+                    parseRate(prefix + "rate", required(properties, prefix + "rate"))));
+        }
+
+        return new TariffPlan(
+                properties.getProperty("default.name", "DEFAULT"),
+                parseRate("default.rate", required(properties, "default.rate")),
+                bands,
+                parseInteger("longCall.minutes", properties.getProperty("longCall.minutes", "0")),
+                parseRate("longCall.surcharge", properties.getProperty("longCall.surcharge", "0")),
+                Boolean.parseBoolean(properties.getProperty("promotion.mostFrequentNumberFree", "false").trim()));
+    }
+
+    /**
+     * Parses days of week such as {@code MON-FRI,SUN}.
+     *
+     * @param key the key of the property
+     * @param days the value of the property, or {@code null} for all days
+     * @return the days of week
+     */
+    private static Set<DayOfWeek> parseDays(String key, String days) {
+        if (days == null) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        Set<DayOfWeek> daysOfWeek = EnumSet.noneOf(DayOfWeek.class);
+        for (String range : days.split(",")) {
+            int separator = range.indexOf('-');
+            if (separator < 0) {
+                daysOfWeek.add(parseDay(key, range));
+            } else {
+                DayOfWeek from = parseDay(key, range.substring(0, separator));
+                DayOfWeek to = parseDay(key, range.substring(separator + 1));
+                for (DayOfWeek day = from; day != to; day = day.plus(1)) {
+                    daysOfWeek.add(day);
+                }
+                daysOfWeek.add(to);
+            }
+        }
+        return daysOfWeek;
+    }
+
+    private static DayOfWeek parseDay(String key, String day) {
+        String abbreviation = day.trim().toUpperCase();
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if (dayOfWeek.name().startsWith(abbreviation) && abbreviation.length() >= 2) {
+                return dayOfWeek;
+            }
+        }
+        throw new IllegalArgumentException("Invalid day of week in " + key + ": " + day);
+    }
+
+    /**
+     * Parses a time of day in the {@code HH:mm} format into the minute of day.
+     *
+     * @param key the key of the property
+     * @param time the time of day, {@code 24:00} for the end of the day
+     * @return the minute of day
+     */
+    private static int parseMinuteOfDay(String key, String time) {
+        int separator = time.indexOf(':');
+        int hour = parseInteger(key, separator < 0 ? time : time.substring(0, separator));
+        int minute = separator < 0 ? 0 : parseInteger(key, time.substring(separator + 1));
+        if (hour < 0 || minute < 0 || minute >= MINUTES_PER_HOUR || hour * MINUTES_PER_HOUR + minute > TariffBand.MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Invalid time of day in " + key + ": " + time);
+        }
+        return hour * MINUTES_PER_HOUR + minute;
+    }
+
+    private static BigDecimal parseRate(String key, String rate) {
+        try {
+            return new BigDecimal(rate.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid rate in " + key + ": " + rate, e);
+        }
+    }
+
+    private static int parseInteger(String key, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in " + key + ": " + value, e);
+        }
+    }
+
+    private static String required(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing tariff plan property " + key + ".");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,320 @@
+package com.phonecompany.billing.parsers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.TimeZone;
+
+/**
+ * Parser of the {@code dd-MM-yyyy HH:mm:ss} timestamps used in phone logs.
+ * Timestamps are decoded into seconds since 01-01-1970 00:00:00 of the same wall clock, without any time zone
+ * conversion, so the hour of day and call durations can be derived with plain arithmetic.
+ * Canonical timestamps are decoded directly from the characters or bytes without allocating any objects,
+ * anything else falls back to a lenient {@link SimpleDateFormat}. Bytes are loaded as three overlapping
+ * {@code long} words, whose separators and digits are validated and converted 8 bytes at a time.
+ */
+public final class TimestampParser {
+    public static final int TIMESTAMP_LENGTH = 19;
+    public static final long NOT_CANONICAL = Long.MIN_VALUE;
+    private static final String DATE_FORMAT = "dd-MM-yyyy HH:mm:ss";
+    private static final TimeZone WALL_CLOCK = TimeZone.getTimeZone("UTC");
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int SECONDS_PER_HOUR = 3600;
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final int MIN_FAST_PATH_YEAR = 1600;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final VarHandle LITTLE_ENDIAN_LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    /**
+     * Offsets of the words {@code dd-MM-yy}, {@code yy HH:mm} and {@code HH:mm:ss}, all with separators in bytes 2 and 5.
+     */
+    private static final int YEAR_TIME_WORD = 8;
+    private static final int TIME_WORD = 11;
+    private static final long SEPARATOR_BYTES = 0x0000FF0000FF0000L;
+    private static final long DATE_SEPARATORS = 0x00002D00002D0000L;
+    private static final long YEAR_TIME_SEPARATORS = 0x00003A0000200000L;
+    private static final long TIME_SEPARATORS = 0x00003A00003A0000L;
+    private static final long ZERO_DIGITS = 0x3030303030303030L;
+    private static final long ABOVE_NINE = 0x7676767676767676L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private TimestampParser() {
+    }
+
+    /**
+     * Parses the given timestamp into wall clock epoch seconds.
+     *
+     * @param text the timestamp to be parsed
+     * @return the number of seconds since 01-01-1970 00:00:00
+     * @throws ParseException if the timestamp cannot be parsed
+     */
+    public static long parseEpochSecond(CharSequence text) throws ParseException {
+        return parseEpochSecond(text, 0, text.length());
+    }
+
+    /**
+     * Parses the timestamp stored in the given range of characters into wall clock epoch seconds.
+     *
+     * @param text the characters containing the timestamp
+     * @param from the index of the first character of the timestamp
+     * @param to the index after the last character of the timestamp
+     * @return the number of seconds since 01-01-1970 00:00:00
+     * @throws ParseException if the timestamp cannot be parsed
+     */
+    public static long parseEpochSecond(CharSequence text, int from, int to) throws ParseException {
+        if (to - from >= TIMESTAMP_LENGTH && (to - from == TIMESTAMP_LENGTH || !isDigit(text.charAt(from + TIMESTAMP_LENGTH)))) {
+            long epochSecond = decode(text.charAt(from), text.charAt(from + 1), text.charAt(from + 2),
+                    text.charAt(from + 3), text.charAt(from + 4), text.charAt(from + 5),
+                    text.charAt(from + 6), text.charAt(from + 7), text.charAt(from + 8), text.charAt(from + 9),
+                    text.charAt(from + 10), text.charAt(from + 11), text.charAt(from + 12), text.charAt(from + 13),
+                    text.charAt(from + 14), text.charAt(from + 15), text.charAt(from + 16),
+                    text.charAt(from + 17), text.charAt(from + 18));
+            if (epochSecond != NOT_CANONICAL) {
+                return epochSecond;
+            }
+        }
+        return parseLenient(text.subSequence(from, to).toString());
+    }
+
+    /**
+     * Parses the ASCII timestamp stored in the given range of bytes into wall clock epoch seconds.
+     *
+     * @param bytes the bytes containing the timestamp
+     * @param from the index of the first byte of the timestamp
+     * @param to the index after the last byte of the timestamp
+     * @return the number of seconds since 01-01-1970 00:00:00
+     * @throws ParseException if the timestamp cannot be parsed
+     */
+    public static long parseEpochSecond(byte[] bytes, int from, int to) throws ParseException {
+        if (to - from >= TIMESTAMP_LENGTH && (to - from == TIMESTAMP_LENGTH || !isDigit((char) bytes[from + TIMESTAMP_LENGTH]))) {
+            long epochSecond = decode((long) LITTLE_ENDIAN_LONGS.get(bytes, from),
+                    (long) LITTLE_ENDIAN_LONGS.get(bytes, from + YEAR_TIME_WORD),
+                    (long) LITTLE_ENDIAN_LONGS.get(bytes, from + TIME_WORD));
+            if (epochSecond != NOT_CANONICAL) {
+                return epochSecond;
+            }
+        }
+        return parseLenient(new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Parses the ASCII timestamp stored in the given range of a byte buffer into wall clock epoch seconds.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer the buffer containing the timestamp
+     * @param from the index of the first byte of the timestamp
+     * @param to the index after the last byte of the timestamp
+     * @return the number of seconds since 01-01-1970 00:00:00
+     * @throws ParseException if the timestamp cannot be parsed
+     */
+    public static long parseEpochSecond(ByteBuffer buffer, int from, int to) throws ParseException {
+        if (to - from >= TIMESTAMP_LENGTH && (to - from == TIMESTAMP_LENGTH || !isDigit((char) buffer.get(from + TIMESTAMP_LENGTH)))) {
+            long dateWord = buffer.getLong(from);
+            long yearTimeWord = buffer.getLong(from + YEAR_TIME_WORD);
+            long timeWord = buffer.getLong(from + TIME_WORD);
+            if (buffer.order() == ByteOrder.BIG_ENDIAN) {
+                dateWord = Long.reverseBytes(dateWord);
+                yearTimeWord = Long.reverseBytes(yearTimeWord);
+                timeWord = Long.reverseBytes(timeWord);
+            }
+            long epochSecond = decode(dateWord, yearTimeWord, timeWord);
+            if (epochSecond != NOT_CANONICAL) {
+                return epochSecond;
+            }
+        }
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return parseLenient(new String(bytes, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * Formats a wall clock epoch second in the {@code dd-MM-yyyy HH:mm:ss} format of phone logs as ASCII bytes.
+     * The calendar date is derived from the epoch day arithmetically, the inverse of {@link #epochDay}.
+     *
+     * @param epochSecond the number of seconds since 01-01-1970 00:00:00, for a year between 0 and 9999
+     * @param buffer the buffer to write the {@value #TIMESTAMP_LENGTH} bytes to
+     * @param position the position to write at
+     * @return the position after the written timestamp
+     */
+    public static int format(long epochSecond, byte[] buffer, int position) {
+        long shiftedDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY) + 719468;
+        int secondOfDay = Math.floorMod(epochSecond, SECONDS_PER_DAY);
+        long era = Math.floorDiv(shiftedDay, 146097);
+        int dayOfEra = (int) (shiftedDay - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = (int) (yearOfEra + era * 400) + (month <= 2 ? 1 : 0);
+
+        formatTwoDigits(day, buffer, position);
+        buffer[position + 2] = '-';
+        formatTwoDigits(month, buffer, position + 3);
+        buffer[position + 5] = '-';
+        formatTwoDigits(year / 100, buffer, position + 6);
+        formatTwoDigits(year % 100, buffer, position + 8);
+        buffer[position + 10] = ' ';
+        formatTwoDigits(secondOfDay / SECONDS_PER_HOUR, buffer, position + 11);
+        buffer[position + 13] = ':';
+        formatTwoDigits(secondOfDay / SECONDS_PER_MINUTE % 60, buffer, position + 14);
+        buffer[position + 16] = ':';
+        formatTwoDigits(secondOfDay % SECONDS_PER_MINUTE, buffer, position + 17);
+        return position + TIMESTAMP_LENGTH;
+    }
+
+    /**
+     * Converts a calendar date into the number of days since 01-01-1970 in the proleptic Gregorian calendar.
+     *
+     * @param year the year
+     * @param month the month in the range 1 to 12
+     * @param day the day of month
+     * @return the number of days since 01-01-1970
+     */
+    public static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Decodes the canonical characters of a timestamp.
+     * Anything following the 19 canonical characters is ignored, as long as it does not extend the seconds field.
+     * Fields out of their natural range are left to the lenient fallback, which rolls them over.
+     *
+     * @return the number of seconds since 01-01-1970 00:00:00, or {@link #NOT_CANONICAL} if the timestamp is not canonical
+     */
+    private static long decode(char d1, char d2, char s1, char m1, char m2, char s2,
+                               char y1, char y2, char y3, char y4, char s3,
+                               char h1, char h2, char s4, char n1, char n2, char s5, char c1, char c2) {
+        if (s1 != '-' || s2 != '-' || s3 != ' ' || s4 != ':' || s5 != ':') {
+            return NOT_CANONICAL;
+        }
+        int day = twoDigits(d1, d2);
+        int month = twoDigits(m1, m2);
+        int century = twoDigits(y1, y2);
+        int yearOfCentury = twoDigits(y3, y4);
+        int hour = twoDigits(h1, h2);
+        int minute = twoDigits(n1, n2);
+        int second = twoDigits(c1, c2);
+        if ((day | month | century | yearOfCentury | hour | minute | second) < 0) {
+            return NOT_CANONICAL;
+        }
+        return toEpochSecond(day, month, century, yearOfCentury, hour, minute, second);
+    }
+
+    /**
+     * Decodes the canonical bytes of a timestamp loaded as little endian words, so the first byte of a word
+     * is its lowest byte. The separators are compared at once, the digits are validated at once by checking
+     * that no byte minus {@code '0'} is negative or exceeds 9, after the separators are replaced by {@code '0'}.
+     *
+     * @param dateWord the bytes 0 to 7, {@code dd-MM-yy}
+     * @param yearTimeWord the bytes 8 to 15, {@code yy HH:mm}
+     * @param timeWord the bytes 11 to 18, {@code HH:mm:ss}
+     * @return the number of seconds since 01-01-1970 00:00:00, or {@link #NOT_CANONICAL} if the timestamp is not canonical
+     */
+    private static long decode(long dateWord, long yearTimeWord, long timeWord) {
+        if ((dateWord & SEPARATOR_BYTES) != DATE_SEPARATORS
+                || (yearTimeWord & SEPARATOR_BYTES) != YEAR_TIME_SEPARATORS
+                || (timeWord & SEPARATOR_BYTES) != TIME_SEPARATORS) {
+            return NOT_CANONICAL;
+        }
+        long date = digits(dateWord);
+        long yearTime = digits(yearTimeWord);
+        long time = digits(timeWord);
+        if ((date | yearTime | time) < 0) {
+            return NOT_CANONICAL;
+        }
+        return toEpochSecond(twoDigits(date, 0), twoDigits(date, 3), twoDigits(date, 6), twoDigits(yearTime, 0),
+                twoDigits(yearTime, 3), twoDigits(yearTime, 6), twoDigits(time, 6));
+    }
+
+    /**
+     * Converts the bytes of a word other than the separators from digits into their values.
+     *
+     * @param word the word, with separators in bytes 2 and 5
+     * @return the values of the digits, one per byte, or -1 if any other byte is not a digit
+     */
+    private static long digits(long word) {
+        long values = ((word & ~SEPARATOR_BYTES) | (ZERO_DIGITS & SEPARATOR_BYTES)) - ZERO_DIGITS;
+        return ((values | (values + ABOVE_NINE)) & HIGH_BITS) == 0 ? values : -1;
+    }
+
+    /**
+     * Decodes the two digit number of two consecutive bytes of a word of digit values.
+     *
+     * @param values the digit values
+     * @param index the index of the byte holding the tens
+     * @return the decoded number
+     */
+    private static int twoDigits(long values, int index) {
+        return (int) (values >>> (index * Byte.SIZE) & 0xFF) * 10 + (int) (values >>> ((index + 1) * Byte.SIZE) & 0xFF);
+    }
+
+    /**
+     * Converts the decoded fields of a canonical timestamp into wall clock epoch seconds.
+     *
+     * @return the number of seconds since 01-01-1970 00:00:00, or {@link #NOT_CANONICAL} if a field is out of range
+     */
+    private static long toEpochSecond(int day, int month, int century, int yearOfCentury, int hour, int minute,
+                                      int second) {
+        int year = century * 100 + yearOfCentury;
+        if (year < MIN_FAST_PATH_YEAR
+                || month < 1 || month > 12
+                || day < 1 || day > daysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return NOT_CANONICAL;
+        }
+        return epochDay(year, month, day) * SECONDS_PER_DAY
+                + (long) hour * SECONDS_PER_HOUR
+                + (long) minute * SECONDS_PER_MINUTE
+                + second;
+    }
+
+    /**
+     * Decodes two decimal digits.
+     *
+     * @return the decoded number, or a negative number if any of the characters is not a digit
+     */
+    private static int twoDigits(char tens, char units) {
+        if (!isDigit(tens) || !isDigit(units)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (units - '0');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2 && (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0))) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month - 1];
+    }
+
+    /**
+     * Parses a non-canonical timestamp using a lenient date format evaluated on the wall clock.
+     *
+     * @param dateString The date string to be parsed.
+     * @return the number of seconds since 01-01-1970 00:00:00
+     * @throws ParseException If the parsing fails.
+     */
+    private static long parseLenient(String dateString) throws ParseException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+        dateFormat.setTimeZone(WALL_CLOCK);
+        return Math.floorDiv(dateFormat.parse(dateString).getTime(), 1000L);
+    }
+
+    private static void formatTwoDigits(int value, byte[] buffer, int position) {
+        buffer[position] = (byte) ('0' + value / 10);
+        buffer[position + 1] = (byte) ('0' + value % 10);
+    }
+}
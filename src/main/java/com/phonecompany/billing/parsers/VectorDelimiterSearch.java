@@ -0,0 +1,44 @@
+package com.phonecompany.billing.parsers;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Delimiter search comparing a whole vector of bytes at a time with the incubating Vector API.
+ * It is compiled only by the {@code vector} profile and loaded only if the {@code jdk.incubator.vector} module
+ * is present at run time. Vectors are loaded from the backing array, so buffers without one, e.g. memory mapped
+ * files, are left to the SWAR search.
+ */
+final class VectorDelimiterSearch implements DelimiterSearch {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private final DelimiterSearch fallback;
+
+    /**
+     * Creates the search.
+     *
+     * @param fallback the search used for buffers without a backing array and for the tail of a range
+     */
+    VectorDelimiterSearch(DelimiterSearch fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public int indexOf(ByteBuffer buffer, int from, int to, byte delimiter) {
+        if (!buffer.hasArray()) {
+            return fallback.indexOf(buffer, from, to, delimiter);
+        }
+        byte[] bytes = buffer.array();
+        int offset = buffer.arrayOffset();
+        int i = from;
+        for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+            long matches = ByteVector.fromArray(SPECIES, bytes, offset + i).eq(delimiter).toLong();
+            if (matches != 0) {
+                return i + Long.numberOfTrailingZeros(matches);
+            }
+        }
+        return fallback.indexOf(buffer, i, to, delimiter);
+    }
+}
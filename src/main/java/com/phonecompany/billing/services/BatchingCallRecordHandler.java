@@ -0,0 +1,50 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.domain.entities.CallRecordBatch;
+import com.phonecompany.billing.parsers.CallRecordHandler;
+
+/**
+ * Collects parsed calls into a fixed size columnar batch and rates the batch into a bill whenever it is full.
+ * {@link #flush()} has to be called once parsing is finished to rate the remaining calls.
+ */
+class BatchingCallRecordHandler implements CallRecordHandler {
+    static final int BATCH_SIZE = 4096;
+
+    private final CallRecordBatch batch = new CallRecordBatch(BATCH_SIZE);
+    private final BillAccumulator bill;
+    private final FixedPointCostEngine costEngine;
+
+    /**
+     * Creates a handler rating calls into the given bill.
+     *
+     * @param bill the bill to add the rated calls to
+     * @param costEngine the engine used to rate calls
+     */
+    BatchingCallRecordHandler(BillAccumulator bill, FixedPointCostEngine costEngine) {
+        this.bill = bill;
+        this.costEngine = costEngine;
+    }
+
+    @Override
+    public void onCall(long phoneNumber, long startTime, long endTime) {
+        batch.add(phoneNumber, startTime, endTime);
+        if (batch.isFull()) {
+            flush();
+        }
+    }
+
+    /**
+     * Rates all collected calls into the bill.
+     */
+    void flush() {
+        bill.addCalls(batch, costEngine);
+        batch.clear();
+    }
+
+    /**
+     * Drops all collected calls without rating them.
+     */
+    void discard() {
+        batch.clear();
+    }
+}
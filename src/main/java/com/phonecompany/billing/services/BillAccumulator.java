@@ -0,0 +1,131 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.collections.LongTallyMap;
+import com.phonecompany.billing.domain.entities.CallRecordBatch;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+
+/**
+ * Single-pass bill engine.
+ * Every rated call is added to the running total and to the count and cost subtotal of its phone number.
+ * The calls to the most frequent phone number are free, which is accounted for by subtracting that number's
+ * subtotal once all calls are known, so no call record has to be retained.
+ * Phone numbers are identified by their {@link PhoneNumberCodec} codes and aggregated in a primitive map.
+ */
+public class BillAccumulator {
+    private final PhoneNumberCodec phoneNumberCodec;
+    private final LongTallyMap phoneNumberTallies = new LongTallyMap();
+    private long totalCost;
+
+    /**
+     * Creates an empty bill.
+     *
+     * @param phoneNumberCodec the codec which encoded the phone numbers of the added calls
+     */
+    public BillAccumulator(PhoneNumberCodec phoneNumberCodec) {
+        this.phoneNumberCodec = phoneNumberCodec;
+    }
+
+    /**
+     * Adds a single rated call to the bill.
+     *
+     * @param phoneNumber the code of the called phone number
+     * @param callCost the cost of the call in minor units
+     * @throws ArithmeticException if the total cost overflows
+     */
+    public void addCall(long phoneNumber, long callCost) {
+        phoneNumberTallies.add(phoneNumber, 1, callCost);
+        totalCost = Math.addExact(totalCost, callCost);
+    }
+
+    /**
+     * Rates all calls of the given batch and adds them to the bill.
+     *
+     * @param batch the batch of calls
+     * @param costEngine the engine used to rate the calls
+     * @throws ArithmeticException if the total cost overflows
+     */
+    public void addCalls(CallRecordBatch batch, FixedPointCostEngine costEngine) {
+        for (int i = 0; i < batch.size(); i++) {
+            addCall(batch.getPhoneNumber(i), costEngine.calculateCallCost(batch.getStartTime(i), batch.getEndTime(i)));
+        }
+    }
+
+    /**
+     * Adds all calls of another bill to this bill.
+     * Both bills have to use the same phone number codec.
+     *
+     * @param other the bill to be merged into this one
+     * @return this bill
+     * @throws ArithmeticException if the total cost overflows
+     */
+    public BillAccumulator merge(BillAccumulator other) {
+        phoneNumberTallies.addAll(other.phoneNumberTallies);
+        totalCost = Math.addExact(totalCost, other.totalCost);
+        return this;
+    }
+
+    /**
+     * Removes all calls from the bill, keeping the allocated capacity, so the bill can be reused for another phone log.
+     */
+    public void clear() {
+        phoneNumberTallies.clear();
+        totalCost = 0;
+    }
+
+    /**
+     * Returns the number of distinct phone numbers called.
+     *
+     * @return the number of distinct phone numbers
+     */
+    public int getPhoneNumberCount() {
+        return phoneNumberTallies.size();
+    }
+
+    /**
+     * Returns the cost of all calls to the given phone number.
+     *
+     * @param phoneNumber the code of the phone number
+     * @return the cost in minor units, zero if the phone number was not called
+     */
+    public long getPhoneNumberCost(long phoneNumber) {
+        return phoneNumberTallies.getSum(phoneNumber);
+    }
+
+    public PhoneNumberCodec getPhoneNumberCodec() {
+        return phoneNumberCodec;
+    }
+
+    /**
+     * Finds the phone number whose calls are free, i.e. the most frequent one.
+     * If more phone numbers share the highest count, the maximum of them is chosen.
+     * Must not be called on an empty bill.
+     *
+     * @return the code of the most frequent phone number
+     */
+    public long getMostFrequentPhoneNumber() {
+        MostFrequentPhoneNumber mostFrequent = new MostFrequentPhoneNumber(phoneNumberCodec);
+        phoneNumberTallies.forEach(mostFrequent);
+        return mostFrequent.getPhoneNumber();
+    }
+
+    /**
+     * Returns the total cost of all calls, including the ones to the most frequent phone number.
+     *
+     * @return the total cost in minor units
+     */
+    public long getGrossCost() {
+        return totalCost;
+    }
+
+    /**
+     * Calculates the total cost of all calls except the free ones to the most frequent phone number.
+     *
+     * @return the total cost in minor units
+     */
+    public long getTotalCost() {
+        if (phoneNumberTallies.size() == 0) {
+            return 0;
+        }
+        return totalCost - getPhoneNumberCost(getMostFrequentPhoneNumber());
+    }
+}
@@ -0,0 +1,85 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.parsers.RejectedLineException;
+import com.phonecompany.billing.parsers.RejectionCounter;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs bill calculations with the failure handling shared by all calculators: a line rejected by a strict
+ * {@link RejectionPolicy} aborts the calculation with a {@link RejectedLineException}, while any other failure
+ * is logged and turns the result into the given failed result, e.g. a zero bill.
+ */
+final class BillCalculation {
+    static final String FAILURE_MESSAGE = "Error occurred while calculating phone bill.";
+
+    /**
+     * The work of a calculation.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface Body<T> {
+        T calculate() throws Exception;
+    }
+
+    /**
+     * The work of a calculation which counts its rejected lines.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface RejectingBody<T> {
+        T calculate(RejectionCounter rejections) throws Exception;
+    }
+
+    private BillCalculation() {
+    }
+
+    /**
+     * Runs the given calculation, logging any failure other than a rejected line.
+     *
+     * @param logger the logger of the calculator
+     * @param failureMessage the message logged with a failure
+     * @param failedResult the result returned if the calculation fails
+     * @param calculation the calculation
+     * @param <T> the type of the result
+     * @return the result of the calculation, or the failed result if it fails
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    static <T> T run(Logger logger, String failureMessage, T failedResult, Body<T> calculation) {
+        try {
+            return calculation.calculate();
+        } catch (RejectedLineException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, failureMessage, e);
+            return failedResult;
+        }
+    }
+
+    /**
+     * Runs the given calculation with a new counter of rejected lines opened from the policy,
+     * which is completed once the calculation ends, whether it succeeds or not.
+     *
+     * @param logger the logger of the calculator
+     * @param failureMessage the message logged with a failure
+     * @param failedResult the result returned if the calculation fails
+     * @param rejectionPolicy the policy opening the counter of rejected lines
+     * @param calculation the calculation
+     * @param <T> the type of the result
+     * @return the result of the calculation, or the failed result if it fails
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    static <T> T run(Logger logger, String failureMessage, T failedResult, RejectionPolicy rejectionPolicy,
+                     RejectingBody<T> calculation) {
+        RejectionCounter rejections = rejectionPolicy.open();
+        try {
+            return run(logger, failureMessage, failedResult, () -> calculation.calculate(rejections));
+        } finally {
+            rejections.complete();
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.TelephoneBillCalculator;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs many independent bill calculations concurrently, every job on its own thread.
+ * On Java 21 and newer the jobs run on virtual threads, so thousands of jobs waiting for their phone logs
+ * to be read from disk cost almost nothing and their I/O overlaps with the rating done by other jobs;
+ * on older runtimes platform threads are used instead.
+ * At most the given number of jobs run at once. Submitting a job blocks while that many jobs are running,
+ * so a producer cannot queue up more work than the executor can handle.
+ * A job running longer than the timeout has its future completed with a {@link TimeoutException}
+ * and its thread interrupted, which stops reading its phone log; the job keeps its slot until its thread ends.
+ */
+public class BillingExecutor implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(BillingExecutor.class.getName());
+
+    private final TelephoneBillCalculator calculator;
+    private final int maxConcurrentJobs;
+    private final Duration jobTimeout;
+    private final Semaphore runningJobs;
+    private volatile boolean closed;
+    private final ThreadFactory jobThreadFactory = createJobThreadFactory();
+    private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "billing-executor-timeouts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates an executor.
+     *
+     * @param calculator the calculator shared by all jobs
+     * @param maxConcurrentJobs the maximum number of jobs running at once
+     * @param jobTimeout the maximum duration of a single job
+     */
+    public BillingExecutor(TelephoneBillCalculator calculator, int maxConcurrentJobs, Duration jobTimeout) {
+        if (maxConcurrentJobs < 1 || jobTimeout.isNegative() || jobTimeout.isZero()) {
+            throw new IllegalArgumentException("Invalid billing executor limits: " + maxConcurrentJobs
+                    + " concurrent jobs, timeout " + jobTimeout);
+        }
+        this.calculator = calculator;
+        this.maxConcurrentJobs = maxConcurrentJobs;
+        this.jobTimeout = jobTimeout;
+        this.runningJobs = new Semaphore(maxConcurrentJobs);
+    }
+
+    /**
+     * Submits the calculation of a phone log stored in a file, blocking while the maximum number of jobs is running.
+     *
+     * @param phoneLog the path of a file containing the phone log
+     * @return the future total cost of phone calls
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     * @throws IllegalStateException if the executor is closed
+     */
+    public CompletableFuture<BigDecimal> submit(Path phoneLog) throws InterruptedException {
+        return submit(calculator -> calculator.calculate(phoneLog));
+    }
+
+    /**
+     * Submits the calculation of a phone log, blocking while the maximum number of jobs is running.
+     *
+     * @param phoneLog a string containing the phone log
+     * @return the future total cost of phone calls
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     * @throws IllegalStateException if the executor is closed
+     */
+    public CompletableFuture<BigDecimal> submit(String phoneLog) throws InterruptedException {
+        return submit(calculator -> calculator.calculate(phoneLog));
+    }
+
+    /**
+     * Submits the calculation of all phone logs stored in the given files, in their order.
+     * Submitting blocks whenever the maximum number of jobs is running.
+     *
+     * @param phoneLogs the paths of files containing the phone logs
+     * @return the future total costs, in the order of the files
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     * @throws IllegalStateException if the executor is closed
+     */
+    public List<CompletableFuture<BigDecimal>> submitAll(Iterable<Path> phoneLogs) throws InterruptedException {
+        List<CompletableFuture<BigDecimal>> totalCosts = new ArrayList<>();
+        for (Path phoneLog : phoneLogs) {
+            totalCosts.add(submit(phoneLog));
+        }
+        return totalCosts;
+    }
+
+    /**
+     * Submits a job using the shared calculator, blocking while the maximum number of jobs is running.
+     *
+     * @param job the job to be run
+     * @return the future result of the job
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     * @throws IllegalStateException if the executor is closed, also while waiting for a free slot
+     */
+    public CompletableFuture<BigDecimal> submit(Function<TelephoneBillCalculator, BigDecimal> job)
+            throws InterruptedException {
+        checkNotClosed();
+        runningJobs.acquire();
+        if (closed) {
+            runningJobs.release();
+            checkNotClosed();
+        }
+        CompletableFuture<BigDecimal> totalCost = new CompletableFuture<>();
+        try {
+            Thread thread = jobThreadFactory.newThread(() -> runJob(job, totalCost));
+            ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+                if (totalCost.completeExceptionally(new TimeoutException("Bill calculation exceeded " + jobTimeout + "."))) {
+                    thread.interrupt();
+                }
+            }, jobTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            totalCost.whenComplete((result, error) -> timeout.cancel(false));
+            thread.start();
+        } catch (RuntimeException | Error e) {
+            runningJobs.release();
+            throw e;
+        }
+        return totalCost;
+    }
+
+    /**
+     * Stops accepting jobs, waits for all running jobs to finish and stops the executor.
+     * Submitting a job afterwards, or still waiting for a free slot, fails with an {@link IllegalStateException}.
+     * If the calling thread is interrupted while waiting, the executor stops without waiting for the running jobs
+     * and the interrupt status of the thread is restored.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            runningJobs.acquire(maxConcurrentJobs);
+            runningJobs.release(maxConcurrentJobs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            timeoutScheduler.shutdownNow();
+        }
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("The billing executor is closed.");
+        }
+    }
+
+    /**
+     * Runs a job on the current thread, completing its future and releasing its slot afterwards.
+     *
+     * @param job the job to be run
+     * @param totalCost the future result of the job
+     */
+    private void runJob(Function<TelephoneBillCalculator, BigDecimal> job, CompletableFuture<BigDecimal> totalCost) {
+        try {
+            totalCost.complete(job.apply(calculator));
+        } catch (Throwable e) {
+            totalCost.completeExceptionally(e);
+        } finally {
+            runningJobs.release();
+        }
+    }
+
+    /**
+     * Creates a factory of virtual threads if the runtime supports them, otherwise of platform daemon threads.
+     * The virtual thread builder is looked up reflectively, so the class still runs on Java 17.
+     *
+     * @return the factory of job threads
+     */
+    private static ThreadFactory createJobThreadFactory() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "billing-job-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            logger.log(Level.FINE, "Virtual threads are not available, bills are calculated on platform threads.");
+            return runnable -> {
+                Thread thread = new Thread(runnable, "billing-job");
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.domain.entities.BillTable;
+import com.phonecompany.billing.domain.entities.SubscriberLog;
+import com.phonecompany.billing.parsers.RejectedLineException;
+import com.phonecompany.billing.parsers.RejectionCounter;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+import com.phonecompany.billing.parsers.RejectionReason;
+import com.phonecompany.billing.parsers.TimestampParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Calculates the bills of many subscribers in one sweep.
+ * A single {@link ScratchArena} is reused for all subscribers, and lines are parsed in place
+ * without splitting them, so billing a subscriber costs no setup and, apart from new phone numbers, no allocation.
+ * Every bill is calculated exactly as {@link TelephoneBillCalculatorImpl} would calculate it: invalid lines are
+ * skipped and a subscriber whose log contains an unparsable date gets a zero bill. Rejected lines are handled
+ * by a {@link RejectionPolicy}; a strict policy aborts the whole sweep with a {@link RejectedLineException}.
+ * An instance is not thread safe, as it owns the reused scratch state.
+ */
+public class BulkBillCalculator {
+    private static final Logger logger = Logger.getLogger(BulkBillCalculator.class.getName());
+
+    private final FixedPointCostEngine costEngine;
+    private final RejectionPolicy rejectionPolicy;
+    private final ScratchArena arena;
+
+    /**
+     * Creates a bulk calculator rating calls with the default cost engine.
+     */
+    public BulkBillCalculator() {
+        this(new FixedPointCostEngine());
+    }
+
+    /**
+     * Creates a bulk calculator rating calls with the given cost engine.
+     *
+     * @param costEngine the engine used to rate calls
+     */
+    public BulkBillCalculator(FixedPointCostEngine costEngine) {
+        this(costEngine, RejectionPolicy.defaultPolicy());
+    }
+
+    /**
+     * Creates a bulk calculator rating calls with the given cost engine and handling rejected lines by the given policy.
+     *
+     * @param costEngine the engine used to rate calls
+     * @param rejectionPolicy the policy deciding how rejected lines are reported
+     */
+    public BulkBillCalculator(FixedPointCostEngine costEngine, RejectionPolicy rejectionPolicy) {
+        this.costEngine = costEngine;
+        this.rejectionPolicy = rejectionPolicy;
+        this.arena = new ScratchArena(costEngine);
+    }
+
+    /**
+     * Calculates the bills of the given subscriber logs.
+     * Rejected lines are counted per subscriber log and numbered within it.
+     *
+     * @param subscriberLogs the phone logs of the subscribers
+     * @return the bills in the order of the subscriber logs
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    public BillTable calculate(Stream<SubscriberLog> subscriberLogs) {
+        BillTable bills = new BillTable(costEngine.getScale());
+        Iterator<SubscriberLog> iterator = subscriberLogs.iterator();
+        while (iterator.hasNext()) {
+            SubscriberLog subscriberLog = iterator.next();
+            String phoneLog = subscriberLog.getPhoneLog();
+            long totalCost;
+            try {
+                totalCost = BillCalculation.run(logger, getFailureMessage(subscriberLog.getSubscriberId()), 0L,
+                        rejectionPolicy, rejections -> {
+                            long lineNumber = 0;
+                            int lineStart = 0;
+                            while (lineStart < phoneLog.length()) {
+                                int lineEnd = phoneLog.indexOf('\n', lineStart);
+                                if (lineEnd < 0) {
+                                    lineEnd = phoneLog.length();
+                                }
+                                addCallRecord(phoneLog, lineStart, lineEnd, ++lineNumber, rejections);
+                                lineStart = lineEnd + 1;
+                            }
+                            return costEngine.calculateTotalCost(arena.getBill());
+                        });
+            } finally {
+                arena.reset();
+            }
+            bills.add(subscriberLog.getSubscriberId(), totalCost);
+        }
+        return bills;
+    }
+
+    /**
+     * Calculates the bills of all subscribers of a combined phone log stored in the given file.
+     *
+     * @param combinedLog the path of a file containing the combined phone log
+     * @return the bills in the order the subscribers appear in the combined log
+     * @throws IOException if the combined log cannot be read
+     * @see #calculateCombined(Reader)
+     */
+    public BillTable calculateCombined(Path combinedLog) throws IOException {
+        try (Reader reader = Files.newBufferedReader(combinedLog, StandardCharsets.UTF_8)) {
+            return calculateCombined(reader);
+        }
+    }
+
+    /**
+     * Calculates the bills of all subscribers of a combined phone log.
+     * Every line of the combined log holds the id of the subscriber followed by a call record of the subscriber's
+     * phone log. The lines have to be grouped by subscriber, e.g. sorted, as the bill of a subscriber is finished
+     * as soon as a line of another subscriber is read. The reader is not closed by this method.
+     *
+     * @param combinedLog a reader providing the combined phone log
+     * @return the bills in the order the subscribers appear in the combined log
+     * @throws IOException if the combined log cannot be read
+     * @throws IllegalArgumentException if the lines of a subscriber are not grouped together
+     * @throws RejectedLineException if a line is rejected by a strict policy
+     */
+    public BillTable calculateCombined(Reader combinedLog) throws IOException {
+        BillTable bills = new BillTable(costEngine.getScale());
+        Set<String> billedSubscribers = new HashSet<>();
+        BufferedReader reader = combinedLog instanceof BufferedReader
+                ? (BufferedReader) combinedLog
+                : new BufferedReader(combinedLog);
+        RejectionCounter rejections = rejectionPolicy.open();
+        String subscriberId = null;
+        String failureMessage = null;
+        boolean failed = false;
+
+        try {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int subscriberEnd = line.indexOf(',');
+                if (subscriberEnd < 0) {
+                    rejections.reject(lineNumber, RejectionReason.INVALID_FIELD_COUNT);
+                    continue;
+                }
+                if (subscriberId == null || !line.startsWith(subscriberId) || subscriberEnd != subscriberId.length()) {
+                    if (subscriberId != null) {
+                        bills.add(subscriberId, failed ? 0 : costEngine.calculateTotalCost(arena.getBill()));
+                        arena.reset();
+                    }
+                    subscriberId = line.substring(0, subscriberEnd);
+                    failureMessage = getFailureMessage(subscriberId);
+                    failed = false;
+                    if (!billedSubscribers.add(subscriberId)) {
+                        throw new IllegalArgumentException("Combined phone log is not grouped by subscriber, "
+                                + subscriberId + " appears again.");
+                    }
+                }
+                if (failed) {
+                    continue;
+                }
+                String callRecord = line;
+                long callRecordLineNumber = lineNumber;
+                failed = !BillCalculation.run(logger, failureMessage, false, () -> {
+                    addCallRecord(callRecord, subscriberEnd + 1, callRecord.length(), callRecordLineNumber, rejections);
+                    return true;
+                });
+            }
+            if (subscriberId != null) {
+                bills.add(subscriberId, failed ? 0 : costEngine.calculateTotalCost(arena.getBill()));
+            }
+        } finally {
+            rejections.complete();
+            arena.reset();
+        }
+        return bills;
+    }
+
+    /**
+     * Returns the message logged when the bill of the given subscriber fails.
+     *
+     * @param subscriberId the id of the subscriber
+     * @return the failure message
+     */
+    private static String getFailureMessage(String subscriberId) {
+        return "Error occurred while calculating phone bill of subscriber " + subscriberId + ".";
+    }
+
+    /**
+     * Parses the call record stored in the given range of a line and adds the rated call to the bill.
+     * As with {@link String#split(String)}, trailing empty fields are ignored.
+     *
+     * @param text the text containing the line
+     * @param from the index of the first character of the call record
+     * @param to the index after the last character of the line, excluding the line feed
+     * @param lineNumber the number of the line
+     * @param rejections the counter of rejected lines
+     * @throws ParseException if a date of the call record cannot be parsed
+     */
+    private void addCallRecord(String text, int from, int to, long lineNumber, RejectionCounter rejections)
+            throws ParseException {
+        int end = to;
+        if (end > from && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        while (end > from && text.charAt(end - 1) == ',') {
+            end--;
+        }
+        int firstSeparator = text.indexOf(',', from);
+        int secondSeparator = firstSeparator < 0 || firstSeparator >= end ? -1 : text.indexOf(',', firstSeparator + 1);
+        if (secondSeparator < 0 || secondSeparator >= end || text.lastIndexOf(',', end - 1) != secondSeparator) {
+            rejections.reject(lineNumber, RejectionReason.INVALID_FIELD_COUNT);
+            return;
+        }
+        long phoneNumber = arena.getPhoneNumberCodec().encode(text, from, firstSeparator);
+        long startTime;
+        long endTime;
+        try {
+            startTime = TimestampParser.parseEpochSecond(text, firstSeparator + 1, secondSeparator);
+            endTime = TimestampParser.parseEpochSecond(text, secondSeparator + 1, end);
+        } catch (ParseException e) {
+            rejections.reject(lineNumber, RejectionReason.UNPARSABLE_TIMESTAMP);
+            throw e;
+        }
+        arena.getBill().addCall(phoneNumber, costEngine.calculateCallCost(startTime, endTime));
+    }
+}
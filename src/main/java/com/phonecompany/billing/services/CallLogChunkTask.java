@@ -0,0 +1,87 @@
+package com.phonecompany.billing.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.ParseException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join task accumulating the bill of a range of phone log chunks.
+ * The range is split in halves until a single chunk remains, and the bills of both halves are merged.
+ */
+class CallLogChunkTask extends RecursiveTask<BillAccumulator> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Accumulates the bill of a single chunk of a phone log.
+     */
+    @FunctionalInterface
+    interface ChunkSummarizer {
+        BillAccumulator summarize(long from, long to) throws IOException, ParseException;
+    }
+
+    private final long[] boundaries;
+    private final int firstChunk;
+    private final int lastChunk;
+    private final ChunkSummarizer summarizer;
+
+    /**
+     * Creates a task summarizing all chunks delimited by the given boundaries.
+     *
+     * @param boundaries the chunk boundaries, see {@link com.phonecompany.billing.parsers.CallLogChunker}
+     * @param summarizer the summarizer of a single chunk
+     */
+    CallLogChunkTask(long[] boundaries, ChunkSummarizer summarizer) {
+        this(boundaries, 0, boundaries.length - 1, summarizer);
+    }
+
+    private CallLogChunkTask(long[] boundaries, int firstChunk, int lastChunk, ChunkSummarizer summarizer) {
+        this.boundaries = boundaries;
+        this.firstChunk = firstChunk;
+        this.lastChunk = lastChunk;
+        this.summarizer = summarizer;
+    }
+
+    @Override
+    protected BillAccumulator compute() {
+        if (lastChunk - firstChunk == 1) {
+            return summarizeChunk();
+        }
+        int middleChunk = (firstChunk + lastChunk) >>> 1;
+        CallLogChunkTask left = new CallLogChunkTask(boundaries, firstChunk, middleChunk, summarizer);
+        CallLogChunkTask right = new CallLogChunkTask(boundaries, middleChunk, lastChunk, summarizer);
+        left.fork();
+        BillAccumulator rightBill = right.compute();
+        return merge(left.join(), rightBill);
+    }
+
+    /**
+     * Accumulates the bill of the only chunk of this task.
+     *
+     * @return the bill of the chunk
+     */
+    private BillAccumulator summarizeChunk() {
+        try {
+            return summarizer.summarize(boundaries[firstChunk], boundaries[lastChunk]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Merges two bills, reusing the one with more phone numbers.
+     *
+     * @param first the first bill
+     * @param second the second bill
+     * @return the merged bill
+     */
+    private static BillAccumulator merge(BillAccumulator first, BillAccumulator second) {
+        if (first.getPhoneNumberCount() >= second.getPhoneNumberCount()) {
+            return first.merge(second);
+        }
+        return second.merge(first);
+    }
+}
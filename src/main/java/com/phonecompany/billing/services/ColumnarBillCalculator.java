@@ -0,0 +1,70 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.parsers.CallStoreQuery;
+import com.phonecompany.billing.parsers.ColumnarCallStoreReader;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+/**
+ * Calculator billing the calls of a columnar call store written by
+ * {@link com.phonecompany.billing.parsers.ColumnarCallStoreWriter}, either all of them or only those selected by a
+ * {@link CallStoreQuery}, e.g. the calls of a billing period or the calls to some phone numbers. The most frequent
+ * phone number is chosen among the selected calls only. Blocks which cannot contain selected calls are skipped by
+ * their statistics, so a narrow query over a long history reads only a small part of the store.
+ * Any failure is logged and results in a zero bill. Instances are thread safe.
+ */
+public class ColumnarBillCalculator {
+    private static final Logger logger = Logger.getLogger(ColumnarBillCalculator.class.getName());
+
+    private final FixedPointCostEngine costEngine;
+
+    /**
+     * Creates a calculator rating calls with the default tariff.
+     */
+    public ColumnarBillCalculator() {
+        this(new FixedPointCostEngine());
+    }
+
+    /**
+     * Creates a calculator rating calls with the given cost engine.
+     *
+     * @param costEngine the engine used to rate calls
+     */
+    public ColumnarBillCalculator(FixedPointCostEngine costEngine) {
+        this.costEngine = costEngine;
+    }
+
+    /**
+     * Calculates the total cost of all phone calls of the given call store.
+     *
+     * @param store the path of the call store
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    public BigDecimal calculate(Path store) {
+        return calculate(store, CallStoreQuery.all());
+    }
+
+    /**
+     * Calculates the total cost of the phone calls of the given call store selected by the query.
+     *
+     * @param store the path of the call store
+     * @param query the query selecting the calls
+     * @return the total cost of the selected phone calls as a BigDecimal
+     */
+    public BigDecimal calculate(Path store, CallStoreQuery query) {
+        return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, () -> {
+            PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+            BillAccumulator bill = new BillAccumulator(phoneNumberCodec);
+            BatchingCallRecordHandler handler = new BatchingCallRecordHandler(bill, costEngine);
+            new ColumnarCallStoreReader(phoneNumberCodec).read(store, query, handler);
+            handler.flush();
+            if (bill.getPhoneNumberCount() == 0) {
+                return BigDecimal.ZERO;
+            }
+            return costEngine.toAmount(costEngine.calculateTotalCost(bill));
+        });
+    }
+}
@@ -0,0 +1,175 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.domain.entities.TariffBand;
+import com.phonecompany.billing.domain.entities.TariffPlan;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tariff plan compiled into a flat table with the rate of every minute of the week in minor units,
+ * so rating a minute is a single array lookup instead of evaluating the bands of the plan.
+ * Besides the rates, the table keeps their cumulative sums from Monday midnight on, so the cost of any span of
+ * consecutive minutes, wrapping around the end of the week, is two lookups and a subtraction plus the cost of the
+ * whole weeks it covers, no matter how long the span is.
+ * The table is immutable and may be shared by any number of threads.
+ */
+public final class CompiledTariff {
+    public static final int MINUTES_PER_WEEK = 7 * TariffBand.MINUTES_PER_DAY;
+    private static final int SECONDS_PER_MINUTE = 60;
+    /**
+     * The epoch, 1970-01-01, was a Thursday, which is minute of week 3 days past Monday midnight.
+     */
+    private static final int EPOCH_MINUTE_OF_WEEK = 3 * TariffBand.MINUTES_PER_DAY;
+
+    private final long[] rates;
+    private final long[] cumulativeRates;
+    private final int[] bands;
+    private final String[] bandNames;
+    private final long longCallMinutes;
+    private final long longCallSurcharge;
+    private final boolean mostFrequentNumberFree;
+
+    private CompiledTariff(long[] rates, long[] cumulativeRates, int[] bands, String[] bandNames, long longCallMinutes,
+                           long longCallSurcharge, boolean mostFrequentNumberFree) {
+        this.rates = rates;
+        this.cumulativeRates = cumulativeRates;
+        this.bands = bands;
+        this.bandNames = bandNames;
+        this.longCallMinutes = longCallMinutes;
+        this.longCallSurcharge = longCallSurcharge;
+        this.mostFrequentNumberFree = mostFrequentNumberFree;
+    }
+
+    /**
+     * Compiles a tariff plan into minor units with the given number of decimal places.
+     *
+     * @param tariffPlan the tariff plan
+     * @param scale the number of decimal places of the minor unit
+     * @return the compiled tariff
+     * @throws IllegalArgumentException if a rate of the plan cannot be expressed in the minor unit,
+     *         or the cost of a whole week overflows
+     */
+    public static CompiledTariff compile(TariffPlan tariffPlan, int scale) {
+        List<String> bandNames = new ArrayList<>();
+        bandNames.add(tariffPlan.getDefaultBandName());
+        long[] rates = new long[MINUTES_PER_WEEK];
+        int[] bands = new int[MINUTES_PER_WEEK];
+        Arrays.fill(rates, toMinorUnits(tariffPlan.getDefaultRate(), scale));
+
+        for (TariffBand band : tariffPlan.getBands()) {
+            int bandIndex = bandNames.indexOf(band.getName());
+            if (bandIndex < 0) {
+                bandIndex = bandNames.size();
+                bandNames.add(band.getName());
+            }
+            long rate = toMinorUnits(band.getRate(), scale);
+            for (DayOfWeek dayOfWeek : band.getDaysOfWeek()) {
+                int dayStart = (dayOfWeek.getValue() - 1) * TariffBand.MINUTES_PER_DAY;
+                for (int minute = dayStart + band.getFromMinuteOfDay(); minute < dayStart + band.getToMinuteOfDay(); minute++) {
+                    rates[minute] = rate;
+                    bands[minute] = bandIndex;
+                }
+            }
+        }
+
+        return new CompiledTariff(rates, calculateCumulativeRates(rates), bands, bandNames.toArray(new String[0]),
+                tariffPlan.getLongCallMinutes(), toMinorUnits(tariffPlan.getLongCallSurcharge(), scale),
+                tariffPlan.isMostFrequentNumberFree());
+    }
+
+    /**
+     * Determines the minute of week of the given time, counted from Monday midnight.
+     *
+     * @param epochSecond the time in wall clock epoch seconds
+     * @return the minute of week, from 0 to {@value #MINUTES_PER_WEEK} exclusive
+     */
+    public static int minuteOfWeek(long epochSecond) {
+        return Math.floorMod(Math.floorDiv(epochSecond, SECONDS_PER_MINUTE) + EPOCH_MINUTE_OF_WEEK, MINUTES_PER_WEEK);
+    }
+
+    /**
+     * Returns the rate of the given minute of week.
+     *
+     * @param minuteOfWeek the minute of week
+     * @return the rate per minute in minor units
+     */
+    public long getRate(int minuteOfWeek) {
+        return rates[minuteOfWeek];
+    }
+
+    /**
+     * Calculates the cost of consecutive minutes, each at the rate of its minute of week.
+     *
+     * @param minuteOfWeek the minute of week of the first minute
+     * @param minutes the number of minutes
+     * @return the cost in minor units
+     * @throws ArithmeticException if the cost overflows
+     */
+    public long getCost(int minuteOfWeek, long minutes) {
+        long weeks = minutes / MINUTES_PER_WEEK;
+        int end = minuteOfWeek + (int) (minutes % MINUTES_PER_WEEK);
+        long cost;
+        if (end <= MINUTES_PER_WEEK) {
+            cost = cumulativeRates[end] - cumulativeRates[minuteOfWeek];
+        } else {
+            cost = cumulativeRates[MINUTES_PER_WEEK] - cumulativeRates[minuteOfWeek] + cumulativeRates[end - MINUTES_PER_WEEK];
+        }
+        if (weeks == 0) {
+            return cost;
+        }
+        return Math.addExact(cost, Math.multiplyExact(cumulativeRates[MINUTES_PER_WEEK], weeks));
+    }
+
+    /**
+     * Returns the name of the band of the given minute of week.
+     *
+     * @param minuteOfWeek the minute of week
+     * @return the name of the band, or the default band name if no band covers the minute
+     */
+    public String getBandName(int minuteOfWeek) {
+        return bandNames[bands[minuteOfWeek]];
+    }
+
+    public long getLongCallMinutes() {
+        return longCallMinutes;
+    }
+
+    public long getLongCallSurcharge() {
+        return longCallSurcharge;
+    }
+
+    public boolean isMostFrequentNumberFree() {
+        return mostFrequentNumberFree;
+    }
+
+    /**
+     * Calculates the cumulative rates, where the i-th value is the cost of the first i minutes of the week.
+     *
+     * @param rates the rates of the minutes of the week
+     * @return the cumulative rates, one more than there are minutes of the week
+     * @throws IllegalArgumentException if the cost of the whole week overflows
+     */
+    private static long[] calculateCumulativeRates(long[] rates) {
+        long[] cumulativeRates = new long[MINUTES_PER_WEEK + 1];
+        try {
+            for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+                cumulativeRates[minute + 1] = Math.addExact(cumulativeRates[minute], rates[minute]);
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("The cost of a whole week of the tariff overflows.", e);
+        }
+        return cumulativeRates;
+    }
+
+    private static long toMinorUnits(BigDecimal amount, int scale) {
+        try {
+            return amount.movePointRight(scale).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Rate " + amount + " cannot be expressed with scale " + scale + ".", e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.domain.entities.TariffPlan;
+import com.phonecompany.billing.domain.enums.RatingMode;
+
+import java.math.BigDecimal;
+
+/**
+ * Cost engine which rates calls in integer minor units of the currency, e.g. hundredths.
+ * All arithmetic is done on {@code long} values, amounts are converted to {@link BigDecimal}
+ * only once the final bill is known. Any overflow is reported by an {@link ArithmeticException}.
+ * The rates come from a {@link TariffPlan}, by default {@link TariffPlan#defaultPlan()}, compiled into
+ * a {@link CompiledTariff} lookup table with the rate of every minute of the week.
+ * By default a call is rated as whole minutes at the rate of the minute it starts in. In the
+ * {@link RatingMode#PER_STARTED_MINUTE} mode every started minute is rated at the rate of the minute it starts in;
+ * the cost of the minutes is looked up from the cumulative rates of the tariff, in constant time for any duration.
+ */
+public class FixedPointCostEngine {
+    public static final int DEFAULT_SCALE = 2;
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    private final int scale;
+    private final RatingMode ratingMode;
+    private final CompiledTariff tariff;
+
+    /**
+     * Creates a cost engine working in hundredths.
+     */
+    public FixedPointCostEngine() {
+        this(DEFAULT_SCALE);
+    }
+
+    /**
+     * Creates a cost engine working in minor units with the given number of decimal places.
+     *
+     * @param scale the number of decimal places of the minor unit
+     * @throws IllegalArgumentException if a billing rate cannot be expressed in the minor unit
+     */
+    public FixedPointCostEngine(int scale) {
+        this(scale, RatingMode.START_HOUR);
+    }
+
+    /**
+     * Creates a cost engine working in minor units with the given number of decimal places and rating mode.
+     *
+     * @param scale the number of decimal places of the minor unit
+     * @param ratingMode the way minutes of a call are rated
+     * @throws IllegalArgumentException if a billing rate cannot be expressed in the minor unit
+     */
+    public FixedPointCostEngine(int scale, RatingMode ratingMode) {
+        this(scale, ratingMode, TariffPlan.defaultPlan());
+    }
+
+    /**
+     * Creates a cost engine rating calls by the given tariff plan.
+     *
+     * @param scale the number of decimal places of the minor unit
+     * @param ratingMode the way minutes of a call are rated
+     * @param tariffPlan the tariff plan
+     * @throws IllegalArgumentException if a rate of the tariff plan cannot be expressed in the minor unit
+     */
+    public FixedPointCostEngine(int scale, RatingMode ratingMode, TariffPlan tariffPlan) {
+        this.scale = scale;
+        this.ratingMode = ratingMode;
+        this.tariff = CompiledTariff.compile(tariffPlan, scale);
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public RatingMode getRatingMode() {
+        return ratingMode;
+    }
+
+    public CompiledTariff getTariff() {
+        return tariff;
+    }
+
+    /**
+     * Calculates the cost of a call in minor units.
+     *
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param endTime the end of the call in wall clock epoch seconds
+     * @return the cost of the call in minor units
+     * @throws ArithmeticException if the cost overflows
+     */
+    public long calculateCallCost(long startTime, long endTime) {
+        long callDurationMinutes = getCallDurationMinutes(startTime, endTime);
+
+        long callCost = calculateDurationCost(startTime, callDurationMinutes);
+
+        return calculateAdditionalCost(callDurationMinutes, callCost);
+    }
+
+    /**
+     * Determines the name of the rate band of a call, in the per minute mode the band of its first minute.
+     *
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @return the name of the tariff band the call starts in
+     */
+    public String getRateBandName(long startTime) {
+        return tariff.getBandName(CompiledTariff.minuteOfWeek(startTime));
+    }
+
+    /**
+     * Calculates the cost of a call at its band rate, without the long call surcharge, in minor units.
+     *
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param endTime the end of the call in wall clock epoch seconds
+     * @return the base cost of the call in minor units
+     * @throws ArithmeticException if the cost overflows
+     */
+    public long calculateBaseCost(long startTime, long endTime) {
+        return calculateDurationCost(startTime, getCallDurationMinutes(startTime, endTime));
+    }
+
+    /**
+     * Calculates the surcharge for the minutes of a call beyond the long call limit in minor units.
+     *
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param endTime the end of the call in wall clock epoch seconds
+     * @return the long call surcharge in minor units, zero for short calls
+     * @throws ArithmeticException if the surcharge overflows
+     */
+    public long calculateLongCallSurcharge(long startTime, long endTime) {
+        return calculateAdditionalCost(getCallDurationMinutes(startTime, endTime), 0);
+    }
+
+    /**
+     * Calculates the total cost of a bill, without the calls to the most frequent phone number
+     * if the tariff plan makes them free.
+     *
+     * @param bill the bill
+     * @return the total cost in minor units
+     */
+    public long calculateTotalCost(BillAccumulator bill) {
+        return tariff.isMostFrequentNumberFree() ? bill.getTotalCost() : bill.getGrossCost();
+    }
+
+    /**
+     * Converts an amount in minor units to a BigDecimal.
+     *
+     * @param minorUnits the amount in minor units
+     * @return the amount as a BigDecimal with the scale of this engine
+     */
+    public BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    /**
+     * Determines the number of rated minutes of a call.
+     *
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param endTime the end of the call in wall clock epoch seconds
+     * @return the whole minutes of the call, or its started minutes in the per minute mode
+     */
+    private long getCallDurationMinutes(long startTime, long endTime) {
+        if (ratingMode == RatingMode.PER_STARTED_MINUTE) {
+            return endTime <= startTime ? 0 : (endTime - startTime - 1) / SECONDS_PER_MINUTE + 1;
+        }
+        return (endTime - startTime) / SECONDS_PER_MINUTE;
+    }
+
+    /**
+     * Calculates the additional cost of a call, if the call duration exceeds the specified limit.
+     *
+     * @param callDurationMinutes the duration of the call in minutes
+     * @param callCost the cost of the call before applying additional charges
+     * @return the adjusted call cost with additional charges, if applicable
+     */
+    private long calculateAdditionalCost(long callDurationMinutes, long callCost) {
+        long longCallMinutes = tariff.getLongCallMinutes();
+        if (callDurationMinutes > longCallMinutes) {
+            return Math.addExact(callCost, Math.multiplyExact(tariff.getLongCallSurcharge(), callDurationMinutes - longCallMinutes));
+        }
+        return callCost;
+    }
+
+    /**
+     * Calculates the cost of a call based on its duration.
+     *
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param callDurationMinutes the duration of the call in minutes
+     * @return the cost of the call
+     */
+    private long calculateDurationCost(long startTime, long callDurationMinutes) {
+        if (ratingMode == RatingMode.PER_STARTED_MINUTE) {
+            return calculatePerMinuteCost(startTime, callDurationMinutes);
+        }
+        return Math.multiplyExact(tariff.getRate(CompiledTariff.minuteOfWeek(startTime)), callDurationMinutes);
+    }
+
+    /**
+     * Calculates the cost of the given number of minutes, each rated at the rate of the minute of week it starts in.
+     * The started minutes of a call start in consecutive minutes of week, so their cost is a span of the cumulative
+     * rates of the tariff.
+     *
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param callDurationMinutes the number of started minutes of the call
+     * @return the cost of the call
+     */
+    private long calculatePerMinuteCost(long startTime, long callDurationMinutes) {
+        return tariff.getCost(CompiledTariff.minuteOfWeek(startTime), callDurationMinutes);
+    }
+}
@@ -0,0 +1,228 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.collections.FrequentKeySketch;
+import com.phonecompany.billing.collections.LongTallyMap;
+import com.phonecompany.billing.collections.SpillingTallyMap;
+import com.phonecompany.billing.parsers.MappedCallLogReader;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Calculator for phone logs with so many distinct phone numbers that counting the calls of every one of them,
+ * as {@link TelephoneBillCalculatorImpl} does, takes too much memory, e.g. aggregated trunk logs.
+ * The first pass over the log rates every call into the total and finds the candidates for the most frequent
+ * phone number with a {@link FrequentKeySketch} of a bounded number of counters. The second pass counts the calls
+ * of the candidates exactly, so the free phone number, including the tie-break, is the same as with exact counting.
+ * The sketch proves that no other phone number can win unless the log is nearly uniform; in that case the passes are
+ * repeated with twice as many counters, up to a maximum capacity. If even that many counters are not enough, the calls
+ * of every phone number are counted exactly in one more pass with a {@link SpillingTallyMap}, which holds the tallies
+ * of at most the maximum capacity of phone numbers in memory and spills the others to temporary files, so the memory
+ * needed stays bounded for any log.
+ * Both passes read the same log, so only phone logs which can be read twice, strings and files, are supported.
+ * Rejected lines are reported by the first pass only. Unless the rejection policy is strict, invalid lines are skipped
+ * and any other failure is logged and results in a zero bill. Instances are thread safe.
+ */
+public class HeavyHitterBillCalculator {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_MAX_CAPACITY = 1 << 20;
+    private static final Logger logger = Logger.getLogger(HeavyHitterBillCalculator.class.getName());
+    private static final RejectionPolicy UNREPORTED_REJECTIONS = RejectionPolicy.builder().maxReported(0).build();
+
+    private final FixedPointCostEngine costEngine;
+    private final int capacity;
+    private final int maxCapacity;
+    private final Path spillDirectory;
+    private final RejectionPolicy rejectionPolicy;
+
+    /**
+     * Creates a calculator tracking up to {@value #DEFAULT_CAPACITY} candidate phone numbers, at most
+     * {@value #DEFAULT_MAX_CAPACITY} when retrying, and spilling to the default temporary directory.
+     */
+    public HeavyHitterBillCalculator() {
+        this(new FixedPointCostEngine(), DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a calculator rating calls with the given cost engine.
+     *
+     * @param costEngine the engine used to rate calls
+     * @param capacity the number of candidate phone numbers tracked by the first pass
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public HeavyHitterBillCalculator(FixedPointCostEngine costEngine, int capacity) {
+        this(costEngine, capacity, RejectionPolicy.defaultPolicy());
+    }
+
+    /**
+     * Creates a calculator rating calls with the given cost engine and handling rejected lines by the given policy.
+     *
+     * @param costEngine the engine used to rate calls
+     * @param capacity the number of candidate phone numbers tracked by the first pass
+     * @param rejectionPolicy the policy deciding how rejected lines are reported
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public HeavyHitterBillCalculator(FixedPointCostEngine costEngine, int capacity, RejectionPolicy rejectionPolicy) {
+        this(costEngine, capacity, Math.max(capacity, DEFAULT_MAX_CAPACITY),
+                Paths.get(System.getProperty("java.io.tmpdir")), rejectionPolicy);
+    }
+
+    /**
+     * Creates a calculator rating calls with the given cost engine, limiting the number of candidate phone numbers
+     * and handling rejected lines by the given policy.
+     *
+     * @param costEngine the engine used to rate calls
+     * @param capacity the number of candidate phone numbers tracked by the first pass
+     * @param maxCapacity the maximum number of candidate phone numbers tracked when retrying, also the maximum
+     *        number of phone numbers held in memory when falling back to exact counting
+     * @param spillDirectory the directory for the temporary files of exact counting
+     * @param rejectionPolicy the policy deciding how rejected lines are reported
+     * @throws IllegalArgumentException if the capacity is not positive or greater than the maximum capacity
+     */
+    public HeavyHitterBillCalculator(FixedPointCostEngine costEngine, int capacity, int maxCapacity,
+                                     Path spillDirectory, RejectionPolicy rejectionPolicy) {
+        if (capacity < 1 || maxCapacity < capacity) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity + ", maximum " + maxCapacity);
+        }
+        this.costEngine = costEngine;
+        this.capacity = capacity;
+        this.maxCapacity = maxCapacity;
+        this.spillDirectory = spillDirectory;
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    /**
+     * Calculates the total cost of phone calls based on the provided phone log.
+     *
+     * @param phoneLog a string containing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    public BigDecimal calculate(String phoneLog) {
+        return calculate((phoneNumberCodec, handler, rejections) -> TelephoneBillCalculatorImpl.parseCallRecords(
+                phoneNumberCodec, new StringReader(phoneLog), handler, rejections));
+    }
+
+    /**
+     * Calculates the total cost of phone calls stored in the given file, scanning the memory mapped file in each pass.
+     *
+     * @param phoneLog the path of a file containing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    public BigDecimal calculate(Path phoneLog) {
+        return calculate((phoneNumberCodec, handler, rejections) ->
+                new MappedCallLogReader(phoneNumberCodec).read(phoneLog, handler, rejections));
+    }
+
+    /**
+     * Rates the calls of the phone log and subtracts the calls to the most frequent phone number,
+     * if the tariff plan makes them free.
+     *
+     * @param phoneLog the phone log
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    private BigDecimal calculate(PhoneLogSource phoneLog) {
+        return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, rejectionPolicy,
+                rejections -> {
+                    PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+                    FrequentKeySketch sketch = new FrequentKeySketch(capacity);
+                    long[] callCountAndCost = new long[2];
+                    phoneLog.read(phoneNumberCodec, (phoneNumber, startTime, endTime) -> {
+                        callCountAndCost[0]++;
+                        callCountAndCost[1] = Math.addExact(callCountAndCost[1],
+                                costEngine.calculateCallCost(startTime, endTime));
+                        sketch.add(phoneNumber);
+                    }, rejections);
+
+                    if (callCountAndCost[0] == 0) {
+                        return BigDecimal.ZERO;
+                    }
+                    long cost = callCountAndCost[1];
+                    if (costEngine.getTariff().isMostFrequentNumberFree()) {
+                        cost -= calculateFreeCost(phoneLog, phoneNumberCodec, sketch);
+                    }
+                    return costEngine.toAmount(cost);
+                });
+    }
+
+    /**
+     * Counts the calls of the candidates exactly and determines the cost of the calls to the most frequent phone
+     * number among them. If the sketch cannot rule out that a phone number without a counter is called as often
+     * as the winner, the candidates are searched again with a sketch of twice the capacity, and once the maximum
+     * capacity did not suffice either, the calls of all phone numbers are counted exactly.
+     *
+     * @param phoneLog the phone log
+     * @param phoneNumberCodec the codec which encoded the phone numbers during the first pass
+     * @param sketch the sketch filled by the first pass
+     * @return the cost of the calls to the most frequent phone number in minor units
+     * @throws IOException if the phone log cannot be read or the tallies cannot be spilled
+     * @throws ParseException if an error occurs while parsing the phone log
+     */
+    private long calculateFreeCost(PhoneLogSource phoneLog, PhoneNumberCodec phoneNumberCodec, FrequentKeySketch sketch)
+            throws IOException, ParseException {
+        while (true) {
+            LongTallyMap candidates = new LongTallyMap(sketch.getCapacity());
+            sketch.forEachCandidate(phoneNumber -> candidates.add(phoneNumber, 0, 0));
+            phoneLog.read(phoneNumberCodec, (phoneNumber, startTime, endTime) -> {
+                if (candidates.containsKey(phoneNumber)) {
+                    candidates.add(phoneNumber, 1, costEngine.calculateCallCost(startTime, endTime));
+                }
+            }, UNREPORTED_REJECTIONS.open());
+
+            MostFrequentPhoneNumber mostFrequent = new MostFrequentPhoneNumber(phoneNumberCodec);
+            candidates.forEach(mostFrequent);
+            if (mostFrequent.getCount() > sketch.getDecrementCount()) {
+                return mostFrequent.getCost();
+            }
+
+            int previousCapacity = sketch.getCapacity();
+            if (previousCapacity >= maxCapacity) {
+                logger.log(Level.FINE, () -> "Most frequent phone number not certain with " + previousCapacity
+                        + " candidates, counting all phone numbers.");
+                return calculateExactFreeCost(phoneLog, phoneNumberCodec);
+            }
+            int nextCapacity = (int) Math.min(2L * previousCapacity, maxCapacity);
+            logger.log(Level.FINE, () -> "Most frequent phone number not certain with " + previousCapacity
+                    + " candidates, retrying with " + nextCapacity + ".");
+            FrequentKeySketch largerSketch = new FrequentKeySketch(nextCapacity);
+            phoneLog.read(phoneNumberCodec, (phoneNumber, startTime, endTime) -> largerSketch.add(phoneNumber),
+                    UNREPORTED_REJECTIONS.open());
+            sketch = largerSketch;
+        }
+    }
+
+    /**
+     * Counts the calls of every phone number exactly, holding the tallies of at most the maximum capacity of phone
+     * numbers in memory, and determines the cost of the calls to the most frequent phone number.
+     *
+     * @param phoneLog the phone log
+     * @param phoneNumberCodec the codec which encoded the phone numbers during the first pass
+     * @return the cost of the calls to the most frequent phone number in minor units
+     * @throws IOException if the phone log cannot be read or the tallies cannot be spilled
+     * @throws ParseException if an error occurs while parsing the phone log
+     */
+    private long calculateExactFreeCost(PhoneLogSource phoneLog, PhoneNumberCodec phoneNumberCodec)
+            throws IOException, ParseException {
+        try (SpillingTallyMap phoneNumberTallies = new SpillingTallyMap(maxCapacity, spillDirectory)) {
+            phoneLog.read(phoneNumberCodec, (phoneNumber, startTime, endTime) -> {
+                try {
+                    phoneNumberTallies.add(phoneNumber, 1, costEngine.calculateCallCost(startTime, endTime));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, UNREPORTED_REJECTIONS.open());
+
+            MostFrequentPhoneNumber mostFrequent = new MostFrequentPhoneNumber(phoneNumberCodec);
+            phoneNumberTallies.forEach(mostFrequent);
+            return mostFrequent.getCost();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.parsers.CallRecordHandler;
+import com.phonecompany.billing.parsers.TimestampParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Rates parsed calls into a bill and writes every call as a CSV row as soon as it is rated.
+ * A call row holds the phone number, the start, the duration in seconds, the rate band, the base cost,
+ * the long call surcharge and the cost of the call:
+ * <pre>
+ * call,420774567453,01-09-2023 07:30:00,600,REDUCED_RATE,5.00,1.00,6.00
+ * </pre>
+ * Which phone number is free is only known once all calls are rated, so the promotion, if the tariff plan has it,
+ * is written by {@link #finish()} as a credit row for the free phone number, followed by the total row:
+ * <pre>
+ * promotion,420774567453,,,,,,-6.00
+ * total,,,,,,,4.00
+ * </pre>
+ */
+class ItemizedBillWriter implements CallRecordHandler {
+    static final String HEADER = "type,phone number,start,duration,rate band,base cost,long call surcharge,cost";
+
+    private final BillAccumulator bill;
+    private final FixedPointCostEngine costEngine;
+    private final Writer items;
+    private final StringBuilder row = new StringBuilder();
+    private final byte[] timestamp = new byte[TimestampParser.TIMESTAMP_LENGTH];
+
+    /**
+     * Creates a writer rating calls into the given bill.
+     *
+     * @param bill the bill to add the rated calls to
+     * @param costEngine the engine used to rate calls
+     * @param items the writer receiving the rows
+     */
+    ItemizedBillWriter(BillAccumulator bill, FixedPointCostEngine costEngine, Writer items) {
+        this.bill = bill;
+        this.costEngine = costEngine;
+        this.items = items;
+    }
+
+    /**
+     * Writes the header row.
+     *
+     * @throws IOException if the row cannot be written
+     */
+    void start() throws IOException {
+        items.write(HEADER);
+        items.write('\n');
+    }
+
+    /**
+     * Rates the call, adds it to the bill and writes its row.
+     *
+     * @throws UncheckedIOException if the row cannot be written
+     */
+    @Override
+    public void onCall(long phoneNumber, long startTime, long endTime) {
+        long baseCost = costEngine.calculateBaseCost(startTime, endTime);
+        long surcharge = costEngine.calculateLongCallSurcharge(startTime, endTime);
+        long callCost = Math.addExact(baseCost, surcharge);
+        bill.addCall(phoneNumber, callCost);
+
+        row.setLength(0);
+        row.append("call,").append(bill.getPhoneNumberCodec().decode(phoneNumber)).append(',');
+        TimestampParser.format(startTime, timestamp, 0);
+        for (byte character : timestamp) {
+            row.append((char) character);
+        }
+        row.append(',')
+                .append(endTime - startTime).append(',')
+                .append(costEngine.getRateBandName(startTime)).append(',');
+        appendAmount(baseCost).append(',');
+        appendAmount(surcharge).append(',');
+        appendAmount(callCost).append('\n');
+        try {
+            items.append(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the promotion and total rows and flushes the writer.
+     *
+     * @return the total cost of the bill in minor units
+     * @throws IOException if the rows cannot be written
+     */
+    long finish() throws IOException {
+        long totalCost = costEngine.calculateTotalCost(bill);
+        row.setLength(0);
+        if (bill.getPhoneNumberCount() > 0 && costEngine.getTariff().isMostFrequentNumberFree()) {
+            long freePhoneNumber = bill.getMostFrequentPhoneNumber();
+            row.append("promotion,").append(bill.getPhoneNumberCodec().decode(freePhoneNumber)).append(",,,,,,");
+            appendAmount(-bill.getPhoneNumberCost(freePhoneNumber)).append('\n');
+        }
+        row.append("total,,,,,,,");
+        appendAmount(totalCost).append('\n');
+        items.append(row);
+        items.flush();
+        return totalCost;
+    }
+
+    /**
+     * Appends an amount in minor units as a decimal number with the scale of the cost engine.
+     *
+     * @param minorUnits the amount in minor units
+     * @return the row
+     */
+    private StringBuilder appendAmount(long minorUnits) {
+        return row.append(costEngine.toAmount(minorUnits).toPlainString());
+    }
+}
@@ -0,0 +1,70 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.collections.LongTallyMap;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+
+/**
+ * Tracks the phone number whose calls are free, i.e. the most frequent one, the maximum one on a tie, among the
+ * tallies passed to it. This is the only place deciding which phone number wins, so all calculators agree on it.
+ * Entries may be passed in any order, and a phone number may be passed again whenever its count has grown, since
+ * only the phone number whose count has just grown can overtake the current winner.
+ */
+final class MostFrequentPhoneNumber implements LongTallyMap.EntryConsumer {
+    private final PhoneNumberCodec phoneNumberCodec;
+    private long phoneNumber;
+    private int count;
+    private long cost;
+
+    /**
+     * Creates a tracker which has not seen any phone number yet.
+     *
+     * @param phoneNumberCodec the codec which encoded the phone numbers
+     */
+    MostFrequentPhoneNumber(PhoneNumberCodec phoneNumberCodec) {
+        this.phoneNumberCodec = phoneNumberCodec;
+    }
+
+    /**
+     * Lets the given phone number overtake the most frequent one if it is called more often, or as often
+     * and is greater.
+     *
+     * @param phoneNumber the code of the phone number
+     * @param count the number of calls to the phone number
+     * @param cost the cost of the calls to the phone number in minor units
+     */
+    @Override
+    public void accept(long phoneNumber, int count, long cost) {
+        if (count > this.count || (count == this.count && phoneNumberCodec.compare(phoneNumber, this.phoneNumber) > 0)) {
+            this.phoneNumber = phoneNumber;
+            this.count = count;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Returns the code of the most frequent phone number, meaningless if no phone number was passed.
+     *
+     * @return the code of the most frequent phone number
+     */
+    long getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    /**
+     * Returns the number of calls to the most frequent phone number.
+     *
+     * @return the number of calls, zero if no phone number was passed
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the cost of the calls to the most frequent phone number as it was passed last.
+     *
+     * @return the cost in minor units, zero if no phone number was passed
+     */
+    long getCost() {
+        return cost;
+    }
+}
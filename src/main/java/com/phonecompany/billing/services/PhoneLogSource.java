@@ -0,0 +1,28 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.parsers.CallRecordHandler;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+import com.phonecompany.billing.parsers.RejectionCounter;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * A phone log which is parsed on demand, passing its calls to a handler.
+ * Sources of strings and files can be read any number of times, sources of readers only once.
+ */
+@FunctionalInterface
+interface PhoneLogSource {
+
+    /**
+     * Parses the phone log.
+     *
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     * @param handler the handler of the parsed calls
+     * @param rejections the counter of rejected lines
+     * @throws IOException if the phone log cannot be read
+     * @throws ParseException if an error occurs while parsing the phone log
+     */
+    void read(PhoneNumberCodec phoneNumberCodec, CallRecordHandler handler, RejectionCounter rejections)
+            throws IOException, ParseException;
+}
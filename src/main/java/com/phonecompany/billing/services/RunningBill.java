@@ -0,0 +1,249 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.collections.LongTallyMap;
+import com.phonecompany.billing.domain.entities.CallRecordBatch;
+import com.phonecompany.billing.parsers.CallRecordHandler;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+import com.phonecompany.billing.parsers.RejectedLineException;
+import com.phonecompany.billing.parsers.RejectionCounter;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.text.ParseException;
+
+/**
+ * Bill which is kept up to date while call records arrive, e.g. pushed by a switch, instead of being recalculated
+ * from the whole phone log. Every call is rated once when it is added, and the count and cost subtotal of its phone
+ * number are updated. Since counts only grow by one call at a time, the most frequent phone number can only be
+ * overtaken by the phone number just called, so it is tracked with a single comparison per call, with the same
+ * tie-break as {@link BillAccumulator#getMostFrequentPhoneNumber()}. The current total, with the calls to the most
+ * frequent phone number free if the tariff plan says so, is thus available in constant time after every call.
+ * Calls are added one at a time, as a {@link CallRecordHandler} fed by any parser, or in batches of coded calls
+ * or of phone log lines. Instances are thread safe.
+ */
+public class RunningBill implements CallRecordHandler {
+    private final FixedPointCostEngine costEngine;
+    private final RejectionPolicy rejectionPolicy;
+    private final PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+    private final LongTallyMap phoneNumberTallies = new LongTallyMap();
+    private long callCount;
+    private final MostFrequentPhoneNumber mostFrequent = new MostFrequentPhoneNumber(phoneNumberCodec);
+    private long grossCost;
+
+    /**
+     * Creates an empty bill rating calls with the default tariff.
+     */
+    public RunningBill() {
+        this(new FixedPointCostEngine());
+    }
+
+    /**
+     * Creates an empty bill rating calls with the given cost engine.
+     *
+     * @param costEngine the engine used to rate calls
+     */
+    public RunningBill(FixedPointCostEngine costEngine) {
+        this(costEngine, RejectionPolicy.defaultPolicy());
+    }
+
+    /**
+     * Creates an empty bill rating calls with the given cost engine and handling rejected lines of appended
+     * phone log lines by the given policy.
+     *
+     * @param costEngine the engine used to rate calls
+     * @param rejectionPolicy the policy deciding how rejected lines are reported
+     */
+    public RunningBill(FixedPointCostEngine costEngine, RejectionPolicy rejectionPolicy) {
+        this.costEngine = costEngine;
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    /**
+     * Returns the codec which has to encode the phone numbers of calls passed to {@link #onCall(long, long, long)}
+     * or {@link #addAll(CallRecordBatch)}.
+     *
+     * @return the codec of this bill
+     */
+    public PhoneNumberCodec getPhoneNumberCodec() {
+        return phoneNumberCodec;
+    }
+
+    /**
+     * Rates a single call and adds it to the bill.
+     *
+     * @param phoneNumber the code of the called phone number, created by the codec of this bill
+     * @param startTime the start of the call in wall clock epoch seconds
+     * @param endTime the end of the call in wall clock epoch seconds
+     * @throws ArithmeticException if a cost overflows, in which case the call is not added
+     */
+    @Override
+    public synchronized void onCall(long phoneNumber, long startTime, long endTime) {
+        addCall(phoneNumber, costEngine.calculateCallCost(startTime, endTime));
+    }
+
+    /**
+     * Rates all calls of the given batch and adds them to the bill. The calls are rated and tallied per phone number
+     * aside first, so the bill is only changed once no cost can overflow anymore.
+     *
+     * @param batch the batch of calls, whose phone numbers were encoded by the codec of this bill
+     * @throws ArithmeticException if a cost overflows, in which case no call of the batch is added
+     */
+    public synchronized void addAll(CallRecordBatch batch) {
+        LongTallyMap batchTallies = new LongTallyMap(batch.size());
+        long newGrossCost = grossCost;
+        for (int i = 0; i < batch.size(); i++) {
+            long callCost = costEngine.calculateCallCost(batch.getStartTime(i), batch.getEndTime(i));
+            newGrossCost = Math.addExact(newGrossCost, callCost);
+            batchTallies.add(batch.getPhoneNumber(i), 1, callCost);
+        }
+        batchTallies.forEach((phoneNumber, count, sum) -> {
+            Math.addExact(phoneNumberTallies.getCount(phoneNumber), count);
+            Math.addExact(phoneNumberTallies.getSum(phoneNumber), sum);
+        });
+
+        phoneNumberTallies.addAll(batchTallies);
+        grossCost = newGrossCost;
+        callCount += batch.size();
+        batchTallies.forEach((phoneNumber, count, sum) -> updateMostFrequent(phoneNumber));
+    }
+
+    /**
+     * Parses the given phone log lines and adds their calls to the bill.
+     * Lines with an invalid format are skipped and reported by the rejection policy of this bill.
+     *
+     * @param phoneLog the lines of the phone log in a specific format
+     * @throws ParseException if a date of a call record cannot be parsed, in which case no call of the lines is added
+     * @throws RejectedLineException if a line is rejected by a strict policy, in which case no call is added
+     */
+    public void append(String phoneLog) throws ParseException {
+        try {
+            append(new StringReader(phoneLog));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the phone log lines read from the given reader and adds their calls to the bill.
+     * All lines are parsed before any call is added. The reader is not closed by this method.
+     *
+     * @param phoneLog a reader providing the lines of the phone log in a specific format
+     * @throws IOException if the reader fails, in which case no call of the lines is added
+     * @throws ParseException if a date of a call record cannot be parsed, in which case no call of the lines is added
+     * @throws RejectedLineException if a line is rejected by a strict policy, in which case no call is added
+     */
+    public void append(Reader phoneLog) throws IOException, ParseException {
+        CallRecordBatch batch = new CallRecordBatch(BatchingCallRecordHandler.BATCH_SIZE);
+        RejectionCounter rejections = rejectionPolicy.open();
+        try {
+            TelephoneBillCalculatorImpl.parseCallRecords(phoneNumberCodec, phoneLog, batch::add, rejections);
+        } finally {
+            rejections.complete();
+        }
+        addAll(batch);
+    }
+
+    /**
+     * Returns the number of calls added so far.
+     *
+     * @return the number of calls
+     */
+    public synchronized long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * Returns the number of distinct phone numbers called so far.
+     *
+     * @return the number of distinct phone numbers
+     */
+    public synchronized int getPhoneNumberCount() {
+        return phoneNumberTallies.size();
+    }
+
+    /**
+     * Returns the number of calls to the given phone number.
+     *
+     * @param phoneNumber the phone number
+     * @return the number of calls, zero if the phone number was not called
+     */
+    public synchronized int getCallCount(String phoneNumber) {
+        long code = phoneNumberCodec.find(phoneNumber);
+        return code == PhoneNumberCodec.NOT_FOUND ? 0 : phoneNumberTallies.getCount(code);
+    }
+
+    /**
+     * Returns the cost of all calls to the given phone number, including the free ones.
+     *
+     * @param phoneNumber the phone number
+     * @return the subtotal of the phone number, zero if the phone number was not called
+     */
+    public synchronized BigDecimal getSubtotal(String phoneNumber) {
+        long code = phoneNumberCodec.find(phoneNumber);
+        return costEngine.toAmount(code == PhoneNumberCodec.NOT_FOUND ? 0 : phoneNumberTallies.getSum(code));
+    }
+
+    /**
+     * Returns the phone number whose calls are free, i.e. the most frequent one, the maximum one on a tie.
+     *
+     * @return the most frequent phone number, or {@code null} if no call was added or the tariff plan has no promotion
+     */
+    public synchronized String getFreePhoneNumber() {
+        if (callCount == 0 || !costEngine.getTariff().isMostFrequentNumberFree()) {
+            return null;
+        }
+        return phoneNumberCodec.decode(mostFrequent.getPhoneNumber());
+    }
+
+    /**
+     * Returns the current total cost in minor units, with the calls to the most frequent phone number free
+     * if the tariff plan makes them free.
+     *
+     * @return the total cost in minor units
+     */
+    public synchronized long getTotalCost() {
+        if (callCount == 0 || !costEngine.getTariff().isMostFrequentNumberFree()) {
+            return grossCost;
+        }
+        return grossCost - phoneNumberTallies.getSum(mostFrequent.getPhoneNumber());
+    }
+
+    /**
+     * Returns the current total cost of the bill, see {@link #getTotalCost()}.
+     *
+     * @return the total cost of phone calls as a BigDecimal, or zero if no call was added
+     */
+    public synchronized BigDecimal getTotal() {
+        return callCount == 0 ? BigDecimal.ZERO : costEngine.toAmount(getTotalCost());
+    }
+
+    /**
+     * Adds a rated call to the tallies and updates the most frequent phone number.
+     *
+     * @param phoneNumber the code of the called phone number
+     * @param callCost the cost of the call in minor units
+     * @throws ArithmeticException if a cost overflows, in which case the call is not added
+     */
+    private void addCall(long phoneNumber, long callCost) {
+        long newGrossCost = Math.addExact(grossCost, callCost);
+        Math.addExact(phoneNumberTallies.getSum(phoneNumber), callCost);
+        phoneNumberTallies.add(phoneNumber, 1, callCost);
+        grossCost = newGrossCost;
+        callCount++;
+        updateMostFrequent(phoneNumber);
+    }
+
+    /**
+     * Lets the given phone number, whose count has just grown, overtake the most frequent one.
+     * No other phone number can have overtaken it.
+     *
+     * @param phoneNumber the code of the phone number
+     */
+    private void updateMostFrequent(long phoneNumber) {
+        mostFrequent.accept(phoneNumber, phoneNumberTallies.getCount(phoneNumber), phoneNumberTallies.getSum(phoneNumber));
+    }
+}
@@ -0,0 +1,73 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.parsers.BinaryCallLogReader;
+import com.phonecompany.billing.parsers.CallLogScanner;
+import com.phonecompany.billing.parsers.MappedCallLogReader;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+
+/**
+ * Reusable working state for calculating one bill at a time: the phone number codec, the bill,
+ * the batch collecting parsed calls, the memory mapped log readers and the byte scanner with its read buffer.
+ * An arena is owned by a single calculation until it is {@link #reset() reset}, so it needs no synchronization.
+ */
+final class ScratchArena {
+    private static final int MAX_RETAINED_PHONE_NUMBERS = 1 << 12;
+
+    private final FixedPointCostEngine costEngine;
+    private final PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+    private final MappedCallLogReader mappedCallLogReader = new MappedCallLogReader(phoneNumberCodec);
+    private final CallLogScanner callLogScanner = new CallLogScanner(phoneNumberCodec);
+    private final BinaryCallLogReader binaryCallLogReader = new BinaryCallLogReader(phoneNumberCodec);
+    private BillAccumulator bill;
+    private BatchingCallRecordHandler handler;
+
+    /**
+     * Creates an empty arena.
+     *
+     * @param costEngine the engine used to rate the calls collected by the handler
+     */
+    ScratchArena(FixedPointCostEngine costEngine) {
+        this.costEngine = costEngine;
+        this.bill = new BillAccumulator(phoneNumberCodec);
+        this.handler = new BatchingCallRecordHandler(bill, costEngine);
+    }
+
+    PhoneNumberCodec getPhoneNumberCodec() {
+        return phoneNumberCodec;
+    }
+
+    MappedCallLogReader getMappedCallLogReader() {
+        return mappedCallLogReader;
+    }
+
+    CallLogScanner getCallLogScanner() {
+        return callLogScanner;
+    }
+
+    BinaryCallLogReader getBinaryCallLogReader() {
+        return binaryCallLogReader;
+    }
+
+    BillAccumulator getBill() {
+        return bill;
+    }
+
+    BatchingCallRecordHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Prepares the arena for the next bill. A bill which grew large is replaced instead of cleared,
+     * so a single heavy phone log does not slow down clearing for all the following ones.
+     */
+    void reset() {
+        phoneNumberCodec.clear();
+        handler.discard();
+        if (bill.getPhoneNumberCount() > MAX_RETAINED_PHONE_NUMBERS) {
+            bill = new BillAccumulator(phoneNumberCodec);
+            handler = new BatchingCallRecordHandler(bill, costEngine);
+        } else {
+            bill.clear();
+        }
+    }
+}
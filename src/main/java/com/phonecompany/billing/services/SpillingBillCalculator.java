@@ -0,0 +1,168 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.collections.SpillingTallyMap;
+import com.phonecompany.billing.parsers.MappedCallLogReader;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Calculator counting the calls of every phone number exactly within a memory budget, in a single pass.
+ * The counts and cost subtotals of at most a given number of phone numbers are held in memory; beyond that they are
+ * spilled to temporary files partitioned by phone number, see {@link SpillingTallyMap}. Once the log is read,
+ * the partitions are merged one by one and the most frequent phone number, the maximum one on a tie, is chosen
+ * across them, so the promotion is the same as with {@link TelephoneBillCalculatorImpl}.
+ * Unlike {@link HeavyHitterBillCalculator}, the log is read only once, so readers and streams are supported too.
+ * Unless the rejection policy is strict, invalid lines are skipped and any other failure, including a failure
+ * to spill, is logged and results in a zero bill. Temporary files are deleted before a calculation returns.
+ * Instances are thread safe.
+ */
+public class SpillingBillCalculator {
+    public static final int DEFAULT_MAX_PHONE_NUMBERS_IN_MEMORY = 1 << 20;
+    private static final Logger logger = Logger.getLogger(SpillingBillCalculator.class.getName());
+
+    private final FixedPointCostEngine costEngine;
+    private final int maxPhoneNumbersInMemory;
+    private final Path spillDirectory;
+    private final RejectionPolicy rejectionPolicy;
+
+    /**
+     * Creates a calculator holding up to {@value #DEFAULT_MAX_PHONE_NUMBERS_IN_MEMORY} phone numbers in memory
+     * and spilling to the default temporary directory.
+     */
+    public SpillingBillCalculator() {
+        this(new FixedPointCostEngine(), DEFAULT_MAX_PHONE_NUMBERS_IN_MEMORY,
+                Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Creates a calculator rating calls with the given cost engine.
+     *
+     * @param costEngine the engine used to rate calls
+     * @param maxPhoneNumbersInMemory the maximum number of phone numbers whose tallies are held in memory
+     * @param spillDirectory the directory for the temporary files
+     * @throws IllegalArgumentException if the maximum number of phone numbers is not positive
+     */
+    public SpillingBillCalculator(FixedPointCostEngine costEngine, int maxPhoneNumbersInMemory, Path spillDirectory) {
+        this(costEngine, maxPhoneNumbersInMemory, spillDirectory, RejectionPolicy.defaultPolicy());
+    }
+
+    /**
+     * Creates a calculator rating calls with the given cost engine and handling rejected lines by the given policy.
+     *
+     * @param costEngine the engine used to rate calls
+     * @param maxPhoneNumbersInMemory the maximum number of phone numbers whose tallies are held in memory
+     * @param spillDirectory the directory for the temporary files
+     * @param rejectionPolicy the policy deciding how rejected lines are reported
+     * @throws IllegalArgumentException if the maximum number of phone numbers is not positive
+     */
+    public SpillingBillCalculator(FixedPointCostEngine costEngine, int maxPhoneNumbersInMemory, Path spillDirectory,
+                                  RejectionPolicy rejectionPolicy) {
+        if (maxPhoneNumbersInMemory < 1) {
+            throw new IllegalArgumentException("Maximum number of phone numbers in memory must be positive: "
+                    + maxPhoneNumbersInMemory);
+        }
+        this.costEngine = costEngine;
+        this.maxPhoneNumbersInMemory = maxPhoneNumbersInMemory;
+        this.spillDirectory = spillDirectory;
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    /**
+     * Calculates the total cost of phone calls based on the provided phone log.
+     *
+     * @param phoneLog a string containing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    public BigDecimal calculate(String phoneLog) {
+        return calculate(new StringReader(phoneLog));
+    }
+
+    /**
+     * Calculates the total cost of phone calls read from the given stream.
+     * The stream is decoded as UTF-8 and is not closed by this method.
+     *
+     * @param phoneLog a stream containing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    public BigDecimal calculate(InputStream phoneLog) {
+        return calculate(new InputStreamReader(phoneLog, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Calculates the total cost of phone calls read line by line from the given reader,
+     * which is not closed by this method.
+     *
+     * @param phoneLog a reader providing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    public BigDecimal calculate(Reader phoneLog) {
+        return calculate((phoneNumberCodec, handler, rejections) ->
+                TelephoneBillCalculatorImpl.parseCallRecords(phoneNumberCodec, phoneLog, handler, rejections));
+    }
+
+    /**
+     * Calculates the total cost of phone calls stored in the given file by scanning the memory mapped file.
+     *
+     * @param phoneLog the path of a file containing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    public BigDecimal calculate(Path phoneLog) {
+        return calculate((phoneNumberCodec, handler, rejections) ->
+                new MappedCallLogReader(phoneNumberCodec).read(phoneLog, handler, rejections));
+    }
+
+    /**
+     * Rates the calls of the phone log and subtracts the calls to the most frequent phone number,
+     * if the tariff plan makes them free.
+     *
+     * @param phoneLog the phone log
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    private BigDecimal calculate(PhoneLogSource phoneLog) {
+        return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, rejectionPolicy,
+                rejections -> {
+                    try (SpillingTallyMap phoneNumberTallies = new SpillingTallyMap(maxPhoneNumbersInMemory,
+                            spillDirectory)) {
+                        PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+                        long[] callCountAndCost = new long[2];
+                        phoneLog.read(phoneNumberCodec, (phoneNumber, startTime, endTime) -> {
+                            long callCost = costEngine.calculateCallCost(startTime, endTime);
+                            callCountAndCost[0]++;
+                            callCountAndCost[1] = Math.addExact(callCountAndCost[1], callCost);
+                            try {
+                                phoneNumberTallies.add(phoneNumber, 1, callCost);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }, rejections);
+
+                        if (callCountAndCost[0] == 0) {
+                            return BigDecimal.ZERO;
+                        }
+                        long cost = callCountAndCost[1];
+                        if (costEngine.getTariff().isMostFrequentNumberFree()) {
+                            MostFrequentPhoneNumber mostFrequent = new MostFrequentPhoneNumber(phoneNumberCodec);
+                            phoneNumberTallies.forEach(mostFrequent);
+                            cost -= mostFrequent.getCost();
+                        }
+                        if (phoneNumberTallies.isSpilled()) {
+                            logger.log(Level.FINE, () -> "Phone numbers spilled to " + spillDirectory + ".");
+                        }
+                        return costEngine.toAmount(cost);
+                    }
+                });
+    }
+}
@@ -1,13 +1,39 @@
 package com.phonecompany.billing.services;
 
 import com.phonecompany.billing.TelephoneBillCalculator;
-import com.phonecompany.billing.domain.entities.CallRecord;
-import com.phonecompany.billing.domain.enums.BillingRate;
+import com.phonecompany.billing.parsers.BinaryCallLogReader;
+import com.phonecompany.billing.parsers.CallLogChunker;
+import com.phonecompany.billing.parsers.CallLogScanner;
+import com.phonecompany.billing.parsers.CallRecordHandler;
+import com.phonecompany.billing.parsers.MappedCallLogReader;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+import com.phonecompany.billing.parsers.RejectedLineException;
+import com.phonecompany.billing.parsers.RejectionCounter;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+import com.phonecompany.billing.parsers.RejectionReason;
+import com.phonecompany.billing.parsers.TimestampParser;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.*;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,14 +41,70 @@ import java.util.logging.Logger;
 /**
  * The implementation of the TelephoneBillCalculator interface.
  * This class provides methods to calculate the total cost of a telephone bill based on call records.
+ * Besides streaming the phone logs of the interface methods, it bills memory mapped files
+ * ({@link #calculateMapped(Path)}), binary call logs ({@link #calculateBinary(Path)}) and writes itemized bills
+ * ({@link #calculateItemized(Reader, Writer)}).
+ * When created with a {@link ForkJoinPool}, phone logs given as a string or as a memory mapped file are split
+ * into chunks at line boundaries, which are parsed in parallel and whose summaries are merged afterwards.
+ * Instances are thread safe and meant to be shared. Sequential calculations borrow their parse buffers and counter
+ * tables from a lock free pool of {@link ScratchArena}s, so concurrent callers, platform or virtual threads alike,
+ * reuse them without allocation or contention; at most a few arenas per processor are retained.
+ * Rejected lines are counted and reported as decided by a {@link RejectionPolicy}. Unless the policy is strict,
+ * invalid lines are skipped and any other failure is logged and results in a zero bill; a strict policy makes
+ * the calculation throw a {@link RejectedLineException} at the first rejected line.
  */
 public class TelephoneBillCalculatorImpl implements TelephoneBillCalculator {
     private static final Logger logger = Logger.getLogger(TelephoneBillCalculatorImpl.class.getName());
-    private static final int LOW_BOUNCE  = 8;
-    private static final int UP_BOUNCE  = 16;
-    private static final int LONG_CALL  = 5;
-    private static final String DATE_FORMAT = "dd-MM-yyyy HH:mm:ss";
     private static final int PHONE_LOG_FIELDS = 3;
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MAX_POOLED_ARENAS = 4 * Runtime.getRuntime().availableProcessors();
+
+    private final ForkJoinPool forkJoinPool;
+    private final FixedPointCostEngine costEngine;
+    private final RejectionPolicy rejectionPolicy;
+    private final Queue<ScratchArena> scratchArenas = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledArenaCount = new AtomicInteger();
+
+    /**
+     * Creates a calculator which parses phone logs sequentially.
+     */
+    public TelephoneBillCalculatorImpl() {
+        this(null);
+    }
+
+    /**
+     * Creates a calculator which parses phone logs in parallel on the given pool.
+     *
+     * @param forkJoinPool the pool used to parse chunks of phone logs, or {@code null} to parse sequentially
+     */
+    public TelephoneBillCalculatorImpl(ForkJoinPool forkJoinPool) {
+        this(forkJoinPool, new FixedPointCostEngine());
+    }
+
+    /**
+     * Creates a calculator rating calls with the given cost engine.
+     *
+     * @param forkJoinPool the pool used to parse chunks of phone logs, or {@code null} to parse sequentially
+     * @param costEngine the engine used to rate calls
+     */
+    public TelephoneBillCalculatorImpl(ForkJoinPool forkJoinPool, FixedPointCostEngine costEngine) {
+        this(forkJoinPool, costEngine, RejectionPolicy.defaultPolicy());
+    }
+
+    /**
+     * Creates a calculator rating calls with the given cost engine and handling rejected lines by the given policy.
+     *
+     * @param forkJoinPool the pool used to parse chunks of phone logs, or {@code null} to parse sequentially
+     * @param costEngine the engine used to rate calls
+     * @param rejectionPolicy the policy deciding how rejected lines are reported
+     */
+    public TelephoneBillCalculatorImpl(ForkJoinPool forkJoinPool, FixedPointCostEngine costEngine,
+                                       RejectionPolicy rejectionPolicy) {
+        this.forkJoinPool = forkJoinPool;
+        this.costEngine = costEngine;
+        this.rejectionPolicy = rejectionPolicy;
+    }
 
     /**
      * Calculates the total cost of phone calls based on the provided phone log.
@@ -32,212 +114,448 @@ public class TelephoneBillCalculatorImpl implements TelephoneBillCalculator {
      */
     @Override
     public BigDecimal calculate(String phoneLog) {
-        BigDecimal totalCost = BigDecimal.ZERO;
+        if (forkJoinPool == null) {
+            return calculate(new StringReader(phoneLog));
+        }
+        return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, rejectionPolicy,
+                rejections -> {
+                    PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+                    long[] boundaries = CallLogChunker.split(phoneLog, getChunkCount(phoneLog.length()));
+                    ChunkLineCounts lineCounts = new ChunkLineCounts(boundaries,
+                            () -> CallLogChunker.countLines(phoneLog, boundaries));
+                    return calculateTotalCost(forkJoinPool.invoke(new CallLogChunkTask(boundaries,
+                            (from, to) -> accumulateCallRecords(phoneNumberCodec, phoneLog, (int) from, (int) to,
+                                    rejections.startingAfter(() -> lineCounts.linesBefore(from))))));
+                });
+    }
 
+    /**
+     * Calculates the total cost of phone calls read from the given stream.
+     * The bytes are scanned directly by a {@link CallLogScanner}, without decoding them into strings,
+     * and only a per phone number summary is kept in memory. The stream is not closed by this method.
+     *
+     * @param phoneLog a stream containing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    @Override
+    public BigDecimal calculate(InputStream phoneLog) {
+        ScratchArena arena = acquireScratchArena();
         try {
-            List<CallRecord> callRecords = parseCallRecords(phoneLog);
-            String mostFrequentPhoneNumber = findMostFrequentPhoneNumber(callRecords);
-
-            totalCost = callRecords.stream()
-                    .map(call -> calculateCallCost(call, mostFrequentPhoneNumber))
-                    .reduce(BigDecimal::add)
-                    .orElse(BigDecimal.ZERO);
-
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error occurred while calculating phone bill.", e);
+            return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, rejectionPolicy,
+                    rejections -> {
+                        arena.getCallLogScanner().scan(phoneLog, arena.getHandler(), rejections);
+                        arena.getHandler().flush();
+                        return calculateTotalCost(arena.getBill());
+                    });
+        } finally {
+            releaseScratchArena(arena);
         }
-
-        return totalCost;
     }
 
     /**
-     * Parses the given phone log and returns a list of call records.
+     * Calculates the total cost of phone calls stored in the given file.
      *
-     * @param phoneLog the phone log to be parsed
-     * @return a list of call records parsed from the phone log
-     * @throws ParseException if an error occurs while parsing the phone log
+     * @param phoneLog the path of a file containing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
      */
-    private List<CallRecord> parseCallRecords(String phoneLog) throws ParseException {
-        List<CallRecord> callRecords = new ArrayList<>();
-        String[] lines = phoneLog.split("\n");
+    @Override
+    public BigDecimal calculate(Path phoneLog) {
+        try (InputStream input = Files.newInputStream(phoneLog)) {
+            return calculate(input);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error occurred while reading phone log " + phoneLog + ".", e);
+            return BigDecimal.ZERO;
+        }
+    }
 
-        for (String line : lines) {
-            String[] parts = line.split(",");
-            parseCallRecordParts(callRecords, line, parts);
+    /**
+     * Calculates the total cost of phone calls read line by line from the given reader.
+     * Calls are rated as they are read and only a per phone number summary is kept in memory,
+     * so the memory needed does not grow with the length of the log. The reader is not closed by this method.
+     *
+     * @param phoneLog a reader providing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    @Override
+    public BigDecimal calculate(Reader phoneLog) {
+        ScratchArena arena = acquireScratchArena();
+        try {
+            return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, rejectionPolicy,
+                    rejections -> calculateTotalCost(accumulateCallRecords(arena, phoneLog, rejections)));
+        } finally {
+            releaseScratchArena(arena);
         }
-        return callRecords;
     }
 
     /**
-     * Parses the parts of a call record and adds it to the list of call records.
+     * Calculates the total cost of phone calls read from the given reader and writes every call as a CSV row
+     * as soon as it is rated, followed by the promotion credit and the total, see {@link ItemizedBillWriter}.
+     * No list of calls is built, so the memory needed does not grow with the length of the log.
+     * If the calculation fails, the rows written so far are left without the promotion and total rows.
+     * Neither the reader nor the writer is closed by this method.
      *
-     * @param callRecords the list of call records to add the parsed call record to
-     * @param line the line containing the call record parts
-     * @param parts the array of call record parts
-     * @throws ParseException if the line format is invalid
+     * @param phoneLog a reader providing the phone log in a specific format
+     * @param items the writer receiving the rows of the itemized bill
+     * @return the total cost of phone calls as a BigDecimal
      */
-    private void parseCallRecordParts(List<CallRecord> callRecords, String line, String[] parts) throws ParseException {
-        if (parts.length != PHONE_LOG_FIELDS) {
-            logger.log(Level.WARNING, "Invalid line format: " + line);
-            return;
+    public BigDecimal calculateItemized(Reader phoneLog, Writer items) {
+        ScratchArena arena = acquireScratchArena();
+        try {
+            return calculateItemized(arena, (phoneNumberCodec, handler, rejections) ->
+                    parseCallRecords(phoneNumberCodec, phoneLog, handler, rejections), items);
+        } finally {
+            releaseScratchArena(arena);
         }
-        String phoneNumber = parts[0];
-        Date startTime = parseDate(parts[1]);
-        Date endTime = parseDate(parts[2]);
-        callRecords.add(new CallRecord(phoneNumber, startTime, endTime));
     }
 
     /**
-     * Parses a given date string using the specified date format.
+     * Calculates the total cost of phone calls read from the given stream and writes the itemized bill
+     * to the given output stream, both encoded as UTF-8, see {@link #calculateItemized(Reader, Writer)}.
+     * Neither stream is closed by this method.
      *
-     * @param dateString The date string to be parsed.
-     * @return The parsed Date object.
-     * @throws ParseException If the parsing fails.
+     * @param phoneLog a stream containing the phone log in a specific format
+     * @param items the stream receiving the rows of the itemized bill
+     * @return the total cost of phone calls as a BigDecimal
      */
-    private Date parseDate(String dateString) throws ParseException {
-        return new SimpleDateFormat(DATE_FORMAT).parse(dateString);
+    public BigDecimal calculateItemized(InputStream phoneLog, OutputStream items) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(items, StandardCharsets.UTF_8));
+        ScratchArena arena = acquireScratchArena();
+        try {
+            return calculateItemized(arena, (phoneNumberCodec, handler, rejections) ->
+                    arena.getCallLogScanner().scan(phoneLog, handler, rejections), writer);
+        } finally {
+            releaseScratchArena(arena);
+        }
     }
 
     /**
-     * Finds the most frequent phone number within a list of call records.
+     * Calculates the total cost of phone calls of the given phone log and writes the itemized bill.
+     * The rows written are flushed to the writer also if the calculation fails.
      *
-     * @param callRecords a list of CallRecord objects representing call records
-     * @return the most frequent phone number as a String
+     * @param arena the scratch arena of the calculation, whose codec encodes the phone numbers
+     * @param phoneLog the phone log
+     * @param items the writer receiving the rows of the itemized bill
+     * @return the total cost of phone calls as a BigDecimal
      */
-    private String findMostFrequentPhoneNumber(List<CallRecord> callRecords) {
-        Map<String, Integer> phoneNumberCounts = new HashMap<>();
-        countCallRecords(callRecords, phoneNumberCounts);
+    private BigDecimal calculateItemized(ScratchArena arena, PhoneLogSource phoneLog, Writer items) {
+        try {
+            return BillCalculation.run(logger, "Error occurred while calculating itemized phone bill.", BigDecimal.ZERO,
+                    rejectionPolicy, rejections -> {
+                        ItemizedBillWriter itemizedBill = new ItemizedBillWriter(arena.getBill(), costEngine, items);
+                        itemizedBill.start();
+                        phoneLog.read(arena.getPhoneNumberCodec(), itemizedBill, rejections);
+                        itemizedBill.finish();
+                        return calculateTotalCost(arena.getBill());
+                    });
+        } finally {
+            flush(items);
+        }
+    }
 
-        List<String> mostFrequentPhoneNumbers = getNumbers(phoneNumberCounts);
+    /**
+     * Calculates the total cost of phone calls stored in the given file by scanning the memory mapped file.
+     * This avoids decoding the whole file into characters and lets the operating system page cache do the I/O.
+     *
+     * @param phoneLog the path of a file containing the phone log in a specific format
+     * @return the total cost of phone calls as a BigDecimal
+     */
+    public BigDecimal calculateMapped(Path phoneLog) {
+        if (forkJoinPool == null) {
+            ScratchArena arena = acquireScratchArena();
+            try {
+                return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, rejectionPolicy,
+                        rejections -> {
+                            arena.getMappedCallLogReader().read(phoneLog, arena.getHandler(), rejections);
+                            arena.getHandler().flush();
+                            return calculateTotalCost(arena.getBill());
+                        });
+            } finally {
+                releaseScratchArena(arena);
+            }
+        }
 
-        return getMaximumPhoneNumber(mostFrequentPhoneNumbers);
+        return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, rejectionPolicy,
+                rejections -> {
+                    PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+                    long[] boundaries = CallLogChunker.split(phoneLog, getChunkCount(Files.size(phoneLog)));
+                    ChunkLineCounts lineCounts = new ChunkLineCounts(boundaries, () -> {
+                        try {
+                            return CallLogChunker.countLines(phoneLog, boundaries);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    return calculateTotalCost(forkJoinPool.invoke(new CallLogChunkTask(boundaries,
+                            (from, to) -> accumulateCallRecords(phoneNumberCodec, phoneLog, from, to,
+                                    rejections.startingAfter(() -> lineCounts.linesBefore(from))))));
+                });
     }
 
     /**
-     * Counts the number of occurrences of each phone number in the given list of call records.
-     * The counts are stored in the provided map, where the phone number is the key and the count is the value.
+     * Calculates the total cost of phone calls stored in the given binary call log, see {@link BinaryCallLogReader}.
+     * The fixed width records are read from the memory mapped file without any parsing; with a pool, the records
+     * are split into equal ranges which are summarized in parallel.
      *
-     * @param callRecords The list of call records to count.
-     * @param phoneNumberCounts The map to store the phone number counts.
+     * @param binaryLog the path of a binary call log written by {@link com.phonecompany.billing.parsers.BinaryCallLogWriter}
+     * @return the total cost of phone calls as a BigDecimal
      */
-    private void countCallRecords(List<CallRecord> callRecords, Map<String, Integer> phoneNumberCounts) {
-        for (CallRecord call : callRecords) {
-            String phoneNumber = call.getPhoneNumber();
-            phoneNumberCounts.put(phoneNumber, phoneNumberCounts.getOrDefault(phoneNumber, 0) + 1);
+    public BigDecimal calculateBinary(Path binaryLog) {
+        if (forkJoinPool == null) {
+            ScratchArena arena = acquireScratchArena();
+            try {
+                return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, () -> {
+                    arena.getBinaryCallLogReader().read(binaryLog, arena.getHandler());
+                    arena.getHandler().flush();
+                    return calculateTotalCost(arena.getBill());
+                });
+            } finally {
+                releaseScratchArena(arena);
+            }
         }
+
+        return BillCalculation.run(logger, BillCalculation.FAILURE_MESSAGE, BigDecimal.ZERO, () -> {
+            PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+            long recordCount = BinaryCallLogReader.getRecordCount(binaryLog);
+            int chunkCount = getChunkCount(Files.size(binaryLog));
+            long[] boundaries = new long[chunkCount + 1];
+            for (int chunk = 1; chunk <= chunkCount; chunk++) {
+                boundaries[chunk] = recordCount / chunkCount * chunk + recordCount % chunkCount * chunk / chunkCount;
+            }
+            return calculateTotalCost(forkJoinPool.invoke(new CallLogChunkTask(boundaries,
+                    (from, to) -> accumulateBinaryCallRecords(phoneNumberCodec, binaryLog, from, to))));
+        });
     }
 
     /**
-     * Returns the maximum phone number from the list of most frequent phone numbers.
+     * Takes a scratch arena from the pool, or creates one if the pool is empty.
      *
-     * @param mostFrequentPhoneNumbers a list of phone numbers
-     * @return the maximum phone number
+     * @return a reset arena owned by the caller until it is released
      */
-    private String getMaximumPhoneNumber(List<String> mostFrequentPhoneNumbers) {
-        return Collections.max(mostFrequentPhoneNumbers);
+    private ScratchArena acquireScratchArena() {
+        ScratchArena arena = scratchArenas.poll();
+        if (arena == null) {
+            return new ScratchArena(costEngine);
+        }
+        pooledArenaCount.decrementAndGet();
+        return arena;
     }
 
     /**
-     * Retrieves the most frequent phone numbers from a map of phone number counts.
+     * Resets the scratch arena and returns it to the pool, unless the pool is full.
      *
-     * @param phoneNumberCounts a map containing phone numbers as keys and their corresponding counts as values
-     * @return a list of the most frequent phone numbers
+     * @param arena the arena, which must not be used by the caller afterwards
      */
-    private List<String> getNumbers(Map<String, Integer> phoneNumberCounts) {
-        List<String> mostFrequentPhoneNumbers = new ArrayList<>();
-        populateFrequentPhoneNumbers(phoneNumberCounts, mostFrequentPhoneNumbers);
-        return mostFrequentPhoneNumbers;
+    private void releaseScratchArena(ScratchArena arena) {
+        arena.reset();
+        if (pooledArenaCount.incrementAndGet() <= MAX_POOLED_ARENAS) {
+            scratchArenas.offer(arena);
+        } else {
+            pooledArenaCount.decrementAndGet();
+        }
     }
 
     /**
-     * Populates the list of most frequent phone numbers based on the given phone number counts.
-     * Only the phone numbers with the highest count will be added to the list.
+     * Flushes the rows of an itemized bill written so far, logging a failure instead of throwing it.
      *
-     * @param phoneNumberCounts a Map containing phone numbers as keys and their corresponding counts as values
-     * @param mostFrequentPhoneNumbers the List to which the most frequent phone numbers will be added
+     * @param items the writer receiving the rows of the itemized bill
      */
-    private void populateFrequentPhoneNumbers(Map<String, Integer> phoneNumberCounts, List<String> mostFrequentPhoneNumbers) {
-        int maxCount = Collections.max(phoneNumberCounts.values());
+    private static void flush(Writer items) {
+        try {
+            items.flush();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Error occurred while writing itemized phone bill.", e);
+        }
+    }
 
-        phoneNumberCounts.entrySet()
-                .stream()
-                .filter(entry -> entry.getValue() == maxCount)
-                .forEach(entry -> mostFrequentPhoneNumbers.add(entry.getKey()));
+    /**
+     * Determines the number of chunks a phone log of the given size is split into for parallel parsing.
+     *
+     * @param size the size of the phone log
+     * @return the number of chunks
+     */
+    private int getChunkCount(long size) {
+        long maxChunks = (long) forkJoinPool.getParallelism() * CHUNKS_PER_THREAD;
+        return (int) Math.max(1, Math.min(maxChunks, size / MIN_CHUNK_SIZE));
     }
 
     /**
-     * Calculates the call cost based on the given CallRecord and the most frequent phone number.
+     * Converts the total cost of the accumulated bill to a BigDecimal.
      *
-     * @param call                   the CallRecord containing the call information
-     * @param mostFrequentPhoneNumber the most frequent phone number
-     * @return the call cost as a BigDecimal value
+     * @param bill the accumulated bill
+     * @return the total cost of phone calls as a BigDecimal, or zero if the phone log contains no calls
      */
-    private BigDecimal calculateCallCost(CallRecord call, String mostFrequentPhoneNumber) {
-        if (call.getPhoneNumber().equals(mostFrequentPhoneNumber)) {
+    private BigDecimal calculateTotalCost(BillAccumulator bill) {
+        if (bill.getPhoneNumberCount() == 0) {
             return BigDecimal.ZERO;
         }
+        return costEngine.toAmount(costEngine.calculateTotalCost(bill));
+    }
 
-        BigDecimal callCost;
-        long callDurationMinutes = getMinutesDuration(call);
+    /**
+     * Reads the phone log line by line and adds the parsed calls to the bill of the scratch arena.
+     *
+     * @param arena the scratch arena holding the bill
+     * @param phoneLog the phone log to be parsed
+     * @param rejections the counter of rejected lines
+     * @return the accumulated bill
+     * @throws IOException if the phone log cannot be read
+     * @throws ParseException if an error occurs while parsing the phone log
+     */
+    private BillAccumulator accumulateCallRecords(ScratchArena arena, Reader phoneLog, RejectionCounter rejections)
+            throws IOException, ParseException {
+        parseCallRecords(arena.getPhoneNumberCodec(), phoneLog, arena.getHandler(), rejections);
+        arena.getHandler().flush();
+        return arena.getBill();
+    }
 
-        callCost = calculateDurationCost(call, callDurationMinutes);
+    /**
+     * Reads the phone log line by line and passes the parsed calls to the handler.
+     *
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     * @param phoneLog the phone log to be parsed
+     * @param handler the handler of the parsed calls
+     * @param rejections the counter of rejected lines
+     * @throws IOException if the phone log cannot be read
+     * @throws ParseException if an error occurs while parsing the phone log
+     */
+    static void parseCallRecords(PhoneNumberCodec phoneNumberCodec, Reader phoneLog, CallRecordHandler handler,
+                                  RejectionCounter rejections) throws IOException, ParseException {
+        BufferedReader reader = phoneLog instanceof BufferedReader
+                ? (BufferedReader) phoneLog
+                : new BufferedReader(phoneLog);
 
-        callCost = calculateAdditionalCost(callDurationMinutes, callCost);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.split(",");
+            parseCallRecordParts(phoneNumberCodec, handler, parts, ++lineNumber, rejections);
+        }
+    }
 
-        return callCost;
+    /**
+     * Adds the calls of the lines within the given range of the phone log to a new bill.
+     *
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     * @param phoneLog the phone log to be parsed
+     * @param from the index of the first character of the range, at the start of a line
+     * @param to the index after the last character of the range
+     * @param rejections the counter of rejected lines, numbering lines from the start of the range
+     * @return the accumulated bill
+     * @throws ParseException if an error occurs while parsing the phone log
+     */
+    private BillAccumulator accumulateCallRecords(PhoneNumberCodec phoneNumberCodec, String phoneLog, int from, int to,
+                                                  RejectionCounter rejections) throws ParseException {
+        BillAccumulator bill = new BillAccumulator(phoneNumberCodec);
+        BatchingCallRecordHandler handler = new BatchingCallRecordHandler(bill, costEngine);
+
+        long lineNumber = 0;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = phoneLog.indexOf('\n', lineStart);
+            if (lineEnd < 0 || lineEnd > to) {
+                lineEnd = to;
+            }
+            String line = phoneLog.substring(lineStart, lineEnd > lineStart && phoneLog.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd);
+            parseCallRecordParts(phoneNumberCodec, handler, line.split(","), ++lineNumber, rejections);
+            lineStart = lineEnd + 1;
+        }
+        handler.flush();
+        return bill;
     }
 
     /**
-     * Calculates the duration of a call in minutes.
+     * Adds the calls stored in the given range of a memory mapped phone log file to a new bill.
      *
-     * @param call The CallRecord object representing the call.
-     * @return The duration of the call in minutes.
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     * @param phoneLog the path of the phone log file
+     * @param from the offset of the first byte of the range, at the start of a line
+     * @param to the offset after the last byte of the range
+     * @param rejections the counter of rejected lines, numbering lines from the start of the range
+     * @return the accumulated bill
+     * @throws IOException if the phone log file cannot be read
+     * @throws ParseException if an error occurs while parsing the phone log
      */
-    private long getMinutesDuration(CallRecord call) {
-        return (call.getEndTime().getTime() - call.getStartTime().getTime()) / (60 * 1000);
+    private BillAccumulator accumulateCallRecords(PhoneNumberCodec phoneNumberCodec, Path phoneLog, long from, long to,
+                                                  RejectionCounter rejections) throws IOException, ParseException {
+        BillAccumulator bill = new BillAccumulator(phoneNumberCodec);
+        BatchingCallRecordHandler handler = new BatchingCallRecordHandler(bill, costEngine);
+        new MappedCallLogReader(phoneNumberCodec).read(phoneLog, from, to, handler, rejections);
+        handler.flush();
+        return bill;
     }
 
     /**
-     * Calculates the additional cost of a call, if the call duration exceeds the specified limit.
+     * Adds the calls stored in the given range of records of a binary call log to a new bill.
      *
-     * @param callDurationMinutes the duration of the call in minutes
-     * @param callCost the cost of the call before applying additional charges
-     * @return the adjusted call cost with additional charges, if applicable
+     * @param phoneNumberCodec the codec used to encode the phone numbers
+     * @param binaryLog the path of the binary call log
+     * @param from the index of the first record of the range
+     * @param to the index after the last record of the range
+     * @return the accumulated bill
+     * @throws IOException if the binary call log cannot be read
      */
-    private BigDecimal calculateAdditionalCost(long callDurationMinutes, BigDecimal callCost) {
-        if (callDurationMinutes > LONG_CALL) {
-            callCost = callCost.add(BillingRate.ADDITIONAL_RATE.getRate()
-                    .multiply(BigDecimal.valueOf(callDurationMinutes - LONG_CALL)));
-        }
-        return callCost;
+    private BillAccumulator accumulateBinaryCallRecords(PhoneNumberCodec phoneNumberCodec, Path binaryLog, long from,
+                                                        long to) throws IOException {
+        BillAccumulator bill = new BillAccumulator(phoneNumberCodec);
+        BatchingCallRecordHandler handler = new BatchingCallRecordHandler(bill, costEngine);
+        new BinaryCallLogReader(phoneNumberCodec).read(binaryLog, from, to, handler);
+        handler.flush();
+        return bill;
     }
 
     /**
-     * Calculates the cost of a call based on its duration.
+     * Parses the parts of a call record and passes the parsed call to the handler.
      *
-     * @param call the call for which to calculate the cost
-     * @param callDurationMinutes the duration of the call in minutes
-     * @return the cost of the call
+     * @param phoneNumberCodec the codec used to encode the phone number
+     * @param handler the handler of the parsed call
+     * @param parts the array of call record parts
+     * @param lineNumber the number of the line containing the call record parts
+     * @param rejections the counter of rejected lines
+     * @throws ParseException if a date of the call record cannot be parsed
      */
-    private BigDecimal calculateDurationCost(CallRecord call, long callDurationMinutes) {
-        BigDecimal callCost;
-        if (isNormalRateHour(call)) {
-            callCost = BillingRate.NORMAL_RATE.getRate()
-                    .multiply(BigDecimal.valueOf(callDurationMinutes));
-        } else {
-            callCost = BillingRate.REDUCED_RATE.getRate()
-                    .multiply(BigDecimal.valueOf(callDurationMinutes));
+    private static void parseCallRecordParts(PhoneNumberCodec phoneNumberCodec, CallRecordHandler handler, String[] parts,
+                                      long lineNumber, RejectionCounter rejections) throws ParseException {
+        if (parts.length != PHONE_LOG_FIELDS) {
+            rejections.reject(lineNumber, RejectionReason.INVALID_FIELD_COUNT);
+            return;
         }
-        return callCost;
+        long phoneNumber = phoneNumberCodec.encode(parts[0]);
+        long startTime;
+        long endTime;
+        try {
+            startTime = TimestampParser.parseEpochSecond(parts[1]);
+            endTime = TimestampParser.parseEpochSecond(parts[2]);
+        } catch (ParseException e) {
+            rejections.reject(lineNumber, RejectionReason.UNPARSABLE_TIMESTAMP);
+            throw e;
+        }
+        handler.onCall(phoneNumber, startTime, endTime);
     }
 
     /**
-     * Determines if the given call record falls within the normal rate hour range.
-     *
-     * @param call The call record to check.
-     * @return {@code true} if the call falls within the normal rate hour range, {@code false} otherwise.
+     * Numbers of lines preceding the chunks of a phone log, counted only once a line of a chunk is rejected.
      */
-    private boolean isNormalRateHour(CallRecord call) {
-        return (call.getStartTime().getHours() >= LOW_BOUNCE) && (call.getStartTime().getHours() < UP_BOUNCE);
+    private static final class ChunkLineCounts {
+        private final long[] boundaries;
+        private final Supplier<long[]> lineCounter;
+        private long[] lineCounts;
+
+        ChunkLineCounts(long[] boundaries, Supplier<long[]> lineCounter) {
+            this.boundaries = boundaries;
+            this.lineCounter = lineCounter;
+        }
+
+        /**
+         * Returns the number of lines before the given chunk boundary, counting the lines of all chunks on first use.
+         *
+         * @param boundary the chunk boundary
+         * @return the number of lines before the boundary
+         */
+        synchronized long linesBefore(long boundary) {
+            if (lineCounts == null) {
+                lineCounts = lineCounter.get();
+            }
+            return lineCounts[Arrays.binarySearch(boundaries, boundary)];
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package com.phonecompany.billing.collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+class FrequentKeySketchTest {
+
+    @Test
+    void keepsEveryKeyOccurringMoreOftenThanDecrementCount() {
+        Random random = new Random(11);
+        for (int capacity : new int[]{1, 2, 8, 64}) {
+            FrequentKeySketch sketch = new FrequentKeySketch(capacity);
+            Map<Long, Integer> counts = new HashMap<>();
+            int n = 200_000;
+            for (int i = 0; i < n; i++) {
+                // a few heavy keys within a long tail of rare ones
+                long key = random.nextInt(4) == 0 ? random.nextInt(3) : 1_000 + random.nextInt(50_000);
+                sketch.add(key);
+                counts.merge(key, 1, Integer::sum);
+            }
+
+            long decrementCount = sketch.getDecrementCount();
+            Assertions.assertTrue(decrementCount * (capacity + 1) <= n, "decrement rounds " + decrementCount);
+            Set<Long> candidates = candidates(sketch);
+            Assertions.assertTrue(candidates.size() <= capacity);
+            counts.forEach((key, count) -> {
+                if (count > decrementCount) {
+                    Assertions.assertTrue(candidates.contains(key), "missing key " + key + " of count " + count);
+                }
+                if (count > n / (capacity + 1)) {
+                    Assertions.assertTrue(candidates.contains(key), "missing frequent key " + key);
+                }
+            });
+        }
+    }
+
+    @Test
+    void decrementsOncePerCapacityPlusOneDistinctKeys() {
+        FrequentKeySketch sketch = new FrequentKeySketch(2);
+        for (int round = 1; round <= 1_000; round++) {
+            sketch.add(1);
+            sketch.add(2);
+            Assertions.assertEquals(Set.of(1L, 2L), candidates(sketch));
+            sketch.add(3);
+            Assertions.assertEquals(round, sketch.getDecrementCount());
+            Assertions.assertEquals(Set.of(), candidates(sketch));
+        }
+    }
+
+    @Test
+    void keepsCountersAboveOneAfterDecrement() {
+        FrequentKeySketch sketch = new FrequentKeySketch(2);
+        sketch.add(1);
+        sketch.add(1);
+        sketch.add(2);
+        sketch.add(3);
+
+        Assertions.assertEquals(1, sketch.getDecrementCount());
+        Assertions.assertEquals(Set.of(1L), candidates(sketch));
+
+        sketch.add(3);
+        Assertions.assertEquals(Set.of(1L, 3L), candidates(sketch));
+    }
+
+    @Test
+    void countsZeroKey() {
+        FrequentKeySketch sketch = new FrequentKeySketch(1);
+        sketch.add(0);
+        sketch.add(0);
+        sketch.add(5);
+
+        Assertions.assertEquals(Set.of(0L), candidates(sketch));
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FrequentKeySketch(0));
+    }
+
+    private static Set<Long> candidates(FrequentKeySketch sketch) {
+        Set<Long> candidates = new HashSet<>();
+        sketch.forEachCandidate(candidates::add);
+        return candidates;
+    }
+}
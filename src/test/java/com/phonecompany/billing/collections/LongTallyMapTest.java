@@ -0,0 +1,133 @@
+package com.phonecompany.billing.collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class LongTallyMapTest {
+
+    @Test
+    void growsOnceMoreThanHalfFull() {
+        LongTallyMap tallies = new LongTallyMap(100);
+        int capacity = tallies.getCapacity();
+        Assertions.assertEquals(256, capacity);
+
+        for (long key = 1; key <= capacity / 2; key++) {
+            tallies.add(key, 1, key);
+        }
+        Assertions.assertEquals(capacity, tallies.getCapacity());
+
+        tallies.add(capacity / 2 + 1, 1, capacity / 2 + 1);
+        Assertions.assertEquals(2 * capacity, tallies.getCapacity());
+        for (long key = 1; key <= capacity / 2 + 1; key++) {
+            Assertions.assertEquals(1, tallies.getCount(key));
+            Assertions.assertEquals(key, tallies.getSum(key));
+        }
+        Assertions.assertEquals(capacity / 2 + 1, tallies.size());
+    }
+
+    @Test
+    void matchesHashMapOfRandomKeys() {
+        Random random = new Random(3);
+        LongTallyMap tallies = new LongTallyMap();
+        Map<Long, long[]> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            // packed phone numbers differ in a few high bits only
+            long key = (long) random.nextInt(5_000) << 44;
+            int count = random.nextInt(3);
+            long sum = random.nextInt(2_000) - 1_000;
+            tallies.add(key, count, sum);
+            expected.merge(key, new long[]{count, sum}, (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+        }
+
+        Assertions.assertEquals(expected.size(), tallies.size());
+        Map<Long, long[]> entries = collect(tallies);
+        Assertions.assertEquals(expected.keySet(), entries.keySet());
+        for (Map.Entry<Long, long[]> entry : expected.entrySet()) {
+            Assertions.assertEquals(entry.getValue()[0], tallies.getCount(entry.getKey()));
+            Assertions.assertEquals(entry.getValue()[1], tallies.getSum(entry.getKey()));
+            Assertions.assertArrayEquals(entry.getValue(), entries.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void findsKeysProbedPastTheLastSlot() {
+        LongTallyMap tallies = new LongTallyMap();
+        int capacity = tallies.getCapacity();
+        long[] lastSlotKeys = new long[3];
+        int found = 0;
+        for (long key = 1; found < lastSlotKeys.length; key++) {
+            if ((LongTallyMap.hash(key) & (capacity - 1)) == capacity - 1) {
+                lastSlotKeys[found++] = key;
+            }
+        }
+
+        for (long key : lastSlotKeys) {
+            tallies.add(key, 1, key);
+        }
+        Assertions.assertEquals(capacity, tallies.getCapacity());
+        // the second and third key wrap around to the first slots
+        for (long key : lastSlotKeys) {
+            Assertions.assertTrue(tallies.containsKey(key));
+            Assertions.assertEquals(key, tallies.getSum(key));
+        }
+        Assertions.assertFalse(tallies.containsKey(lastSlotKeys[2] + 1));
+        Assertions.assertEquals(3, collect(tallies).size());
+    }
+
+    @Test
+    void keepsZeroKeyOutsideTheSlots() {
+        LongTallyMap tallies = new LongTallyMap();
+        Assertions.assertFalse(tallies.containsKey(0));
+
+        tallies.add(0, 2, 5);
+        tallies.add(0, 1, -1);
+        tallies.add(7, 1, 1);
+
+        Assertions.assertTrue(tallies.containsKey(0));
+        Assertions.assertEquals(3, tallies.getCount(0));
+        Assertions.assertEquals(4, tallies.getSum(0));
+        Assertions.assertEquals(2, tallies.size());
+        Assertions.assertArrayEquals(new long[]{3, 4}, collect(tallies).get(0L));
+
+        tallies.clear();
+        Assertions.assertFalse(tallies.containsKey(0));
+        Assertions.assertFalse(tallies.containsKey(7));
+        Assertions.assertEquals(0, tallies.size());
+    }
+
+    @Test
+    void mergesMaps() {
+        LongTallyMap tallies = new LongTallyMap();
+        tallies.add(0, 1, 1);
+        tallies.add(1, 1, 10);
+        LongTallyMap other = new LongTallyMap();
+        other.add(0, 2, 2);
+        other.add(2, 1, 20);
+
+        tallies.addAll(other);
+
+        Assertions.assertEquals(3, tallies.size());
+        Assertions.assertArrayEquals(new long[]{3, 3}, collect(tallies).get(0L));
+        Assertions.assertArrayEquals(new long[]{1, 10}, collect(tallies).get(1L));
+        Assertions.assertArrayEquals(new long[]{1, 20}, collect(tallies).get(2L));
+    }
+
+    @Test
+    void failsOnOverflow() {
+        LongTallyMap tallies = new LongTallyMap();
+        tallies.add(1, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+        Assertions.assertThrows(ArithmeticException.class, () -> tallies.add(1, 1, 0));
+        Assertions.assertThrows(ArithmeticException.class, () -> tallies.add(1, 0, 1));
+    }
+
+    private static Map<Long, long[]> collect(LongTallyMap tallies) {
+        Map<Long, long[]> entries = new HashMap<>();
+        tallies.forEach((key, count, sum) -> entries.put(key, new long[]{count, sum}));
+        return entries;
+    }
+}
@@ -0,0 +1,100 @@
+package com.phonecompany.billing.collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+class SpillingTallyMapTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsEntriesInMemoryWithinTheBudget() throws IOException {
+        try (SpillingTallyMap tallies = new SpillingTallyMap(4, directory)) {
+            for (long key = 0; key < 4; key++) {
+                tallies.add(key, 1, key * 10);
+                tallies.add(key, 1, key * 10);
+            }
+
+            Assertions.assertFalse(tallies.isSpilled());
+            Map<Long, long[]> entries = collect(tallies);
+            Assertions.assertEquals(4, entries.size());
+            Assertions.assertArrayEquals(new long[]{2, 60}, entries.get(3L));
+        }
+    }
+
+    @Test
+    void spillsBeforeGrowingBeyondPowerOfTwoBudget() throws IOException {
+        int maxKeysInMemory = 1 << 10;
+        try (SpillingTallyMap tallies = new SpillingTallyMap(maxKeysInMemory, directory)) {
+            int capacity = tallies.getCapacity();
+            for (long key = 1; key <= maxKeysInMemory; key++) {
+                tallies.add(key, 1, 1);
+            }
+            Assertions.assertFalse(tallies.isSpilled());
+            Assertions.assertEquals(capacity, tallies.getCapacity());
+
+            tallies.add(maxKeysInMemory + 1, 1, 1);
+            Assertions.assertTrue(tallies.isSpilled());
+            Assertions.assertEquals(capacity, tallies.getCapacity());
+
+            for (long key = 1; key <= 10L * maxKeysInMemory; key++) {
+                tallies.add(key, 1, 1);
+            }
+            Assertions.assertEquals(capacity, tallies.getCapacity());
+            Assertions.assertEquals(10 * maxKeysInMemory, collect(tallies).size());
+            Assertions.assertEquals(capacity, tallies.getCapacity());
+        }
+    }
+
+    @Test
+    void mergesSpilledTalliesExactly() throws IOException {
+        Random random = new Random(20);
+        Map<Long, long[]> expected = new HashMap<>();
+        try (SpillingTallyMap tallies = new SpillingTallyMap(100, directory)) {
+            for (int i = 0; i < 50_000; i++) {
+                long key = i % 100 == 0 ? 0 : random.nextInt(5_000) * 0x9E3779B97F4A7C15L;
+                long sum = random.nextInt(1_000);
+                tallies.add(key, 1, sum);
+                long[] entry = expected.computeIfAbsent(key, k -> new long[2]);
+                entry[0]++;
+                entry[1] += sum;
+            }
+
+            Assertions.assertTrue(tallies.isSpilled());
+            Map<Long, long[]> entries = collect(tallies);
+            Assertions.assertEquals(expected.keySet(), entries.keySet());
+            expected.forEach((key, entry) -> Assertions.assertArrayEquals(entry, entries.get(key), "key " + key));
+        }
+    }
+
+    @Test
+    void deletesTemporaryFilesWhenClosed() throws IOException {
+        SpillingTallyMap tallies = new SpillingTallyMap(10, directory);
+        for (long key = 1; key <= 1_000; key++) {
+            tallies.add(key, 1, 1);
+        }
+        Assertions.assertTrue(tallies.isSpilled());
+        tallies.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    private static Map<Long, long[]> collect(SpillingTallyMap tallies) throws IOException {
+        Map<Long, long[]> entries = new HashMap<>();
+        tallies.forEach((key, count, sum) ->
+                Assertions.assertNull(entries.put(key, new long[]{count, sum}), "key passed twice: " + key));
+        return entries;
+    }
+}
@@ -0,0 +1,35 @@
+package com.phonecompany.billing.domain.entities;
+
+import com.phonecompany.billing.services.BulkBillCalculator;
+import com.phonecompany.billing.services.TelephoneBillCalculatorImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+class BillTableTest {
+
+    @Test
+    void returnsAmountsWithTheScaleOfTheTable() {
+        BillTable bills = new BillTable(2);
+        for (int i = 0; i < 20; i++) {
+            bills.add("subscriber" + i, i * 25);
+        }
+
+        Assertions.assertEquals(20, bills.size());
+        Assertions.assertEquals("subscriber17", bills.getSubscriberId(17));
+        Assertions.assertEquals(425, bills.getTotalCost(17));
+        Assertions.assertEquals(new BigDecimal("4.25"), bills.getAmount(17));
+        Assertions.assertEquals(new BigDecimal("0.00"), bills.getAmount(0));
+    }
+
+    @Test
+    void returnsAmountOfFreeBillAsTheCalculator() {
+        String phoneLog = "420774567453,13-01-2020 18:10:15,13-01-2020 18:12:57\n";
+
+        BillTable bills = new BulkBillCalculator().calculate(Stream.of(new SubscriberLog("subscriber", phoneLog)));
+
+        Assertions.assertEquals(new TelephoneBillCalculatorImpl().calculate(phoneLog), bills.getAmount(0));
+    }
+}
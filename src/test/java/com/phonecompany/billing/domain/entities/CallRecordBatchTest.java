@@ -0,0 +1,45 @@
+package com.phonecompany.billing.domain.entities;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CallRecordBatchTest {
+
+    @Test
+    void storesCallsOutsideTheUnsignedIntRange() {
+        CallRecordBatch batch = new CallRecordBatch(1);
+        batch.add(1, -86_400, -86_400 + 600);
+        batch.add(2, 5_000_000_000L, 5_000_000_000L + 60);
+        batch.add(3, 0, 3_000_000_000L);
+
+        Assertions.assertEquals(3, batch.size());
+        Assertions.assertEquals(-86_400, batch.getStartTime(0));
+        Assertions.assertEquals(-86_400 + 600, batch.getEndTime(0));
+        Assertions.assertEquals(5_000_000_000L, batch.getStartTime(1));
+        Assertions.assertEquals(5_000_000_060L, batch.getEndTime(1));
+        Assertions.assertEquals(3, batch.getPhoneNumber(2));
+        Assertions.assertEquals(3_000_000_000L, batch.getEndTime(2));
+    }
+
+    @Test
+    void growsWhenFullAndKeepsCapacityWhenCleared() {
+        CallRecordBatch batch = new CallRecordBatch(2);
+        batch.add(1, 0, 60);
+        batch.add(2, 60, 120);
+        Assertions.assertTrue(batch.isFull());
+
+        batch.add(3, 120, 180);
+        Assertions.assertFalse(batch.isFull());
+        Assertions.assertEquals(2, batch.getPhoneNumber(1));
+        Assertions.assertEquals(180, batch.getEndTime(2));
+
+        batch.clear();
+        Assertions.assertTrue(batch.isEmpty());
+        for (int i = 0; i < 15; i++) {
+            batch.add(i, 0, 0);
+        }
+        Assertions.assertFalse(batch.isFull());
+        batch.add(15, 0, 0);
+        Assertions.assertTrue(batch.isFull());
+    }
+}
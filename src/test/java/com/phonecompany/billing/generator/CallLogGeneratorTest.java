@@ -0,0 +1,106 @@
+package com.phonecompany.billing.generator;
+
+import com.phonecompany.billing.parsers.RejectionPolicy;
+import com.phonecompany.billing.parsers.TimestampParser;
+import com.phonecompany.billing.services.FixedPointCostEngine;
+import com.phonecompany.billing.services.TelephoneBillCalculatorImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+class CallLogGeneratorTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 9, 1);
+
+    @Test
+    void generatesSameLogForSameSeed() throws IOException {
+        CallLogGenerator generator = generator(0.05, false, 10);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        generator.write(output, 20_000);
+
+        Assertions.assertEquals(generator.generate(20_000), output.toString(StandardCharsets.US_ASCII));
+        Assertions.assertEquals(generator.generate(20_000), generator(0.05, false, 10).generate(20_000));
+        Assertions.assertNotEquals(generator.generate(20_000), generator(0.05, false, 11).generate(20_000));
+    }
+
+    @Test
+    void generatesValidLinesWhichRoundTripThroughTimestampParser() throws ParseException {
+        long firstSecond = FIRST_DAY.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        byte[] timestamp = new byte[TimestampParser.TIMESTAMP_LENGTH];
+        for (String line : generator(0, false, 10).generate(20_000).split("\n")) {
+            String[] fields = line.split(",", -1);
+            Assertions.assertEquals(3, fields.length, line);
+            long phoneNumber = Long.parseLong(fields[0]);
+            Assertions.assertTrue(phoneNumber >= 420_600_000_000L && phoneNumber < 420_600_001_000L, line);
+
+            long startTime = TimestampParser.parseEpochSecond(fields[1]);
+            long endTime = TimestampParser.parseEpochSecond(fields[2]);
+            Assertions.assertTrue(startTime >= firstSecond && startTime < firstSecond + 7 * 86_400, line);
+            Assertions.assertTrue(endTime >= startTime && endTime <= startTime + 4 * 3_600, line);
+            TimestampParser.format(startTime, timestamp, 0);
+            Assertions.assertEquals(fields[1], new String(timestamp, StandardCharsets.US_ASCII));
+            TimestampParser.format(endTime, timestamp, 0);
+            Assertions.assertEquals(fields[2], new String(timestamp, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void malformsConfiguredFractionOfLinesInSkippableWays() throws ParseException {
+        String phoneLog = generator(0.05, false, 10).generate(100_000);
+        StringBuilder validLines = new StringBuilder();
+        int malformedLines = 0;
+        for (String line : phoneLog.split("\n", -1)) {
+            String[] fields = line.split(",", -1);
+            if (fields.length != 3) {
+                malformedLines++;
+                continue;
+            }
+            TimestampParser.parseEpochSecond(fields[1]);
+            TimestampParser.parseEpochSecond(fields[2]);
+            validLines.append(line).append('\n');
+        }
+        // the split yields an extra empty string after the last line break
+        malformedLines--;
+
+        Assertions.assertEquals(0.05, malformedLines / 100_000.0, 0.005);
+        TelephoneBillCalculatorImpl calculator = new TelephoneBillCalculatorImpl(null, new FixedPointCostEngine(),
+                RejectionPolicy.builder().sink((lineNumber, reason) -> { }).build());
+        BigDecimal totalCost = calculator.calculate(phoneLog);
+        Assertions.assertTrue(totalCost.signum() > 0);
+        Assertions.assertEquals(calculator.calculate(validLines.toString()), totalCost);
+    }
+
+    @Test
+    void addsUnparsableTimestampsOnlyOnRequest() {
+        String phoneLog = generator(0.05, true, 10).generate(10_000);
+        int badTimestamps = 0;
+        for (String line : phoneLog.split("\n")) {
+            String[] fields = line.split(",", -1);
+            try {
+                if (fields.length == 3) {
+                    TimestampParser.parseEpochSecond(fields[1]);
+                }
+            } catch (ParseException e) {
+                badTimestamps++;
+            }
+        }
+
+        Assertions.assertTrue(badTimestamps > 0);
+    }
+
+    private static CallLogGenerator generator(double malformedFraction, boolean badTimestamps, long seed) {
+        return CallLogGenerator.builder()
+                .phoneNumberCount(1_000)
+                .period(FIRST_DAY, 7)
+                .malformedFraction(malformedFraction)
+                .badTimestamps(badTimestamps)
+                .seed(seed)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.phonecompany.billing.generator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+class ZipfDistributionTest {
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    void drawsRanksWithProbabilitiesProportionalToPowersOfTheRank() {
+        for (double exponent : new double[]{0.0, 0.5, 1.0, 1.2, 2.0}) {
+            int numberOfElements = 20;
+            long[] counts = sample(new ZipfDistribution(numberOfElements, exponent), numberOfElements, 16);
+
+            double normalization = 0;
+            for (int rank = 1; rank <= numberOfElements; rank++) {
+                normalization += Math.pow(rank, -exponent);
+            }
+            for (int rank = 1; rank <= numberOfElements; rank++) {
+                double expected = SAMPLES * Math.pow(rank, -exponent) / normalization;
+                // five standard deviations of the binomial count
+                Assertions.assertEquals(expected, counts[rank], 5 * Math.sqrt(expected) + 1,
+                        "Exponent " + exponent + ", rank " + rank);
+            }
+        }
+    }
+
+    @Test
+    void drawsRanksWithinRangeOfLargeDistributions() {
+        int numberOfElements = 50_000_000;
+        ZipfDistribution distribution = new ZipfDistribution(numberOfElements, 1.0);
+        SplittableRandom random = new SplittableRandom(10);
+        int maxRank = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            int rank = distribution.sample(random);
+            Assertions.assertTrue(rank >= 1 && rank <= numberOfElements);
+            maxRank = Math.max(maxRank, rank);
+        }
+        Assertions.assertTrue(maxRank > numberOfElements / 10);
+    }
+
+    @Test
+    void drawsOnlyRankOfSingleElement() {
+        long[] counts = sample(new ZipfDistribution(1, 1.5), 1, 10);
+
+        Assertions.assertEquals(SAMPLES, counts[1]);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(0, 1.0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(10, -0.1));
+    }
+
+    private static long[] sample(ZipfDistribution distribution, int numberOfElements, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] counts = new long[numberOfElements + 1];
+        for (int i = 0; i < SAMPLES; i++) {
+            int rank = distribution.sample(random);
+            Assertions.assertTrue(rank >= 1 && rank <= numberOfElements, "Rank " + rank);
+            counts[rank]++;
+        }
+        return counts;
+    }
+}
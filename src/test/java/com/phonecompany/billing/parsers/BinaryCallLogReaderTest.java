@@ -0,0 +1,164 @@
+package com.phonecompany.billing.parsers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class BinaryCallLogReaderTest {
+    private static final long FIRST_START = LocalDateTime.of(2023, 9, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final String[] PHONE_NUMBERS = {"420774567453", "+420777777777", "0", "1234567890123456",
+            "12345678901234567", "", "420 774 567 453", "čísło"};
+
+    private static final long MAX_SEGMENT_RECORDS = Integer.MAX_VALUE / BinaryCallLogFormat.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsWrittenCallsBack() throws IOException {
+        Path binaryLog = directory.resolve("calls.bin");
+        List<String> calls = writeLog(binaryLog, 5_000);
+
+        Assertions.assertEquals(calls.size(), BinaryCallLogReader.getRecordCount(binaryLog));
+        Assertions.assertEquals(calls, read(binaryLog, MAX_SEGMENT_RECORDS, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void readsRangesOfRecordsInSegments() throws IOException {
+        Path binaryLog = directory.resolve("calls.bin");
+        List<String> calls = writeLog(binaryLog, 1_000);
+        Assertions.assertEquals(calls, read(binaryLog, 7, 0, Long.MAX_VALUE));
+        List<String> ranges = new ArrayList<>();
+        for (long from = 0; from < calls.size(); from += 333) {
+            ranges.addAll(read(binaryLog, 7, from, from + 333));
+        }
+        Assertions.assertEquals(calls, ranges);
+        Assertions.assertEquals(calls.subList(990, 1_000), read(binaryLog, 7, 990, 2_000));
+    }
+
+    @Test
+    void readsEmptyLog() throws IOException {
+        Path binaryLog = directory.resolve("empty.bin");
+        writeLog(binaryLog, 0);
+
+        Assertions.assertEquals(0, BinaryCallLogReader.getRecordCount(binaryLog));
+        Assertions.assertEquals(List.of(), read(binaryLog, MAX_SEGMENT_RECORDS, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void refusesCallsTooFarFromTheFirstCall() throws IOException {
+        try (BinaryCallLogWriter writer = new BinaryCallLogWriter(directory.resolve("calls.bin"))) {
+            writer.onCall(writer.getPhoneNumberCodec().encode("420774567453"), FIRST_START, FIRST_START + 60);
+            long phoneNumber = writer.getPhoneNumberCodec().encode("420774567453");
+
+            writer.onCall(phoneNumber, FIRST_START + Integer.MAX_VALUE, FIRST_START + Integer.MAX_VALUE);
+            writer.onCall(phoneNumber, FIRST_START + Integer.MIN_VALUE, FIRST_START + Integer.MIN_VALUE + 60);
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> writer.onCall(phoneNumber, FIRST_START + Integer.MAX_VALUE + 1L, FIRST_START + Integer.MAX_VALUE + 1L));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> writer.onCall(phoneNumber, FIRST_START + Integer.MIN_VALUE - 1L, FIRST_START));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> writer.onCall(phoneNumber, FIRST_START, FIRST_START + Integer.MAX_VALUE + 1L));
+            Assertions.assertEquals(3, writer.getRecordCount());
+        }
+    }
+
+    @Test
+    void deletesBinaryLogWhenConversionFails() throws Exception {
+        Path textLog = Files.writeString(directory.resolve("calls.csv"),
+                "420774567453,01-09-1923 10:00:00,01-09-1923 10:01:00\n"
+                        + "420774567453,01-09-2023 10:00:00,01-09-2023 10:01:00\n");
+        Path binaryLog = directory.resolve("calls.bin");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                BinaryCallLogWriter.convert(textLog, binaryLog, RejectionPolicy.defaultPolicy().open()));
+        Assertions.assertFalse(Files.exists(binaryLog));
+    }
+
+    @Test
+    void rejectsInvalidHeaders() throws IOException {
+        Path binaryLog = directory.resolve("calls.bin");
+        writeLog(binaryLog, 10);
+
+        assertRejected(binaryLog, BinaryCallLogFormat.MAGIC_OFFSET, 0x54434C42);
+        assertRejected(binaryLog, BinaryCallLogFormat.VERSION_OFFSET, BinaryCallLogFormat.VERSION + 1);
+        assertRejected(binaryLog, BinaryCallLogFormat.RECORD_SIZE_OFFSET, BinaryCallLogFormat.RECORD_SIZE * 2);
+        assertRejected(binaryLog, BinaryCallLogFormat.RECORD_COUNT_OFFSET, 1_000);
+        assertRejected(binaryLog, BinaryCallLogFormat.RECORD_COUNT_OFFSET, -1);
+        assertRejected(binaryLog, BinaryCallLogFormat.DICTIONARY_SIZE_OFFSET, -1);
+        assertRejected(binaryLog, BinaryCallLogFormat.DICTIONARY_SIZE_OFFSET, 1_000);
+
+        Path truncated = Files.write(directory.resolve("truncated.bin"),
+                new byte[BinaryCallLogFormat.HEADER_SIZE - 1]);
+        Assertions.assertThrows(IOException.class, () -> BinaryCallLogReader.getRecordCount(truncated));
+        Path text = Files.writeString(directory.resolve("calls.csv"),
+                "420774567453,01-09-2023 10:00:00,01-09-2023 10:01:00\n");
+        Assertions.assertThrows(IOException.class, () -> BinaryCallLogReader.getRecordCount(text));
+    }
+
+    /**
+     * Overwrites a header field of a copy of the given binary call log and asserts that reading the copy fails.
+     */
+    private void assertRejected(Path binaryLog, int offset, long value) throws IOException {
+        Path corrupted = Files.copy(binaryLog, directory.resolve("corrupted.bin"));
+        try {
+            ByteBuffer field = ByteBuffer.allocate(
+                    offset == BinaryCallLogFormat.RECORD_COUNT_OFFSET ? Long.BYTES : Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (field.capacity() == Long.BYTES) {
+                field.putLong(0, value);
+            } else {
+                field.putInt(0, (int) value);
+            }
+            try (FileChannel channel = FileChannel.open(corrupted, StandardOpenOption.WRITE)) {
+                channel.write(field, offset);
+            }
+
+            Assertions.assertThrows(IOException.class,
+                    () -> read(corrupted, MAX_SEGMENT_RECORDS, 0, Long.MAX_VALUE), "Offset " + offset);
+        } finally {
+            Files.delete(corrupted);
+        }
+    }
+
+    /**
+     * Writes random calls, including phone numbers kept in the dictionary, and returns them as
+     * {@code phoneNumber,startTime,endTime} in the order they were written.
+     */
+    private static List<String> writeLog(Path binaryLog, int callCount) throws IOException {
+        Random random = new Random(23);
+        List<String> calls = new ArrayList<>();
+        try (BinaryCallLogWriter writer = new BinaryCallLogWriter(binaryLog)) {
+            for (int i = 0; i < callCount; i++) {
+                String phoneNumber = PHONE_NUMBERS[random.nextInt(PHONE_NUMBERS.length)];
+                long startTime = FIRST_START + random.nextInt() / 2;
+                long endTime = startTime + (i % 100 == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(3_600));
+                writer.onCall(writer.getPhoneNumberCodec().encode(phoneNumber), startTime, endTime);
+                calls.add(phoneNumber + "," + startTime + "," + endTime);
+            }
+        }
+        return calls;
+    }
+
+    private static List<String> read(Path binaryLog, long maxSegmentRecords, long from, long to) throws IOException {
+        PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+        List<String> calls = new ArrayList<>();
+        new BinaryCallLogReader(phoneNumberCodec, maxSegmentRecords).read(binaryLog, from, to,
+                (phoneNumber, startTime, endTime) ->
+                        calls.add(phoneNumberCodec.decode(phoneNumber) + "," + startTime + "," + endTime));
+        return calls;
+    }
+}
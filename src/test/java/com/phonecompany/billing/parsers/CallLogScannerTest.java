@@ -0,0 +1,149 @@
+package com.phonecompany.billing.parsers;
+
+import com.phonecompany.billing.generator.CallLogGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+class CallLogScannerTest {
+
+    @Test
+    void parsesLinesEndingWithCarriageReturns() throws Exception {
+        List<String> calls = scan("420774567453,13-01-2020 18:10:15,13-01-2020 18:12:57\r\n"
+                + "420776562353,18-01-2020 08:59:20,18-01-2020 09:10:00\r\n");
+
+        Assertions.assertEquals(List.of(
+                "420774567453 13-01-2020 18:10:15 13-01-2020 18:12:57",
+                "420776562353 18-01-2020 08:59:20 18-01-2020 09:10:00"), calls);
+    }
+
+    @Test
+    void ignoresTrailingEmptyFieldsLikeStringSplit() throws Exception {
+        List<Long> rejectedLines = new ArrayList<>();
+        List<String> calls = scan("420774567453,13-01-2020 18:10:15,13-01-2020 18:12:57,,\n"
+                        + "420774567453,13-01-2020 18:10:15,,13-01-2020 18:12:57\n"
+                        + "420774567453,13-01-2020 18:10:15\n"
+                        + "\n"
+                        + "420776562353,18-01-2020 08:59:20,18-01-2020 09:10:00",
+                rejectionCounter(rejectedLines));
+
+        Assertions.assertEquals(List.of(
+                "420774567453 13-01-2020 18:10:15 13-01-2020 18:12:57",
+                "420776562353 18-01-2020 08:59:20 18-01-2020 09:10:00"), calls);
+        Assertions.assertEquals(List.of(2L, 3L, 4L), rejectedLines);
+    }
+
+    @Test
+    void keepsNonNumericPhoneNumbers() throws Exception {
+        List<String> calls = scan("+420 774 567 453,13-01-2020 18:10:15,13-01-2020 18:12:57\n"
+                + "00420774567453,13-01-2020 18:10:15,13-01-2020 18:12:57\n");
+
+        Assertions.assertEquals(List.of(
+                "+420 774 567 453 13-01-2020 18:10:15 13-01-2020 18:12:57",
+                "00420774567453 13-01-2020 18:10:15 13-01-2020 18:12:57"), calls);
+    }
+
+    @Test
+    void reportsUnparsableTimestampWithItsLineNumber() {
+        List<Long> rejectedLines = new ArrayList<>();
+
+        Assertions.assertThrows(ParseException.class, () -> scan("420774567453,13-01-2020 18:10:15,13-01-2020 18:12:57\n"
+                + "420774567453,yesterday,13-01-2020 18:12:57\n", rejectionCounter(rejectedLines)));
+        Assertions.assertEquals(List.of(2L), rejectedLines);
+    }
+
+    @Test
+    void scansStreamsReadInSmallPieces() throws Exception {
+        String phoneLog = generateWithInvalidLines(5_000);
+        List<Long> expectedRejectedLines = new ArrayList<>();
+        List<String> expected = scan(phoneLog, rejectionCounter(expectedRejectedLines));
+
+        PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+        List<String> calls = new ArrayList<>();
+        List<Long> rejectedLines = new ArrayList<>();
+        InputStream trickle = new ByteArrayInputStream(phoneLog.getBytes(StandardCharsets.US_ASCII)) {
+            @Override
+            public synchronized int read(byte[] bytes, int offset, int length) {
+                return super.read(bytes, offset, Math.min(length, 7));
+            }
+        };
+        new CallLogScanner(phoneNumberCodec).scan(trickle, collector(phoneNumberCodec, calls),
+                rejectionCounter(rejectedLines));
+
+        Assertions.assertEquals(expected, calls);
+        Assertions.assertEquals(expectedRejectedLines, rejectedLines);
+        Assertions.assertFalse(rejectedLines.isEmpty());
+    }
+
+    @Test
+    void numbersLinesOfChunksWithinTheWholeLog() throws Exception {
+        String phoneLog = generateWithInvalidLines(10_000);
+        byte[] bytes = phoneLog.getBytes(StandardCharsets.US_ASCII);
+        List<Long> expectedRejectedLines = new ArrayList<>();
+        scan(phoneLog, rejectionCounter(expectedRejectedLines));
+
+        long[] boundaries = CallLogChunker.split(phoneLog, 7);
+        long[] linesBefore = CallLogChunker.countLines(phoneLog, boundaries);
+        List<Long> rejectedLines = new ArrayList<>();
+        RejectionCounter rejections = rejectionCounter(rejectedLines);
+        CallLogScanner scanner = new CallLogScanner(new PhoneNumberCodec());
+        for (int chunk = boundaries.length - 2; chunk >= 0; chunk--) {
+            long precedingLines = linesBefore[chunk];
+            long nextLineNumber = scanner.scan(bytes, (int) boundaries[chunk], (int) boundaries[chunk + 1], 1,
+                    (phoneNumber, startTime, endTime) -> {
+                    }, rejections.startingAfter(() -> precedingLines));
+            Assertions.assertEquals(linesBefore[chunk + 1] - precedingLines + 1, nextLineNumber);
+        }
+
+        List<Long> sortedRejectedLines = new ArrayList<>(rejectedLines);
+        sortedRejectedLines.sort(null);
+        Assertions.assertEquals(expectedRejectedLines, sortedRejectedLines);
+        Assertions.assertEquals(expectedRejectedLines.size(), rejections.getCount(RejectionReason.INVALID_FIELD_COUNT));
+    }
+
+    /**
+     * Generates a phone log whose every 37th line lacks its end field.
+     */
+    private static String generateWithInvalidLines(int lines) {
+        String[] phoneLogLines = CallLogGenerator.builder().seed(21).build().generate(lines).split("\n");
+        for (int line = 36; line < phoneLogLines.length; line += 37) {
+            phoneLogLines[line] = phoneLogLines[line].substring(0, phoneLogLines[line].lastIndexOf(','));
+        }
+        return String.join("\n", phoneLogLines) + "\n";
+    }
+
+    private static List<String> scan(String phoneLog) throws Exception {
+        return scan(phoneLog, rejectionCounter(new ArrayList<>()));
+    }
+
+    private static List<String> scan(String phoneLog, RejectionCounter rejections) throws Exception {
+        PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+        List<String> calls = new ArrayList<>();
+        byte[] bytes = phoneLog.getBytes(StandardCharsets.US_ASCII);
+        new CallLogScanner(phoneNumberCodec).scan(bytes, 0, bytes.length, 1, collector(phoneNumberCodec, calls),
+                rejections);
+        return calls;
+    }
+
+    private static CallRecordHandler collector(PhoneNumberCodec phoneNumberCodec, List<String> calls) {
+        byte[] start = new byte[TimestampParser.TIMESTAMP_LENGTH];
+        byte[] end = new byte[TimestampParser.TIMESTAMP_LENGTH];
+        return (phoneNumber, startTime, endTime) -> {
+            TimestampParser.format(startTime, start, 0);
+            TimestampParser.format(endTime, end, 0);
+            calls.add(phoneNumberCodec.decode(phoneNumber) + " " + new String(start, StandardCharsets.US_ASCII)
+                    + " " + new String(end, StandardCharsets.US_ASCII));
+        };
+    }
+
+    private static RejectionCounter rejectionCounter(List<Long> rejectedLines) {
+        return RejectionPolicy.builder().sink((lineNumber, reason) -> rejectedLines.add(lineNumber))
+                .maxReported(Long.MAX_VALUE).build().open();
+    }
+}
@@ -0,0 +1,79 @@
+package com.phonecompany.billing.parsers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+class ColumnarCallStoreFormatTest {
+    private static final long[] EXTREMES = {0, 1, -1, 63, -64, 64, -65, 127, 128, 16_383, 16_384,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1};
+
+    @Test
+    void readsVariableLengthIntegersBack() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ColumnarCallStoreFormat.MAX_VARIABLE_LENGTH * 1_000);
+        Random random = new Random(24);
+        for (int i = 0; i < 1_000; i++) {
+            long[] values = new long[100];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = j < EXTREMES.length ? EXTREMES[j] : random.nextLong() >>> random.nextInt(Long.SIZE);
+            }
+            buffer.clear();
+            for (long value : values) {
+                ColumnarCallStoreFormat.putVariableLength(buffer, value);
+            }
+            buffer.flip();
+            for (long value : values) {
+                Assertions.assertEquals(value, ColumnarCallStoreFormat.getVariableLength(buffer));
+            }
+            Assertions.assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void writesSevenBitsPerByte() {
+        Assertions.assertEquals(1, encodedLength(0));
+        Assertions.assertEquals(1, encodedLength(127));
+        Assertions.assertEquals(2, encodedLength(128));
+        Assertions.assertEquals(9, encodedLength(Long.MAX_VALUE));
+        Assertions.assertEquals(ColumnarCallStoreFormat.MAX_VARIABLE_LENGTH, encodedLength(-1));
+    }
+
+    @Test
+    void rejectsTruncatedAndOverlongIntegers() {
+        ByteBuffer truncated = ByteBuffer.wrap(new byte[]{(byte) 0x80, (byte) 0x81});
+        Assertions.assertThrows(IOException.class, () -> ColumnarCallStoreFormat.getVariableLength(truncated));
+
+        byte[] overlong = new byte[ColumnarCallStoreFormat.MAX_VARIABLE_LENGTH + 1];
+        Arrays.fill(overlong, (byte) 0x80);
+        Assertions.assertThrows(IOException.class,
+                () -> ColumnarCallStoreFormat.getVariableLength(ByteBuffer.wrap(overlong)));
+    }
+
+    @Test
+    void mapsSignedValuesCloseToZeroToSmallValues() {
+        Assertions.assertEquals(0, ColumnarCallStoreFormat.zigzag(0));
+        Assertions.assertEquals(1, ColumnarCallStoreFormat.zigzag(-1));
+        Assertions.assertEquals(2, ColumnarCallStoreFormat.zigzag(1));
+        Assertions.assertEquals(-2, ColumnarCallStoreFormat.zigzag(Long.MAX_VALUE));
+        Assertions.assertEquals(-1, ColumnarCallStoreFormat.zigzag(Long.MIN_VALUE));
+
+        Random random = new Random(24);
+        for (int i = 0; i < 100_000; i++) {
+            long value = i < EXTREMES.length ? EXTREMES[i] : random.nextLong() >> random.nextInt(Long.SIZE);
+            Assertions.assertEquals(value, ColumnarCallStoreFormat.unzigzag(ColumnarCallStoreFormat.zigzag(value)));
+            if (value > -(1L << 62) && value < 1L << 62) {
+                Assertions.assertEquals(value >= 0 ? 2 * value : -2 * value - 1, ColumnarCallStoreFormat.zigzag(value));
+            }
+        }
+    }
+
+    private static int encodedLength(long value) {
+        ByteBuffer buffer = ByteBuffer.allocate(ColumnarCallStoreFormat.MAX_VARIABLE_LENGTH);
+        ColumnarCallStoreFormat.putVariableLength(buffer, value);
+        return buffer.position();
+    }
+}
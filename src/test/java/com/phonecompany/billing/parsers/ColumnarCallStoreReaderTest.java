@@ -0,0 +1,134 @@
+package com.phonecompany.billing.parsers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+class ColumnarCallStoreReaderTest {
+    private static final long FIRST_START = LocalDateTime.of(2023, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final String[] PHONE_NUMBERS = {"420774567453", "420776562353", "+420777777777", "0", "1234567890123456",
+            "12345678901234567", "", "420 774 567 453"};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsWrittenCallsBack() throws IOException {
+        Path store = directory.resolve("calls.store");
+        List<String> calls = writeStore(store, 10_000, 100, false);
+
+        Assertions.assertEquals(calls, read(store, CallStoreQuery.all()));
+    }
+
+    @Test
+    void readsEmptyStore() throws IOException {
+        Path store = directory.resolve("empty.store");
+        Assertions.assertEquals(List.of(), writeStore(store, 0, 100, false));
+
+        Assertions.assertEquals(List.of(), read(store, CallStoreQuery.all()));
+    }
+
+    @Test
+    void readsSelectedCallsOnly() throws IOException {
+        Path store = directory.resolve("calls.store");
+        List<String> calls = writeStore(store, 10_000, 64, false);
+        LocalDateTime from = LocalDateTime.of(2023, 1, 3, 12, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 1, 5, 0, 0);
+        CallStoreQuery query = CallStoreQuery.builder()
+                .startingFrom(from)
+                .startingBefore(to)
+                .phoneNumbers(Set.of("+420777777777", "420774567453", "999"))
+                .build();
+
+        List<String> expected = new ArrayList<>();
+        for (String call : calls) {
+            String[] fields = call.split(",");
+            long startTime = Long.parseLong(fields[1]);
+            if (query.getPhoneNumbers().contains(fields[0]) && startTime >= from.toEpochSecond(ZoneOffset.UTC)
+                    && startTime < to.toEpochSecond(ZoneOffset.UTC)) {
+                expected.add(call);
+            }
+        }
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected, read(store, query));
+    }
+
+    @Test
+    void skipsBlocksOutsideTheQueriedTimeRange() throws IOException {
+        Path store = directory.resolve("sorted.store");
+        writeStore(store, 10_000, 100, true);
+        CallStoreQuery query = CallStoreQuery.builder()
+                .startingFrom(LocalDateTime.ofEpochSecond(FIRST_START + 5_000 * 60, 0, ZoneOffset.UTC))
+                .startingBefore(LocalDateTime.ofEpochSecond(FIRST_START + 5_250 * 60, 0, ZoneOffset.UTC))
+                .build();
+
+        Logger logger = Logger.getLogger(ColumnarCallStoreReader.class.getName());
+        List<String> messages = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord logRecord) {
+                messages.add(logRecord.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Level level = logger.getLevel();
+        logger.setLevel(Level.FINE);
+        logger.addHandler(handler);
+        try {
+            Assertions.assertEquals(250, read(store, query).size());
+        } finally {
+            logger.removeHandler(handler);
+            logger.setLevel(level);
+        }
+        Assertions.assertEquals(1, messages.size());
+        Assertions.assertTrue(messages.get(0).startsWith("Read 3 of 100 blocks "), messages.get(0));
+    }
+
+    /**
+     * Writes random calls to a store, one call a minute if they are sorted, and returns them as
+     * {@code phoneNumber,startTime,endTime} in the order they were written.
+     */
+    private static List<String> writeStore(Path store, int callCount, int blockSize, boolean sorted) throws IOException {
+        Random random = new Random(24);
+        List<String> calls = new ArrayList<>();
+        try (ColumnarCallStoreWriter writer = new ColumnarCallStoreWriter(store, blockSize)) {
+            PhoneNumberCodec phoneNumberCodec = writer.getPhoneNumberCodec();
+            for (int i = 0; i < callCount; i++) {
+                String phoneNumber = PHONE_NUMBERS[random.nextInt(PHONE_NUMBERS.length)];
+                long startTime = sorted ? FIRST_START + i * 60L : FIRST_START + random.nextInt(7 * 24 * 60 * 60);
+                long endTime = startTime + (i % 100 == 0 ? random.nextInt(1 << 30) : random.nextInt(3_600));
+                writer.onCall(phoneNumberCodec.encode(phoneNumber), startTime, endTime);
+                calls.add(phoneNumber + "," + startTime + "," + endTime);
+            }
+        }
+        return calls;
+    }
+
+    private static List<String> read(Path store, CallStoreQuery query) throws IOException {
+        PhoneNumberCodec phoneNumberCodec = new PhoneNumberCodec();
+        List<String> calls = new ArrayList<>();
+        new ColumnarCallStoreReader(phoneNumberCodec).read(store, query, (phoneNumber, startTime, endTime) ->
+                calls.add(phoneNumberCodec.decode(phoneNumber) + "," + startTime + "," + endTime));
+        return calls;
+    }
+}
@@ -0,0 +1,92 @@
+package com.phonecompany.billing.parsers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class PhoneNumberCodecTest {
+    private final PhoneNumberCodec codec = new PhoneNumberCodec();
+
+    @Test
+    void comparesCodesLikeStrings() {
+        List<String> phoneNumbers = phoneNumbers();
+        List<Long> codes = new ArrayList<>();
+        for (String phoneNumber : phoneNumbers) {
+            codes.add(codec.encode(phoneNumber));
+        }
+
+        for (int i = 0; i < phoneNumbers.size(); i++) {
+            for (int j = 0; j < phoneNumbers.size(); j++) {
+                String first = phoneNumbers.get(i);
+                String second = phoneNumbers.get(j);
+                Assertions.assertEquals(Integer.signum(first.compareTo(second)),
+                        Integer.signum(codec.compare(codes.get(i), codes.get(j))), first + " <> " + second);
+            }
+        }
+    }
+
+    @Test
+    void decodesEncodedPhoneNumbers() {
+        for (String phoneNumber : phoneNumbers()) {
+            byte[] bytes = ("," + phoneNumber + ",").getBytes(StandardCharsets.UTF_8);
+            long code = codec.encode(phoneNumber);
+
+            Assertions.assertEquals(phoneNumber, codec.decode(code));
+            Assertions.assertEquals(code, codec.encode("," + phoneNumber + ",", 1, phoneNumber.length() + 1));
+            Assertions.assertEquals(code, codec.encode(bytes, 1, bytes.length - 1));
+            Assertions.assertEquals(code, codec.encode(ByteBuffer.wrap(bytes), 1, bytes.length - 1));
+            Assertions.assertEquals(code, codec.find(phoneNumber));
+        }
+    }
+
+    @Test
+    void packsOnlyDigitStringsUpToSixteenDigits() {
+        Assertions.assertTrue(PhoneNumberCodec.isPacked(codec.encode("0")));
+        Assertions.assertTrue(PhoneNumberCodec.isPacked(codec.encode("9999999999999999")));
+        Assertions.assertFalse(PhoneNumberCodec.isPacked(codec.encode("99999999999999999")));
+        Assertions.assertFalse(PhoneNumberCodec.isPacked(codec.encode("")));
+        Assertions.assertFalse(PhoneNumberCodec.isPacked(codec.encode("+420774577453")));
+        Assertions.assertFalse(PhoneNumberCodec.isPacked(codec.encode("42077457745/")));
+        Assertions.assertFalse(PhoneNumberCodec.isPacked(codec.encode("42077457745:")));
+        Assertions.assertFalse(PhoneNumberCodec.isPacked(codec.encode(new byte[]{'4', (byte) 0xB0}, 0, 2)));
+    }
+
+    @Test
+    void findsOnlyEncodedDictionaryNumbers() {
+        Assertions.assertEquals(PhoneNumberCodec.NOT_FOUND, codec.find("+420774577453"));
+        Assertions.assertTrue(PhoneNumberCodec.isPacked(codec.find("420774577453")));
+
+        long code = codec.encode("+420774577453");
+        Assertions.assertEquals(code, codec.find("+420774577453"));
+
+        codec.clear();
+        Assertions.assertEquals(PhoneNumberCodec.NOT_FOUND, codec.find("+420774577453"));
+    }
+
+    /**
+     * Creates phone numbers of every length up to 20 characters, with leading zeros, common prefixes,
+     * characters sorting before and after the digits and the empty string.
+     */
+    private static List<String> phoneNumbers() {
+        Random random = new Random(7);
+        List<String> phoneNumbers = new ArrayList<>(List.of("", "0", "00", "000", "1", "10", "9", "99", "+420",
+                "420 774 577 453", "42077457745a", "/", ":", "0/", "0:", "čislo"));
+        for (int length = 1; length <= 20; length++) {
+            StringBuilder digits = new StringBuilder();
+            for (int i = 0; i < length; i++) {
+                digits.append((char) ('0' + random.nextInt(10)));
+            }
+            phoneNumbers.add(digits.toString());
+            phoneNumbers.add("0".repeat(length));
+            phoneNumbers.add("9".repeat(length));
+            phoneNumbers.add("0" + digits.substring(1));
+            phoneNumbers.add(digits.substring(0, length - 1) + "x");
+        }
+        return phoneNumbers;
+    }
+}
@@ -0,0 +1,131 @@
+package com.phonecompany.billing.parsers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class RejectionPolicyTest {
+    private final List<String> reported = new ArrayList<>();
+    private final List<RejectionCounter> completed = new ArrayList<>();
+    private final RejectionSink sink = new RejectionSink() {
+        @Override
+        public void reject(long lineNumber, RejectionReason reason) {
+            reported.add(lineNumber + ":" + reason);
+        }
+
+        @Override
+        public void complete(RejectionCounter rejections) {
+            completed.add(rejections);
+        }
+    };
+
+    @Test
+    void countsRejectionsPerReason() {
+        RejectionCounter rejections = RejectionPolicy.builder().sink(sink).build().open();
+        rejections.reject(1, RejectionReason.INVALID_FIELD_COUNT);
+        rejections.reject(4, RejectionReason.UNPARSABLE_TIMESTAMP);
+        rejections.reject(5, RejectionReason.INVALID_FIELD_COUNT);
+        rejections.complete();
+
+        Assertions.assertEquals(2, rejections.getCount(RejectionReason.INVALID_FIELD_COUNT));
+        Assertions.assertEquals(1, rejections.getCount(RejectionReason.UNPARSABLE_TIMESTAMP));
+        Assertions.assertEquals(3, rejections.getCount());
+        Assertions.assertEquals(3, rejections.getReportedCount());
+        Assertions.assertEquals(List.of("1:INVALID_FIELD_COUNT", "4:UNPARSABLE_TIMESTAMP", "5:INVALID_FIELD_COUNT"),
+                reported);
+        Assertions.assertEquals(List.of(rejections), completed);
+    }
+
+    @Test
+    void reportsEveryNthRejectionStartingWithTheFirst() {
+        RejectionCounter rejections = RejectionPolicy.builder().sink(sink).sampleInterval(3).build().open();
+        rejectLines(rejections, 10);
+
+        Assertions.assertEquals(List.of("1:INVALID_FIELD_COUNT", "4:INVALID_FIELD_COUNT", "7:INVALID_FIELD_COUNT",
+                "10:INVALID_FIELD_COUNT"), reported);
+        Assertions.assertEquals(10, rejections.getCount());
+        Assertions.assertEquals(4, rejections.getReportedCount());
+    }
+
+    @Test
+    void capsReportedRejections() {
+        RejectionCounter rejections = RejectionPolicy.builder().sink(sink).maxReported(2).build().open();
+        rejectLines(rejections, 5);
+
+        Assertions.assertEquals(List.of("1:INVALID_FIELD_COUNT", "2:INVALID_FIELD_COUNT"), reported);
+        Assertions.assertEquals(5, rejections.getCount());
+        Assertions.assertEquals(2, rejections.getReportedCount());
+    }
+
+    @Test
+    void capsSampledRejections() {
+        RejectionCounter rejections = RejectionPolicy.builder().sink(sink).sampleInterval(2).maxReported(3).build().open();
+        rejectLines(rejections, 20);
+
+        Assertions.assertEquals(List.of("1:INVALID_FIELD_COUNT", "3:INVALID_FIELD_COUNT", "5:INVALID_FIELD_COUNT"),
+                reported);
+        Assertions.assertEquals(3, rejections.getReportedCount());
+    }
+
+    @Test
+    void onlyCountsRejectionsWithoutReports() {
+        RejectionCounter rejections = RejectionPolicy.builder().sink(sink).maxReported(0).build().open();
+        rejectLines(rejections, 5);
+        rejections.complete();
+
+        Assertions.assertEquals(List.of(), reported);
+        Assertions.assertEquals(5, rejections.getCount());
+        Assertions.assertEquals(0, rejections.getReportedCount());
+        Assertions.assertEquals(1, completed.size());
+    }
+
+    @Test
+    void failsFastAtFirstRejectionOfStrictPolicy() {
+        RejectionCounter rejections = RejectionPolicy.builder().sink(sink).strict(true).maxReported(0).build().open();
+
+        RejectedLineException e = Assertions.assertThrows(RejectedLineException.class,
+                () -> rejections.reject(7, RejectionReason.UNPARSABLE_TIMESTAMP));
+
+        Assertions.assertEquals(7, e.getLineNumber());
+        Assertions.assertEquals(RejectionReason.UNPARSABLE_TIMESTAMP, e.getReason());
+        Assertions.assertEquals(List.of("7:UNPARSABLE_TIMESTAMP"), reported);
+        Assertions.assertEquals(1, rejections.getCount(RejectionReason.UNPARSABLE_TIMESTAMP));
+        Assertions.assertEquals(1, rejections.getReportedCount());
+    }
+
+    @Test
+    void numbersLinesOfViewsAfterPrecedingLines() {
+        RejectionCounter rejections = RejectionPolicy.builder().sink(sink).build().open();
+        AtomicInteger precedingLineCounts = new AtomicInteger();
+        RejectionCounter view = rejections.startingAfter(() -> {
+            precedingLineCounts.incrementAndGet();
+            return 1_000;
+        });
+        Assertions.assertEquals(0, precedingLineCounts.get());
+
+        view.reject(1, RejectionReason.INVALID_FIELD_COUNT);
+        view.reject(3, RejectionReason.INVALID_FIELD_COUNT);
+        rejections.reject(2, RejectionReason.UNPARSABLE_TIMESTAMP);
+
+        Assertions.assertEquals(List.of("1001:INVALID_FIELD_COUNT", "1003:INVALID_FIELD_COUNT", "2:UNPARSABLE_TIMESTAMP"),
+                reported);
+        Assertions.assertEquals(1, precedingLineCounts.get());
+        Assertions.assertEquals(3, rejections.getCount());
+        Assertions.assertEquals(3, view.getCount());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RejectionPolicy.builder().sampleInterval(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RejectionPolicy.builder().maxReported(-1));
+    }
+
+    private static void rejectLines(RejectionCounter rejections, int lines) {
+        for (int line = 1; line <= lines; line++) {
+            rejections.reject(line, RejectionReason.INVALID_FIELD_COUNT);
+        }
+    }
+}
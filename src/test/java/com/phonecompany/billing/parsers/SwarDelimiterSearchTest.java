@@ -0,0 +1,89 @@
+package com.phonecompany.billing.parsers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+class SwarDelimiterSearchTest {
+    private final SwarDelimiterSearch search = new SwarDelimiterSearch();
+
+    @Test
+    void findsDelimiterAtEveryPosition() {
+        for (ByteBuffer buffer : buffers(40)) {
+            for (int position = 0; position < buffer.capacity(); position++) {
+                for (int i = 0; i < buffer.capacity(); i++) {
+                    buffer.put(i, (byte) (i == position ? ',' : 'x'));
+                }
+                for (int from = 0; from <= position; from++) {
+                    Assertions.assertEquals(position, search.indexOf(buffer, from, buffer.capacity(), (byte) ','));
+                    Assertions.assertEquals(-1, search.indexOf(buffer, from, position, (byte) ','));
+                }
+                Assertions.assertEquals(-1, search.indexOf(buffer, position + 1, buffer.capacity(), (byte) ','));
+            }
+        }
+    }
+
+    @Test
+    void matchesNaiveSearchOfRandomBytes() {
+        Random random = new Random(22);
+        for (ByteBuffer buffer : buffers(64)) {
+            for (int i = 0; i < 20_000; i++) {
+                // few distinct bytes around the sign bit, so every byte is often a near miss of the delimiter
+                for (int j = 0; j < buffer.capacity(); j++) {
+                    buffer.put(j, (byte) (0x7E + random.nextInt(4)));
+                }
+                byte delimiter = (byte) (0x7E + random.nextInt(4));
+                int from = random.nextInt(buffer.capacity());
+                int to = from + random.nextInt(buffer.capacity() - from + 1);
+
+                Assertions.assertEquals(naiveIndexOf(buffer, from, to, delimiter), search.indexOf(buffer, from, to, delimiter));
+            }
+        }
+    }
+
+    @Test
+    void findsEveryByteValue() {
+        for (ByteBuffer buffer : buffers(16)) {
+            for (int value = 0; value < 256; value++) {
+                byte delimiter = (byte) value;
+                for (int i = 0; i < buffer.capacity(); i++) {
+                    buffer.put(i, (byte) (i < 9 ? delimiter ^ 0x80 : delimiter));
+                }
+                Assertions.assertEquals(9, search.indexOf(buffer, 0, buffer.capacity(), delimiter));
+                Assertions.assertEquals(-1, search.indexOf(buffer, 0, 9, delimiter));
+            }
+        }
+    }
+
+    @Test
+    void keepsPositionAndLimitOfBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        buffer.put(20, (byte) ',');
+        buffer.position(3).limit(30);
+
+        Assertions.assertEquals(20, search.indexOf(buffer, 0, 32, (byte) ','));
+        Assertions.assertEquals(3, buffer.position());
+        Assertions.assertEquals(30, buffer.limit());
+    }
+
+    private static ByteBuffer[] buffers(int capacity) {
+        return new ByteBuffer[]{
+                ByteBuffer.allocate(capacity),
+                ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN),
+                ByteBuffer.allocateDirect(capacity),
+                ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN)
+        };
+    }
+
+    private static int naiveIndexOf(ByteBuffer buffer, int from, int to, byte delimiter) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == delimiter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,110 @@
+package com.phonecompany.billing.parsers;
+
+import com.phonecompany.billing.domain.entities.TariffPlan;
+import com.phonecompany.billing.domain.enums.RatingMode;
+import com.phonecompany.billing.services.CompiledTariff;
+import com.phonecompany.billing.services.FixedPointCostEngine;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+class TariffPlanParserTest {
+    private static final String WEEKEND_PLAN = "default.name=OFF_PEAK\n"
+            + "default.rate=0.40\n"
+            + "band.1.name=PEAK\n"
+            + "band.1.days=MON-FRI\n"
+            + "band.1.hours=08:00-18:00\n"
+            + "band.1.rate=1.20\n"
+            + "band.2.name=WEEKEND\n"
+            + "band.2.days=SAT,SUN\n"
+            + "band.2.hours=00:00-24:00\n"
+            + "band.2.rate=0.10\n"
+            + "longCall.minutes=10\n"
+            + "longCall.surcharge=0.05\n"
+            + "promotion.mostFrequentNumberFree=false\n";
+
+    @Test
+    void parsesBandsOfThePlan() throws Exception {
+        TariffPlan tariffPlan = TariffPlanParser.parse(new StringReader(WEEKEND_PLAN));
+
+        Assertions.assertEquals("OFF_PEAK", tariffPlan.getDefaultBandName());
+        Assertions.assertEquals(new BigDecimal("0.40"), tariffPlan.getDefaultRate());
+        Assertions.assertEquals(2, tariffPlan.getBands().size());
+        Assertions.assertEquals(10, tariffPlan.getLongCallMinutes());
+        Assertions.assertEquals(new BigDecimal("0.05"), tariffPlan.getLongCallSurcharge());
+        Assertions.assertFalse(tariffPlan.isMostFrequentNumberFree());
+    }
+
+    @Test
+    void compilesRatesOfEveryMinuteOfTheWeek() throws Exception {
+        CompiledTariff tariff = CompiledTariff.compile(TariffPlanParser.parse(new StringReader(WEEKEND_PLAN)), 2);
+
+        // 2023-09-04 is a Monday.
+        assertRate(tariff, "OFF_PEAK", 40, LocalDateTime.of(2023, 9, 4, 7, 59));
+        assertRate(tariff, "PEAK", 120, LocalDateTime.of(2023, 9, 4, 8, 0));
+        assertRate(tariff, "PEAK", 120, LocalDateTime.of(2023, 9, 8, 17, 59));
+        assertRate(tariff, "OFF_PEAK", 40, LocalDateTime.of(2023, 9, 8, 18, 0));
+        assertRate(tariff, "WEEKEND", 10, LocalDateTime.of(2023, 9, 9, 0, 0));
+        assertRate(tariff, "WEEKEND", 10, LocalDateTime.of(2023, 9, 10, 23, 59));
+        assertRate(tariff, "OFF_PEAK", 40, LocalDateTime.of(2023, 9, 11, 0, 0));
+    }
+
+    @Test
+    void computesCostOfSpansWrappingTheWeek() throws Exception {
+        CompiledTariff tariff = CompiledTariff.compile(TariffPlanParser.parse(new StringReader(WEEKEND_PLAN)), 2);
+        int sundayLateEvening = minuteOfWeek(LocalDateTime.of(2023, 9, 10, 23, 58));
+        long weekCost = 5 * (600 * 120 + 840 * 40) + 2 * 1440 * 10;
+
+        Assertions.assertEquals(2 * 10 + 2 * 40, tariff.getCost(sundayLateEvening, 4));
+        Assertions.assertEquals(weekCost, tariff.getCost(0, CompiledTariff.MINUTES_PER_WEEK));
+        Assertions.assertEquals(3 * weekCost + 2 * 10 + 2 * 40,
+                tariff.getCost(sundayLateEvening, 3L * CompiledTariff.MINUTES_PER_WEEK + 4));
+    }
+
+    @Test
+    void ratesCallsWithTheParsedPlan() throws Exception {
+        TariffPlan tariffPlan = TariffPlanParser.parse(new StringReader(WEEKEND_PLAN));
+        FixedPointCostEngine costEngine = new FixedPointCostEngine(2, RatingMode.START_HOUR, tariffPlan);
+        long start = LocalDateTime.of(2023, 9, 4, 17, 50).toEpochSecond(ZoneOffset.UTC);
+
+        Assertions.assertEquals(12 * 120 + 2 * 5, costEngine.calculateCallCost(start, start + 12 * 60));
+        Assertions.assertEquals("PEAK", costEngine.getRateBandName(start));
+    }
+
+    @Test
+    void compilesDefaultPlanToTheOriginalRates() {
+        CompiledTariff tariff = CompiledTariff.compile(TariffPlan.defaultPlan(), 2);
+
+        for (int hour = 0; hour < 24; hour++) {
+            int minuteOfWeek = minuteOfWeek(LocalDateTime.of(2023, 9, 9, hour, 30));
+            Assertions.assertEquals(hour >= 8 && hour < 16 ? 100 : 50, tariff.getRate(minuteOfWeek));
+        }
+        Assertions.assertEquals(5, tariff.getLongCallMinutes());
+        Assertions.assertEquals(20, tariff.getLongCallSurcharge());
+        Assertions.assertTrue(tariff.isMostFrequentNumberFree());
+    }
+
+    @Test
+    void rejectsInvalidPlans() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TariffPlanParser.parse(new StringReader(WEEKEND_PLAN.replace("08:00-18:00", "18:00-08:00"))));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TariffPlanParser.parse(new StringReader(WEEKEND_PLAN.replace("MON-FRI", "MON-XYZ"))));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> TariffPlanParser.parse(new StringReader(WEEKEND_PLAN.replace("default.rate=0.40\n", ""))));
+    }
+
+    private static void assertRate(CompiledTariff tariff, String bandName, long rate, LocalDateTime time) {
+        int minuteOfWeek = minuteOfWeek(time);
+        Assertions.assertEquals(rate, tariff.getRate(minuteOfWeek), time.toString());
+        Assertions.assertEquals(bandName, tariff.getBandName(minuteOfWeek), time.toString());
+    }
+
+    private static int minuteOfWeek(LocalDateTime time) {
+        return CompiledTariff.minuteOfWeek(time.toEpochSecond(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,122 @@
+package com.phonecompany.billing.parsers;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.TimeZone;
+
+class TimestampParserTest {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd-MM-uuuu HH:mm:ss");
+
+    @Test
+    void formatsTimestampsLikeDateTimeFormatter() {
+        Random random = new Random(14);
+        byte[] buffer = new byte[TimestampParser.TIMESTAMP_LENGTH + 2];
+        for (int i = 0; i < 100_000; i++) {
+            long epochSecond = LocalDateTime.of(1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC)
+                    + (long) (random.nextDouble() * 9998 * 366 * 86400);
+            epochSecond = Math.min(epochSecond, LocalDateTime.of(9999, 12, 31, 23, 59, 59).toEpochSecond(ZoneOffset.UTC));
+
+            Assertions.assertEquals(TimestampParser.TIMESTAMP_LENGTH + 1, TimestampParser.format(epochSecond, buffer, 1));
+
+            String expected = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).format(FORMATTER);
+            Assertions.assertEquals(expected, new String(buffer, 1, TimestampParser.TIMESTAMP_LENGTH, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void parsesFormattedTimestamps() throws Exception {
+        byte[] buffer = new byte[TimestampParser.TIMESTAMP_LENGTH];
+        for (long epochSecond : new long[]{-1, 0, 951_782_400, 4_102_444_799L, 5_000_000_000L}) {
+            TimestampParser.format(epochSecond, buffer, 0);
+            Assertions.assertEquals(epochSecond, TimestampParser.parseEpochSecond(buffer, 0, buffer.length));
+        }
+    }
+
+    @Test
+    void convertsCalendarDatesToEpochDays() {
+        Random random = new Random(10);
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime date = LocalDateTime.of(1, 1, 1, 0, 0).plusDays(random.nextInt(3_650_000));
+            Assertions.assertEquals(date.toLocalDate().toEpochDay(),
+                    TimestampParser.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+        }
+    }
+
+    @Test
+    void decodesCanonicalTimestampsOfEveryInputType() throws Exception {
+        Random random = new Random(22);
+        for (int i = 0; i < 100_000; i++) {
+            LocalDateTime dateTime = LocalDateTime.of(1600, 1, 1, 0, 0)
+                    .plusSeconds((long) (random.nextDouble() * 600 * 366 * 86400));
+            String text = dateTime.format(FORMATTER);
+
+            assertParsedEverywhere(dateTime.toEpochSecond(ZoneOffset.UTC), text, random.nextInt(8));
+        }
+    }
+
+    @Test
+    void ignoresCharactersFollowingTheTimestamp() throws Exception {
+        long expected = LocalDateTime.of(2023, 9, 1, 7, 30).toEpochSecond(ZoneOffset.UTC);
+        assertParsedEverywhere(expected, "01-09-2023 07:30:00\r", 3);
+        assertParsedEverywhere(expected, "01-09-2023 07:30:00,420774567453", 0);
+    }
+
+    @Test
+    void fallsBackToLenientParsingOfNonCanonicalTimestamps() throws Exception {
+        String[] timestamps = {
+                "32-01-2020 10:00:00", "29-02-2023 10:00:00", "01-13-2023 10:00:00", "01-09-2023 24:00:00",
+                "01-09-2023 10:60:00", "01-09-2023 10:00:60", "1-9-2023 7:30:00", "01-09-2023 10:00:001",
+                "15-10-1582 00:00:00", "04-10-1582 23:59:59", "01-01-0001 00:00:00", "31-12-1599 23:59:59"
+        };
+        for (String timestamp : timestamps) {
+            assertParsedEverywhere(lenientEpochSecond(timestamp), timestamp, 5);
+        }
+    }
+
+    @Test
+    void rejectsUnparsableTimestamps() {
+        String[] timestamps = {"", "01-09-2023", "0a-09-2023 10:00:00", "01.09.2023 10:00:00", "xx-xx-xxxx xx:xx:xx"};
+        for (String timestamp : timestamps) {
+            Assertions.assertThrows(ParseException.class, () -> TimestampParser.parseEpochSecond(timestamp), timestamp);
+            byte[] bytes = timestamp.getBytes(StandardCharsets.US_ASCII);
+            Assertions.assertThrows(ParseException.class,
+                    () -> TimestampParser.parseEpochSecond(bytes, 0, bytes.length), timestamp);
+        }
+    }
+
+    /**
+     * Parses the timestamp placed at the given offset of a character sequence, a byte array and byte buffers
+     * of both byte orders, heap and direct, followed by some bytes which must not be read.
+     */
+    private static void assertParsedEverywhere(long expected, String timestamp, int offset) throws ParseException {
+        String padded = "x".repeat(offset) + timestamp + "99999999";
+        int to = offset + timestamp.length();
+        byte[] bytes = padded.getBytes(StandardCharsets.US_ASCII);
+
+        Assertions.assertEquals(expected, TimestampParser.parseEpochSecond(padded, offset, to), timestamp);
+        Assertions.assertEquals(expected, TimestampParser.parseEpochSecond(bytes, offset, to), timestamp);
+        for (ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.wrap(bytes),
+                ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN),
+                ByteBuffer.allocateDirect(bytes.length).put(bytes).position(1)}) {
+            int position = buffer.position();
+            Assertions.assertEquals(expected, TimestampParser.parseEpochSecond(buffer, offset, to), timestamp);
+            Assertions.assertEquals(position, buffer.position());
+        }
+    }
+
+    private static long lenientEpochSecond(String timestamp) throws ParseException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy HH:mm:ss");
+        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return Math.floorDiv(dateFormat.parse(timestamp).getTime(), 1000L);
+    }
+}
@@ -0,0 +1,89 @@
+package com.phonecompany.billing.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class BillingExecutorTest {
+    private static final String PHONE_LOG = "420774567453,13-01-2020 18:10:15,13-01-2020 18:12:57\n"
+            + "420776562353,18-01-2020 08:59:20,18-01-2020 09:10:00\n";
+
+    @Test
+    void calculatesSubmittedLogs() throws Exception {
+        try (BillingExecutor executor = new BillingExecutor(new TelephoneBillCalculatorImpl(), 2, Duration.ofMinutes(1))) {
+            Assertions.assertEquals(new BigDecimal("1.00"), executor.submit(PHONE_LOG).get(1, TimeUnit.MINUTES));
+        }
+    }
+
+    @Test
+    void completesLongJobsWithTimeout() throws Exception {
+        try (BillingExecutor executor = new BillingExecutor(new TelephoneBillCalculatorImpl(), 1, Duration.ofMillis(50))) {
+            CompletableFuture<BigDecimal> totalCost = executor.submit(calculator -> {
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return BigDecimal.ZERO;
+            });
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                    () -> totalCost.get(1, TimeUnit.MINUTES));
+            Assertions.assertInstanceOf(TimeoutException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void rejectsJobsSubmittedAfterClose() throws Exception {
+        BillingExecutor executor = new BillingExecutor(new TelephoneBillCalculatorImpl(), 1, Duration.ofMinutes(1));
+        executor.close();
+
+        Assertions.assertThrows(IllegalStateException.class, () -> executor.submit(PHONE_LOG));
+    }
+
+    @Test
+    void rejectsJobsWaitingForSlotWhenClosed() throws Exception {
+        BillingExecutor executor = new BillingExecutor(new TelephoneBillCalculatorImpl(), 1, Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<BigDecimal> running = executor.submit(calculator -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return BigDecimal.ONE;
+        });
+        CompletableFuture<Throwable> waitingError = new CompletableFuture<>();
+        Thread waiting = new Thread(() -> {
+            try {
+                executor.submit(PHONE_LOG);
+                waitingError.complete(null);
+            } catch (Exception e) {
+                waitingError.complete(e);
+            }
+        });
+        Thread closing = new Thread(executor::close);
+        waiting.start();
+        awaitBlocked(waiting);
+        closing.start();
+        awaitBlocked(closing);
+        release.countDown();
+
+        closing.join(TimeUnit.MINUTES.toMillis(1));
+        Assertions.assertFalse(closing.isAlive());
+        Assertions.assertEquals(BigDecimal.ONE, running.get(1, TimeUnit.MINUTES));
+        Assertions.assertInstanceOf(IllegalStateException.class, waitingError.get(1, TimeUnit.MINUTES));
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.domain.entities.BillTable;
+import com.phonecompany.billing.domain.entities.SubscriberLog;
+import com.phonecompany.billing.parsers.RejectedLineException;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class BulkBillCalculatorTest {
+    private static final String FIRST_CALL = "420774567453,13-01-2020 18:10:15,13-01-2020 18:12:57";
+    private static final String SECOND_CALL = "420776562353,18-01-2020 08:59:20,18-01-2020 09:10:00";
+    private static final String THIRD_CALL = "420776562353,18-01-2020 15:58:00,18-01-2020 16:03:30";
+    private static final String BAD_TIMESTAMP_CALL = "420774567453,13-01-2020 18:10,13-01-2020 18:12:57";
+
+    @TempDir
+    Path directory;
+
+    private final List<String> rejectedLines = new ArrayList<>();
+    private final BulkBillCalculator calculator = new BulkBillCalculator(new FixedPointCostEngine(),
+            RejectionPolicy.builder().sink((lineNumber, reason) -> rejectedLines.add(lineNumber + ":" + reason)).build());
+    private final TelephoneBillCalculatorImpl singleCalculator = new TelephoneBillCalculatorImpl(null,
+            new FixedPointCostEngine(), RejectionPolicy.builder().sink((lineNumber, reason) -> { }).build());
+
+    @Test
+    void billsSubscribersOfCombinedLogInOrderOfAppearance() throws IOException {
+        Map<String, String> phoneLogs = new LinkedHashMap<>();
+        phoneLogs.put("zeta", FIRST_CALL + "\n" + SECOND_CALL + "\n" + SECOND_CALL + "\n");
+        phoneLogs.put("alpha", THIRD_CALL + "\n");
+        phoneLogs.put("a", SECOND_CALL + "\n" + THIRD_CALL + "\n");
+        phoneLogs.put("ab", FIRST_CALL + "\n");
+
+        BillTable bills = calculator.calculateCombined(new StringReader(combine(phoneLogs)));
+
+        assertBills(phoneLogs, bills);
+        Assertions.assertEquals(List.of(), rejectedLines);
+    }
+
+    @Test
+    void readsCombinedLogFromFile() throws IOException {
+        Map<String, String> phoneLogs = new LinkedHashMap<>();
+        phoneLogs.put("1", FIRST_CALL + "\n" + THIRD_CALL + "\n");
+        phoneLogs.put("2", SECOND_CALL + "\n");
+        Path combinedLog = directory.resolve("combined.csv");
+        Files.writeString(combinedLog, combine(phoneLogs).replace("\n", "\r\n"), StandardCharsets.UTF_8);
+
+        assertBills(phoneLogs, calculator.calculateCombined(combinedLog));
+    }
+
+    @Test
+    void refusesCombinedLogNotGroupedBySubscriber() {
+        String combinedLog = "1," + FIRST_CALL + "\n2," + SECOND_CALL + "\n1," + THIRD_CALL + "\n";
+
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> calculator.calculateCombined(new StringReader(combinedLog)));
+        Assertions.assertTrue(e.getMessage().contains("1 appears again"), e.getMessage());
+    }
+
+    @Test
+    void zeroesOnlyBillOfSubscriberWithUnparsableTimestamp() throws IOException {
+        String combinedLog = "1," + FIRST_CALL + "\n"
+                + "2," + SECOND_CALL + "\n"
+                + "2," + BAD_TIMESTAMP_CALL + "\n"
+                + "2," + THIRD_CALL + "\n"
+                + "2,not a call\n"
+                + "3," + THIRD_CALL + "\n";
+
+        BillTable bills = calculator.calculateCombined(new StringReader(combinedLog));
+
+        Assertions.assertEquals(3, bills.size());
+        Assertions.assertEquals(singleCalculator.calculate(FIRST_CALL + "\n"), bills.getAmount(0));
+        Assertions.assertEquals(new BigDecimal("0.00"), bills.getAmount(1));
+        Assertions.assertEquals(singleCalculator.calculate(THIRD_CALL + "\n"), bills.getAmount(2));
+        Assertions.assertEquals(List.of("3:UNPARSABLE_TIMESTAMP"), rejectedLines);
+    }
+
+    @Test
+    void rejectsLinesWithoutSubscriber() throws IOException {
+        String combinedLog = "1," + FIRST_CALL + "\n"
+                + "\n"
+                + "no subscriber\n"
+                + "1," + SECOND_CALL + "\n"
+                + "1,\n"
+                + "2," + THIRD_CALL + ",\n";
+
+        BillTable bills = calculator.calculateCombined(new StringReader(combinedLog));
+
+        Assertions.assertEquals(2, bills.size());
+        Assertions.assertEquals("1", bills.getSubscriberId(0));
+        Assertions.assertEquals(singleCalculator.calculate(FIRST_CALL + "\n" + SECOND_CALL + "\n"), bills.getAmount(0));
+        Assertions.assertEquals(singleCalculator.calculate(THIRD_CALL + "\n"), bills.getAmount(1));
+        Assertions.assertEquals(List.of("2:INVALID_FIELD_COUNT", "3:INVALID_FIELD_COUNT", "5:INVALID_FIELD_COUNT"),
+                rejectedLines);
+    }
+
+    @Test
+    void billsEmptyCombinedLog() throws IOException {
+        Assertions.assertEquals(0, calculator.calculateCombined(new StringReader("")).size());
+    }
+
+    @Test
+    void failsAtFirstRejectedLineWithStrictPolicy() {
+        BulkBillCalculator strictCalculator = new BulkBillCalculator(new FixedPointCostEngine(),
+                RejectionPolicy.builder().sink((lineNumber, reason) -> { }).strict(true).build());
+        String combinedLog = "1," + FIRST_CALL + "\n1,not a call\n2," + SECOND_CALL + "\n";
+
+        RejectedLineException e = Assertions.assertThrows(RejectedLineException.class,
+                () -> strictCalculator.calculateCombined(new StringReader(combinedLog)));
+        Assertions.assertEquals(2, e.getLineNumber());
+    }
+
+    @Test
+    void billsSubscriberLogsLikeSingleCalculator() {
+        Map<String, String> phoneLogs = new LinkedHashMap<>();
+        phoneLogs.put("1", FIRST_CALL + "\n" + SECOND_CALL + "\n" + SECOND_CALL);
+        phoneLogs.put("2", THIRD_CALL + "\r\n" + "invalid line\r\n" + FIRST_CALL + ",\r\n");
+        phoneLogs.put("3", SECOND_CALL + "\n" + BAD_TIMESTAMP_CALL + "\n" + THIRD_CALL + "\n");
+        phoneLogs.put("4", "");
+        phoneLogs.put("5", FIRST_CALL + "\n");
+
+        BillTable bills = calculator.calculate(phoneLogs.entrySet().stream()
+                .map(entry -> new SubscriberLog(entry.getKey(), entry.getValue())));
+
+        assertBills(phoneLogs, bills);
+        Assertions.assertEquals(List.of("2:INVALID_FIELD_COUNT", "2:UNPARSABLE_TIMESTAMP"), rejectedLines);
+    }
+
+    @Test
+    void billsNoSubscriberLogs() {
+        Assertions.assertEquals(0, calculator.calculate(Stream.empty()).size());
+    }
+
+    private void assertBills(Map<String, String> phoneLogs, BillTable bills) {
+        Assertions.assertEquals(phoneLogs.size(), bills.size());
+        int index = 0;
+        for (Map.Entry<String, String> entry : phoneLogs.entrySet()) {
+            Assertions.assertEquals(entry.getKey(), bills.getSubscriberId(index));
+            // a failed bill is BigDecimal.ZERO from the single calculator, but has the scale of the table here
+            BigDecimal expected = singleCalculator.calculate(entry.getValue());
+            Assertions.assertEquals(0, expected.compareTo(bills.getAmount(index)), entry.getKey() + ": " + expected);
+            index++;
+        }
+    }
+
+    private static String combine(Map<String, String> phoneLogs) {
+        StringBuilder combinedLog = new StringBuilder();
+        phoneLogs.forEach((subscriberId, phoneLog) -> {
+            for (String line : phoneLog.split("\n")) {
+                combinedLog.append(subscriberId).append(',').append(line).append('\n');
+            }
+        });
+        return combinedLog.toString();
+    }
+}
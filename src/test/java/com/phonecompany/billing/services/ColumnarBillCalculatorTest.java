@@ -0,0 +1,99 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.generator.CallLogGenerator;
+import com.phonecompany.billing.parsers.CallStoreQuery;
+import com.phonecompany.billing.parsers.ColumnarCallStoreWriter;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+import com.phonecompany.billing.parsers.TimestampParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Set;
+
+class ColumnarBillCalculatorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void billsStoreLikeTheTextLog() throws Exception {
+        for (double zipfExponent : new double[]{0.0, 1.2}) {
+            String phoneLog = generate(zipfExponent);
+            Path store = convert(phoneLog);
+
+            Assertions.assertEquals(new TelephoneBillCalculatorImpl().calculate(phoneLog),
+                    new ColumnarBillCalculator().calculate(store), "Zipf exponent " + zipfExponent);
+        }
+    }
+
+    @Test
+    void billsSelectedCallsLikeTheFilteredTextLog() throws Exception {
+        String phoneLog = generate(1.2);
+        Path store = convert(phoneLog);
+        LocalDateTime from = LocalDateTime.of(2023, 9, 3, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 9, 5, 12, 0);
+        String[] lines = phoneLog.split("\n");
+        Set<String> phoneNumbers = Set.of(lines[0].split(",")[0], lines[1].split(",")[0], lines[2].split(",")[0]);
+
+        StringBuilder inRange = new StringBuilder();
+        StringBuilder toPhoneNumbers = new StringBuilder();
+        for (String line : lines) {
+            String[] fields = line.split(",");
+            long startTime = TimestampParser.parseEpochSecond(fields[1]);
+            if (startTime >= from.toEpochSecond(ZoneOffset.UTC) && startTime < to.toEpochSecond(ZoneOffset.UTC)) {
+                inRange.append(line).append('\n');
+            }
+            if (phoneNumbers.contains(fields[0])) {
+                toPhoneNumbers.append(line).append('\n');
+            }
+        }
+
+        ColumnarBillCalculator calculator = new ColumnarBillCalculator();
+        Assertions.assertEquals(new TelephoneBillCalculatorImpl().calculate(inRange.toString()),
+                calculator.calculate(store, CallStoreQuery.builder().startingFrom(from).startingBefore(to).build()));
+        Assertions.assertEquals(new TelephoneBillCalculatorImpl().calculate(toPhoneNumbers.toString()),
+                calculator.calculate(store, CallStoreQuery.builder().phoneNumbers(phoneNumbers).build()));
+        Assertions.assertEquals(BigDecimal.ZERO,
+                calculator.calculate(store, CallStoreQuery.builder().phoneNumbers(Set.of("999")).build()));
+    }
+
+    @Test
+    void billsInvalidStoreAsZero() throws Exception {
+        Path store = Files.writeString(directory.resolve("invalid.store"), "420774567453,01-09-2023 07:30:00");
+
+        Assertions.assertEquals(BigDecimal.ZERO, new ColumnarBillCalculator().calculate(store));
+    }
+
+    private Path convert(String phoneLog) throws Exception {
+        Path textLog = Files.writeString(directory.resolve("calls.csv"), phoneLog);
+        Path store = directory.resolve("calls.store");
+        ColumnarCallStoreWriter.convert(textLog, store, 256, RejectionPolicy.defaultPolicy().open());
+        return store;
+    }
+
+    private static String generate(double zipfExponent) {
+        return CallLogGenerator.builder()
+                .phoneNumberCount(2_000)
+                .zipfExponent(zipfExponent)
+                .period(LocalDate.of(2023, 9, 1), 7)
+                .seed(24)
+                .build()
+                .generate(20_000);
+    }
+
+    @Test
+    void makesCallsToTheGreatestOfTiedPhoneNumbersFree() throws Exception {
+        for (Map.Entry<String, BigDecimal> log : FreePhoneNumberLogs.all().entrySet()) {
+            Assertions.assertEquals(log.getValue(), new ColumnarBillCalculator().calculate(convert(log.getKey())),
+                    log.getKey());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.domain.enums.BillingRate;
+import com.phonecompany.billing.domain.enums.RatingMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+class FixedPointCostEngineTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2023, 9, 1, 0, 0);
+
+    private final FixedPointCostEngine costEngine = new FixedPointCostEngine();
+    private final FixedPointCostEngine perMinuteCostEngine =
+            new FixedPointCostEngine(FixedPointCostEngine.DEFAULT_SCALE, RatingMode.PER_STARTED_MINUTE);
+
+    @Test
+    void ratesCallsStartingAtTheBandBoundaries() {
+        assertCost("0.50", DAY.withHour(7).withMinute(59), Duration.ofMinutes(1));
+        assertCost("1.00", DAY.withHour(8), Duration.ofMinutes(1));
+        assertCost("1.00", DAY.withHour(15).withMinute(59).withSecond(59), Duration.ofMinutes(1));
+        assertCost("0.50", DAY.withHour(16), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void ratesWholeCallAtTheRateOfItsStartHour() {
+        assertCost("2.00", DAY.withHour(7).withMinute(58), Duration.ofMinutes(4));
+        assertCost("4.00", DAY.withHour(15).withMinute(58), Duration.ofMinutes(4));
+    }
+
+    @Test
+    void addsSurchargeBeyondFiveMinutes() {
+        assertCost("5.00", DAY.withHour(10), Duration.ofMinutes(5));
+        assertCost("5.00", DAY.withHour(10), Duration.ofMinutes(6).minusSeconds(1));
+        assertCost("6.20", DAY.withHour(10), Duration.ofMinutes(6));
+        assertCost("3.20", DAY.withHour(20), Duration.ofMinutes(6));
+    }
+
+    @Test
+    void ratesCallsCrossingMidnight() {
+        assertCost("6.00", DAY.withHour(23).withMinute(55), Duration.ofMinutes(10));
+        assertCost("0.50", DAY.withHour(23).withMinute(59).withSecond(30), Duration.ofSeconds(90));
+    }
+
+    @Test
+    void ratesZeroLengthAndSubMinuteCallsAsFree() {
+        assertCost("0.00", DAY.withHour(10), Duration.ZERO);
+        assertCost("0.00", DAY.withHour(10), Duration.ofSeconds(59));
+    }
+
+    @Test
+    void ratesMultiDayCallsAtTheStartHour() {
+        assertCost("5183.00", DAY.withHour(9), Duration.ofDays(3));
+        assertCost("3023.00", DAY.withHour(22), Duration.ofDays(3));
+    }
+
+    @Test
+    void matchesBigDecimalRatingOfRandomCalls() {
+        Random random = new Random(5);
+        for (int i = 0; i < 100_000; i++) {
+            LocalDateTime start = DAY.plusSeconds(random.nextInt(366 * 24 * 60 * 60));
+            LocalDateTime end = start.plusSeconds(random.nextInt(i % 10 == 0 ? 7 * 24 * 60 * 60 : 30 * 60));
+            Assertions.assertEquals(referenceCost(start, end), costEngine.toAmount(cost(start, end)), start + " - " + end);
+        }
+    }
+
+    @Test
+    void convertsToAmountsWithTheEngineScale() {
+        Assertions.assertEquals(new BigDecimal("12.345"), new FixedPointCostEngine(3).toAmount(12_345));
+        Assertions.assertEquals(new BigDecimal("0.00"), costEngine.toAmount(0));
+    }
+
+    @Test
+    void rejectsScaleWhichCannotExpressTheRates() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FixedPointCostEngine(0));
+    }
+
+    @Test
+    void reportsOverflow() {
+        Assertions.assertThrows(ArithmeticException.class, () -> costEngine.calculateCallCost(0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void ratesEveryStartedMinuteAtTheRateOfItsHour() {
+        assertPerMinuteCost("576.40", DAY.withHour(7).withMinute(59), Duration.ofMinutes(482));
+        assertPerMinuteCost("1.50", DAY.withHour(7).withMinute(59).withSecond(30), Duration.ofSeconds(61));
+        assertPerMinuteCost("1.50", DAY.withHour(15).withMinute(59), Duration.ofSeconds(61));
+    }
+
+    @Test
+    void ratesStartedMinutesCrossingMidnightAndWeeks() {
+        assertPerMinuteCost("6.00", DAY.withHour(23).withMinute(55), Duration.ofMinutes(10));
+        assertPerMinuteCost("0.50", DAY.withHour(23).withMinute(59).withSecond(59), Duration.ofSeconds(1));
+        assertPerMinuteCost("26207.00", DAY.withHour(9), Duration.ofDays(21));
+    }
+
+    @Test
+    void ratesZeroLengthCallsAsFreeAndSubMinuteCallsAsOneMinute() {
+        assertPerMinuteCost("0.00", DAY.withHour(10), Duration.ZERO);
+        assertPerMinuteCost("1.00", DAY.withHour(10), Duration.ofSeconds(1));
+        assertPerMinuteCost("5.00", DAY.withHour(10), Duration.ofMinutes(5));
+        assertPerMinuteCost("6.20", DAY.withHour(10), Duration.ofMinutes(5).plusSeconds(1));
+    }
+
+    @Test
+    void matchesMinuteByMinuteRatingOfRandomCalls() {
+        Random random = new Random(16);
+        for (int i = 0; i < 20_000; i++) {
+            LocalDateTime start = DAY.plusSeconds(random.nextInt(366 * 24 * 60 * 60));
+            LocalDateTime end = start.plusSeconds(random.nextInt(i % 10 == 0 ? 3 * 24 * 60 * 60 : 30 * 60));
+            Assertions.assertEquals(referencePerMinuteCost(start, end),
+                    perMinuteCostEngine.toAmount(perMinuteCost(start, end)), start + " - " + end);
+        }
+    }
+
+    private void assertPerMinuteCost(String expected, LocalDateTime start, Duration duration) {
+        LocalDateTime end = start.plus(duration);
+        Assertions.assertEquals(new BigDecimal(expected), perMinuteCostEngine.toAmount(perMinuteCost(start, end)));
+        Assertions.assertEquals(new BigDecimal(expected), referencePerMinuteCost(start, end));
+    }
+
+    private long perMinuteCost(LocalDateTime start, LocalDateTime end) {
+        return perMinuteCostEngine.calculateCallCost(start.toEpochSecond(ZoneOffset.UTC),
+                end.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * Rates every started minute of a call at the rate of the hour the minute starts in, plus the additional rate
+     * for every started minute beyond the fifth.
+     */
+    private static BigDecimal referencePerMinuteCost(LocalDateTime start, LocalDateTime end) {
+        BigDecimal cost = BigDecimal.ZERO.setScale(2);
+        long minutes = 0;
+        for (LocalDateTime minute = start; minute.isBefore(end); minute = minute.plusMinutes(1)) {
+            cost = cost.add(rate(minute));
+            minutes++;
+        }
+        if (minutes > 5) {
+            cost = cost.add(BillingRate.ADDITIONAL_RATE.getRate().multiply(BigDecimal.valueOf(minutes - 5)));
+        }
+        return cost;
+    }
+
+    private static BigDecimal rate(LocalDateTime time) {
+        return time.getHour() >= 8 && time.getHour() < 16
+                ? BillingRate.NORMAL_RATE.getRate() : BillingRate.REDUCED_RATE.getRate();
+    }
+
+    private void assertCost(String expected, LocalDateTime start, Duration duration) {
+        LocalDateTime end = start.plus(duration);
+        Assertions.assertEquals(new BigDecimal(expected), costEngine.toAmount(cost(start, end)));
+        Assertions.assertEquals(new BigDecimal(expected), referenceCost(start, end));
+    }
+
+    private long cost(LocalDateTime start, LocalDateTime end) {
+        return costEngine.calculateCallCost(start.toEpochSecond(ZoneOffset.UTC), end.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * Rates a call like the original BigDecimal implementation: the whole minutes of the call at the rate of its
+     * start hour, plus the additional rate for every minute beyond the fifth.
+     */
+    private static BigDecimal referenceCost(LocalDateTime start, LocalDateTime end) {
+        long minutes = Duration.between(start, end).toMinutes();
+        BigDecimal cost = rate(start).multiply(BigDecimal.valueOf(minutes));
+        if (minutes > 5) {
+            cost = cost.add(BillingRate.ADDITIONAL_RATE.getRate().multiply(BigDecimal.valueOf(minutes - 5)));
+        }
+        return cost;
+    }
+}
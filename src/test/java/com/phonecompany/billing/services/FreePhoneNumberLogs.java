@@ -0,0 +1,72 @@
+package com.phonecompany.billing.services;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small hand-written phone logs whose most frequent phone numbers are tied, with the bills expected by the default
+ * tariff. The winner of a tie is the greatest phone number as a string, which differs from the order of the codes
+ * when phone numbers kept in the codec dictionary compete with packed ones.
+ */
+final class FreePhoneNumberLogs {
+    /**
+     * Two packed phone numbers called twice each; the calls to 420776562353 for 4.00 are free.
+     */
+    static final String TIED_PACKED = "420774567453,01-09-2023 10:00:00,01-09-2023 10:02:00\n"
+            + "420776562353,01-09-2023 10:00:00,01-09-2023 10:03:00\n"
+            + "420774567453,01-09-2023 20:00:00,01-09-2023 20:02:00\n"
+            + "420776562353,01-09-2023 11:00:00,01-09-2023 11:01:00\n";
+
+    /**
+     * A packed phone number tied with a longer one kept in the dictionary, whose code is greater;
+     * the calls to "9" for 2.00 are free, since "9" is greater as a string.
+     */
+    static final String TIED_PACKED_AND_DICTIONARY = "12345678901234567,01-09-2023 10:00:00,01-09-2023 10:05:00\n"
+            + "9,01-09-2023 10:00:00,01-09-2023 10:01:00\n"
+            + "12345678901234567,01-09-2023 17:00:00,01-09-2023 17:10:00\n"
+            + "9,01-09-2023 10:00:00,01-09-2023 10:01:00\n"
+            + "420774567453,01-09-2023 10:00:00,01-09-2023 10:01:00\n";
+
+    /**
+     * Three phone numbers called twice each, two of them kept in the dictionary in the reverse order of the strings;
+     * the calls to "abc" for 4.00 are free.
+     */
+    static final String TIED_DICTIONARY = "abc,01-09-2023 20:00:00,01-09-2023 20:04:00\n"
+            + "+420 777 777,01-09-2023 10:00:00,01-09-2023 10:02:00\n"
+            + "420774567453,01-09-2023 10:00:00,01-09-2023 10:03:00\n"
+            + "abc,01-09-2023 20:00:00,01-09-2023 20:04:00\n"
+            + "+420 777 777,01-09-2023 10:00:00,01-09-2023 10:02:00\n"
+            + "420774567453,01-09-2023 10:00:00,01-09-2023 10:03:00\n";
+
+    /**
+     * Four interleaved phone numbers called three, three, two and one times, so a sketch with two counters
+     * cannot tell the winner; the calls to 420000000002 for 6.00 are free.
+     */
+    static final String INTERLEAVED_TIE = "420000000001,01-09-2023 10:00:00,01-09-2023 10:01:00\n"
+            + "420000000002,01-09-2023 10:00:00,01-09-2023 10:02:00\n"
+            + "420000000003,01-09-2023 10:00:00,01-09-2023 10:01:00\n"
+            + "420000000004,01-09-2023 10:00:00,01-09-2023 10:01:00\n"
+            + "420000000001,01-09-2023 10:00:00,01-09-2023 10:01:00\n"
+            + "420000000002,01-09-2023 10:00:00,01-09-2023 10:02:00\n"
+            + "420000000003,01-09-2023 10:00:00,01-09-2023 10:01:00\n"
+            + "420000000001,01-09-2023 10:00:00,01-09-2023 10:01:00\n"
+            + "420000000002,01-09-2023 10:00:00,01-09-2023 10:02:00\n";
+
+    private FreePhoneNumberLogs() {
+    }
+
+    /**
+     * Returns all logs with their expected bills.
+     *
+     * @return the expected bill of every log
+     */
+    static Map<String, BigDecimal> all() {
+        Map<String, BigDecimal> logs = new LinkedHashMap<>();
+        logs.put(TIED_PACKED, new BigDecimal("3.00"));
+        logs.put(TIED_PACKED_AND_DICTIONARY, new BigDecimal("12.00"));
+        logs.put(TIED_DICTIONARY, new BigDecimal("10.00"));
+        logs.put(INTERLEAVED_TIE, new BigDecimal("6.00"));
+        return logs;
+    }
+}
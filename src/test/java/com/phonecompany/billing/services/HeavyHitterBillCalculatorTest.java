@@ -0,0 +1,77 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.generator.CallLogGenerator;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+class HeavyHitterBillCalculatorTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void billsSkewedLogsLikeExactCounting() {
+        HeavyHitterBillCalculator calculator = new HeavyHitterBillCalculator(new FixedPointCostEngine(), 16);
+        for (long seed = 0; seed < 5; seed++) {
+            String phoneLog = generate(1.2, seed);
+
+            Assertions.assertEquals(new TelephoneBillCalculatorImpl().calculate(phoneLog), calculator.calculate(phoneLog));
+        }
+    }
+
+    @Test
+    void fallsBackToExactCountingBeyondMaximumCapacity() throws IOException {
+        HeavyHitterBillCalculator calculator = new HeavyHitterBillCalculator(new FixedPointCostEngine(), 4, 32,
+                spillDirectory, RejectionPolicy.defaultPolicy());
+        for (long seed = 0; seed < 5; seed++) {
+            String phoneLog = generate(0.0, seed);
+
+            Assertions.assertEquals(new TelephoneBillCalculatorImpl().calculate(phoneLog), calculator.calculate(phoneLog));
+        }
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void billsFilesLikeStrings() throws IOException {
+        HeavyHitterBillCalculator calculator = new HeavyHitterBillCalculator(new FixedPointCostEngine(), 8, 8,
+                spillDirectory, RejectionPolicy.defaultPolicy());
+        String phoneLog = generate(0.5, 7);
+        Path phoneLogFile = Files.writeString(spillDirectory.resolve("calls.csv"), phoneLog);
+
+        Assertions.assertEquals(calculator.calculate(phoneLog), calculator.calculate(phoneLogFile));
+    }
+
+    @Test
+    void rejectsMaximumCapacityBelowCapacity() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new HeavyHitterBillCalculator(
+                new FixedPointCostEngine(), 64, 32, spillDirectory, RejectionPolicy.defaultPolicy()));
+    }
+
+    private static String generate(double zipfExponent, long seed) {
+        return CallLogGenerator.builder()
+                .phoneNumberCount(2_000)
+                .zipfExponent(zipfExponent)
+                .seed(seed)
+                .build()
+                .generate(10_000);
+    }
+
+    @Test
+    void makesCallsToTheGreatestOfTiedPhoneNumbersFree() {
+        for (int[] capacities : new int[][]{{1, 1}, {1, 4}, {2, 2}, {64, 64}}) {
+            HeavyHitterBillCalculator calculator = new HeavyHitterBillCalculator(new FixedPointCostEngine(),
+                    capacities[0], capacities[1], spillDirectory, RejectionPolicy.defaultPolicy());
+            FreePhoneNumberLogs.all().forEach((phoneLog, expected) -> Assertions.assertEquals(expected,
+                    calculator.calculate(phoneLog), "Capacities " + capacities[0] + "/" + capacities[1] + ": " + phoneLog));
+        }
+    }
+}
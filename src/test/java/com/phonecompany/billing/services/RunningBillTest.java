@@ -0,0 +1,145 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.domain.entities.CallRecordBatch;
+import com.phonecompany.billing.generator.CallLogGenerator;
+import com.phonecompany.billing.parsers.PhoneNumberCodec;
+import com.phonecompany.billing.parsers.TimestampParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Map;
+
+class RunningBillTest {
+    private static final String SAMPLE_LOG = "420774567453,13-01-2020 18:10:15,13-01-2020 18:12:57\n"
+            + "420776562353,18-01-2020 08:59:20,18-01-2020 09:10:00\n"
+            + "+420 777 777,18-01-2020 10:00:00,18-01-2020 10:03:00\n";
+    private static final long HUGE_CALL_END = 4_000_000_000_000_000_000L;
+
+    @Test
+    void billsLikeTheWholeLogAfterEveryChunk() throws ParseException {
+        String[] lines = CallLogGenerator.builder()
+                .phoneNumberCount(500)
+                .zipfExponent(1.2)
+                .seed(25)
+                .build()
+                .generate(5_000)
+                .split("\n");
+        RunningBill bill = new RunningBill();
+        StringBuilder phoneLog = new StringBuilder();
+        for (int from = 0; from < lines.length; from += 700) {
+            StringBuilder chunk = new StringBuilder();
+            for (int i = from; i < Math.min(lines.length, from + 700); i++) {
+                chunk.append(lines[i]).append('\n');
+            }
+            bill.append(chunk.toString());
+            phoneLog.append(chunk);
+
+            Assertions.assertEquals(new TelephoneBillCalculatorImpl().calculate(phoneLog.toString()), bill.getTotal());
+        }
+        Assertions.assertEquals(lines.length, bill.getCallCount());
+    }
+
+    @Test
+    void billsSingleCallsLikeBatches() throws ParseException {
+        RunningBill batchBill = new RunningBill();
+        batchBill.append(SAMPLE_LOG);
+        RunningBill singleCallBill = new RunningBill();
+        PhoneNumberCodec phoneNumberCodec = singleCallBill.getPhoneNumberCodec();
+        for (String line : SAMPLE_LOG.split("\n")) {
+            String[] fields = line.split(",");
+            singleCallBill.onCall(phoneNumberCodec.encode(fields[0]), TimestampParser.parseEpochSecond(fields[1]),
+                    TimestampParser.parseEpochSecond(fields[2]));
+        }
+
+        Assertions.assertEquals(batchBill.getTotal(), singleCallBill.getTotal());
+        Assertions.assertEquals("420776562353", singleCallBill.getFreePhoneNumber());
+        Assertions.assertEquals(1, singleCallBill.getCallCount("+420 777 777"));
+        Assertions.assertEquals(new BigDecimal("3.00"), singleCallBill.getSubtotal("+420 777 777"));
+    }
+
+    @Test
+    void looksUpUnknownPhoneNumbersWithoutEncodingThem() throws ParseException {
+        RunningBill bill = new RunningBill();
+        bill.append(SAMPLE_LOG);
+
+        Assertions.assertEquals(0, bill.getCallCount("+420 111 111"));
+        Assertions.assertEquals(new BigDecimal("0.00"), bill.getSubtotal("+420 111 111"));
+        Assertions.assertEquals(0, bill.getCallCount("420111111111"));
+        Assertions.assertEquals(PhoneNumberCodec.NOT_FOUND, bill.getPhoneNumberCodec().find("+420 111 111"));
+        Assertions.assertEquals(3, bill.getPhoneNumberCount());
+    }
+
+    @Test
+    void keepsBillUnchangedWhenBatchOverflows() throws ParseException {
+        RunningBill bill = new RunningBill();
+        bill.append(SAMPLE_LOG);
+        long phoneNumber = bill.getPhoneNumberCodec().encode("420774567453");
+        BigDecimal total = bill.getTotal();
+
+        CallRecordBatch batch = new CallRecordBatch(3);
+        batch.add(bill.getPhoneNumberCodec().encode("420111111111"), 0, 60);
+        batch.add(phoneNumber, 0, HUGE_CALL_END);
+        batch.add(phoneNumber, 0, HUGE_CALL_END);
+        Assertions.assertThrows(ArithmeticException.class, () -> bill.addAll(batch));
+
+        CallRecordBatch unratable = new CallRecordBatch(2);
+        unratable.add(phoneNumber, 0, 60);
+        unratable.add(phoneNumber, 0, Long.MAX_VALUE);
+        Assertions.assertThrows(ArithmeticException.class, () -> bill.addAll(unratable));
+
+        assertUnchanged(bill, total);
+    }
+
+    @Test
+    void keepsBillUnchangedWhenSingleCallOverflows() throws ParseException {
+        RunningBill bill = new RunningBill();
+        bill.append(SAMPLE_LOG);
+        long phoneNumber = bill.getPhoneNumberCodec().encode("420774567453");
+        bill.onCall(phoneNumber, 0, HUGE_CALL_END);
+        BigDecimal total = bill.getTotal();
+
+        Assertions.assertThrows(ArithmeticException.class, () -> bill.onCall(phoneNumber, 0, HUGE_CALL_END));
+
+        Assertions.assertEquals(total, bill.getTotal());
+        Assertions.assertEquals(4, bill.getCallCount());
+        Assertions.assertEquals(2, bill.getCallCount("420774567453"));
+    }
+
+    @Test
+    void keepsBillUnchangedWhenAppendedLogCannotBeParsed() throws ParseException {
+        RunningBill bill = new RunningBill();
+        bill.append(SAMPLE_LOG);
+        BigDecimal total = bill.getTotal();
+
+        Assertions.assertThrows(ParseException.class, () -> bill.append(
+                "420774567453,13-01-2020 20:10:15,13-01-2020 20:12:57\n420774567453,today,13-01-2020 20:12:57\n"));
+
+        assertUnchanged(bill, total);
+    }
+
+    private static void assertUnchanged(RunningBill bill, BigDecimal total) {
+        Assertions.assertEquals(total, bill.getTotal());
+        Assertions.assertEquals(3, bill.getCallCount());
+        Assertions.assertEquals(3, bill.getPhoneNumberCount());
+        Assertions.assertEquals(1, bill.getCallCount("420774567453"));
+        Assertions.assertEquals(new BigDecimal("1.00"), bill.getSubtotal("420774567453"));
+        Assertions.assertEquals("420776562353", bill.getFreePhoneNumber());
+    }
+
+    @Test
+    void makesCallsToTheGreatestOfTiedPhoneNumbersFree() throws ParseException {
+        for (Map.Entry<String, BigDecimal> log : FreePhoneNumberLogs.all().entrySet()) {
+            RunningBill bill = new RunningBill();
+            for (String line : log.getKey().split("\n")) {
+                bill.append(line);
+            }
+            Assertions.assertEquals(log.getValue(), bill.getTotal(), log.getKey());
+
+            RunningBill batchBill = new RunningBill();
+            batchBill.append(log.getKey());
+            Assertions.assertEquals(log.getValue(), batchBill.getTotal(), log.getKey());
+        }
+    }
+}
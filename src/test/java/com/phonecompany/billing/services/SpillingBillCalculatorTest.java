@@ -0,0 +1,47 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.generator.CallLogGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+class SpillingBillCalculatorTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void billsLikeExactCountingWhenSpilling() throws IOException {
+        SpillingBillCalculator calculator = new SpillingBillCalculator(new FixedPointCostEngine(), 64, spillDirectory);
+        for (double zipfExponent : new double[]{0.0, 0.8, 1.2}) {
+            String phoneLog = CallLogGenerator.builder()
+                    .phoneNumberCount(5_000)
+                    .zipfExponent(zipfExponent)
+                    .seed(20)
+                    .build()
+                    .generate(20_000);
+
+            Assertions.assertEquals(new TelephoneBillCalculatorImpl().calculate(phoneLog),
+                    calculator.calculate(new StringReader(phoneLog)), "Zipf exponent " + zipfExponent);
+        }
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void makesCallsToTheGreatestOfTiedPhoneNumbersFree() {
+        for (int maxPhoneNumbersInMemory : new int[]{1, 2, 64}) {
+            SpillingBillCalculator calculator = new SpillingBillCalculator(new FixedPointCostEngine(),
+                    maxPhoneNumbersInMemory, spillDirectory);
+            FreePhoneNumberLogs.all().forEach((phoneLog, expected) -> Assertions.assertEquals(expected,
+                    calculator.calculate(phoneLog), maxPhoneNumbersInMemory + " in memory: " + phoneLog));
+        }
+    }
+}
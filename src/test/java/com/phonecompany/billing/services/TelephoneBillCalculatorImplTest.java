@@ -0,0 +1,247 @@
+package com.phonecompany.billing.services;
+
+import com.phonecompany.billing.TelephoneBillCalculator;
+import com.phonecompany.billing.domain.entities.BillTable;
+import com.phonecompany.billing.domain.entities.SubscriberLog;
+import com.phonecompany.billing.generator.CallLogGenerator;
+import com.phonecompany.billing.parsers.BinaryCallLogWriter;
+import com.phonecompany.billing.parsers.RejectedLineException;
+import com.phonecompany.billing.parsers.RejectionPolicy;
+import com.phonecompany.billing.parsers.RejectionReason;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+class TelephoneBillCalculatorImplTest {
+    private static final String SAMPLE_LOG = "420774567453,13-01-2020 18:10:15,13-01-2020 18:12:57\n"
+            + "420776562353,18-01-2020 08:59:20,18-01-2020 09:10:00\n";
+
+    private final TelephoneBillCalculatorImpl calculator = new TelephoneBillCalculatorImpl();
+
+    @Test
+    void billsSampleLog() {
+        Assertions.assertEquals(new BigDecimal("1.00"), calculator.calculate(SAMPLE_LOG));
+    }
+
+    @Test
+    void billsCallsBefore1970AndAfter2106() {
+        String phoneLog = "420774567453,31-12-1969 23:50:00,01-01-1970 00:10:00\n"
+                + "420776562353,01-06-2107 10:00:00,01-06-2107 10:06:00\n"
+                + "420776562353,01-06-2107 12:00:00,01-06-2107 12:01:00\n";
+
+        BigDecimal expected = new BigDecimal("13.00");
+        Assertions.assertEquals(expected, calculator.calculate(phoneLog));
+        BillTable bills = new BulkBillCalculator().calculate(Stream.of(new SubscriberLog("subscriber", phoneLog)));
+        Assertions.assertEquals(expected, bills.getAmount(0));
+    }
+
+    @Test
+    void writesItemizedBillToStream() {
+        ByteArrayOutputStream items = new ByteArrayOutputStream();
+
+        BigDecimal totalCost = calculator.calculateItemized(
+                new ByteArrayInputStream(SAMPLE_LOG.getBytes(StandardCharsets.UTF_8)), items);
+
+        Assertions.assertEquals(new BigDecimal("1.00"), totalCost);
+        Assertions.assertEquals(ItemizedBillWriter.HEADER + "\n"
+                + "call,420774567453,13-01-2020 18:10:15,162,REDUCED_RATE,1.00,0.00,1.00\n"
+                + "call,420776562353,18-01-2020 08:59:20,640,NORMAL_RATE,10.00,1.00,11.00\n"
+                + "promotion,420776562353,,,,,,-11.00\n"
+                + "total,,,,,,,1.00\n", items.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void flushesItemizedRowsWrittenBeforeFailure() {
+        ByteArrayOutputStream items = new ByteArrayOutputStream();
+        String phoneLog = SAMPLE_LOG + "420774567453,32-13-2020 25:00:00,xx\n";
+
+        BigDecimal totalCost = calculator.calculateItemized(
+                new ByteArrayInputStream(phoneLog.getBytes(StandardCharsets.UTF_8)), items);
+
+        Assertions.assertEquals(BigDecimal.ZERO, totalCost);
+        Assertions.assertEquals(ItemizedBillWriter.HEADER + "\n"
+                + "call,420774567453,13-01-2020 18:10:15,162,REDUCED_RATE,1.00,0.00,1.00\n"
+                + "call,420776562353,18-01-2020 08:59:20,640,NORMAL_RATE,10.00,1.00,11.00\n",
+                items.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void reportsRejectedLinesOfParallelChunksWithTheirLineNumbers(@TempDir Path directory) throws IOException {
+        String[] lines = CallLogGenerator.builder().seed(21).build().generate(60_000).split("\n");
+        List<Long> expectedRejectedLines = new ArrayList<>();
+        for (int line = 999; line < lines.length; line += 1000) {
+            lines[line] = lines[line].substring(0, lines[line].lastIndexOf(','));
+            expectedRejectedLines.add(line + 1L);
+        }
+        String phoneLog = String.join("\n", lines) + "\n";
+        Path phoneLogFile = Files.writeString(directory.resolve("calls.csv"), phoneLog);
+        ConcurrentLinkedQueue<Long> rejectedLines = new ConcurrentLinkedQueue<>();
+        RejectionPolicy rejectionPolicy = RejectionPolicy.builder()
+                .sink((lineNumber, reason) -> rejectedLines.add(lineNumber))
+                .maxReported(Long.MAX_VALUE)
+                .build();
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            TelephoneBillCalculatorImpl parallelCalculator = new TelephoneBillCalculatorImpl(forkJoinPool,
+                    new FixedPointCostEngine(), rejectionPolicy);
+
+            TelephoneBillCalculatorImpl silentCalculator = new TelephoneBillCalculatorImpl(null,
+                    new FixedPointCostEngine(), RejectionPolicy.builder().sink((lineNumber, reason) -> { }).build());
+
+            Assertions.assertEquals(silentCalculator.calculate(phoneLog), parallelCalculator.calculateMapped(phoneLogFile));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+
+        List<Long> sortedRejectedLines = new ArrayList<>(rejectedLines);
+        sortedRejectedLines.sort(null);
+        Assertions.assertEquals(expectedRejectedLines, sortedRejectedLines);
+    }
+
+    @Test
+    void billsBinaryLogLikeTextLog(@TempDir Path directory) throws Exception {
+        String phoneLog = CallLogGenerator.builder()
+                .phoneNumberCount(1_000)
+                .zipfExponent(0.8)
+                .seed(23)
+                .build()
+                .generate(400_000)
+                + "+420 777 777,01-09-2023 10:00:00,01-09-2023 10:03:00\n"
+                + "12345678901234567,01-09-2023 18:00:00,01-09-2023 18:10:00\n";
+        Path textLog = Files.writeString(directory.resolve("calls.csv"), phoneLog);
+        Path binaryLog = directory.resolve("calls.bin");
+        Assertions.assertEquals(400_002, BinaryCallLogWriter.convert(textLog, binaryLog));
+        Assertions.assertTrue(Files.size(binaryLog) > 4 << 20);
+
+        BigDecimal expected = calculator.calculate(phoneLog);
+        Assertions.assertEquals(expected, calculator.calculateBinary(binaryLog));
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(expected, new TelephoneBillCalculatorImpl(forkJoinPool).calculateBinary(binaryLog));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    void billsInvalidBinaryLogAsZero(@TempDir Path directory) throws IOException {
+        Path textLog = Files.writeString(directory.resolve("calls.csv"), SAMPLE_LOG);
+
+        Assertions.assertEquals(BigDecimal.ZERO, calculator.calculateBinary(textLog));
+    }
+
+    @Test
+    void makesCallsToTheGreatestOfTiedPhoneNumbersFree() {
+        FreePhoneNumberLogs.all().forEach((phoneLog, expected) ->
+                Assertions.assertEquals(expected, calculator.calculate(phoneLog), phoneLog));
+    }
+
+    @Test
+    void failsAtFirstRejectedLineWithStrictPolicy() {
+        List<Long> rejectedLines = new ArrayList<>();
+        TelephoneBillCalculatorImpl strictCalculator = new TelephoneBillCalculatorImpl(null, new FixedPointCostEngine(),
+                RejectionPolicy.builder().sink((lineNumber, reason) -> rejectedLines.add(lineNumber)).strict(true).build());
+        String phoneLog = SAMPLE_LOG + "420774567453,13-01-2020 18:10:15\n" + SAMPLE_LOG + "\n";
+
+        RejectedLineException e = Assertions.assertThrows(RejectedLineException.class,
+                () -> strictCalculator.calculate(phoneLog));
+
+        Assertions.assertEquals(3, e.getLineNumber());
+        Assertions.assertEquals(RejectionReason.INVALID_FIELD_COUNT, e.getReason());
+        Assertions.assertEquals(List.of(3L), rejectedLines);
+        Assertions.assertEquals(new BigDecimal("2.00"), new TelephoneBillCalculatorImpl(null, new FixedPointCostEngine(),
+                RejectionPolicy.builder().sink((lineNumber, reason) -> { }).build()).calculate(phoneLog));
+    }
+
+    @Test
+    void billsReadersStreamsAndFilesOfStringOnlyCalculatorAsStrings(@TempDir Path directory) throws IOException {
+        TelephoneBillCalculator stringCalculator = calculator::calculate;
+        Path phoneLogFile = directory.resolve("phone-log.csv");
+        Files.writeString(phoneLogFile, SAMPLE_LOG, StandardCharsets.UTF_8);
+        BigDecimal expected = calculator.calculate(SAMPLE_LOG);
+
+        Assertions.assertEquals(expected, stringCalculator.calculate(new StringReader(SAMPLE_LOG)));
+        Assertions.assertEquals(expected, stringCalculator.calculate(
+                new ByteArrayInputStream(SAMPLE_LOG.getBytes(StandardCharsets.UTF_8))));
+        Assertions.assertEquals(expected, stringCalculator.calculate(phoneLogFile));
+    }
+
+    @Test
+    void billsConcurrentCallsOfSharedCalculatorLikeSequentialCalls(@TempDir Path directory) throws Exception {
+        RejectionPolicy silentPolicy = RejectionPolicy.builder().sink((lineNumber, reason) -> { }).build();
+        List<String> phoneLogs = new ArrayList<>();
+        List<Path> phoneLogFiles = new ArrayList<>();
+        List<BigDecimal> expectedTotals = new ArrayList<>();
+        for (int seed = 1; seed <= 7; seed++) {
+            // a few phone numbers make the free one differ by log, the last log is split into several chunks
+            String phoneLog = CallLogGenerator.builder()
+                    .phoneNumberCount(seed * 3)
+                    .malformedFraction(0.01)
+                    .seed(seed)
+                    .build()
+                    .generate(seed < 7 ? 1_000 * seed : 60_000)
+                    + "+420 777 777,01-09-2023 10:00:00,01-09-2023 10:0" + seed + ":00\n";
+            phoneLogs.add(phoneLog);
+            phoneLogFiles.add(Files.writeString(directory.resolve("calls" + seed + ".csv"), phoneLog));
+            expectedTotals.add(new TelephoneBillCalculatorImpl(null, new FixedPointCostEngine(), silentPolicy)
+                    .calculate(phoneLog));
+        }
+        Assertions.assertTrue(phoneLogs.get(6).length() > 2 * (1 << 20));
+        Assertions.assertEquals(expectedTotals.size(), expectedTotals.stream().distinct().count());
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            TelephoneBillCalculatorImpl sharedCalculator = new TelephoneBillCalculatorImpl(null,
+                    new FixedPointCostEngine(), silentPolicy);
+            TelephoneBillCalculatorImpl sharedParallelCalculator = new TelephoneBillCalculatorImpl(forkJoinPool,
+                    new FixedPointCostEngine(), silentPolicy);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<BigDecimal>> totals = new ArrayList<>();
+            List<Integer> logIndexes = new ArrayList<>();
+            for (int task = 0; task < 480; task++) {
+                int logIndex = task % phoneLogs.size();
+                int method = task / phoneLogs.size() % 6;
+                TelephoneBillCalculatorImpl shared = method < 3 ? sharedCalculator : sharedParallelCalculator;
+                logIndexes.add(logIndex);
+                totals.add(executor.submit(() -> {
+                    start.await();
+                    switch (method % 3) {
+                        case 0:
+                            return shared.calculate(phoneLogs.get(logIndex));
+                        case 1:
+                            return shared.calculate(new StringReader(phoneLogs.get(logIndex)));
+                        default:
+                            return shared.calculateMapped(phoneLogFiles.get(logIndex));
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (int task = 0; task < totals.size(); task++) {
+                Assertions.assertEquals(expectedTotals.get(logIndexes.get(task)), totals.get(task).get(), "task " + task);
+            }
+        } finally {
+            executor.shutdown();
+            forkJoinPool.shutdown();
+        }
+    }
+}